@@ -142,6 +142,8 @@ public class OwlPlug extends Application {
 
   /**
    * Initialize EhCache CacheManager instance {@see CacheManager}.
+   * The image cache stores original image bytes, decoded images are kept by
+   * {@link com.owlplug.core.components.ImageCache} itself so the heap tier is kept small.
    * 
    * @return The CacheManager instance
    */
@@ -152,7 +154,11 @@ public class OwlPlug extends Application {
         .with(CacheManagerBuilder.persistence(ApplicationDefaults.getUserDataDirectory() + File.separator + "cache"))
         .withCache("image-cache", CacheConfigurationBuilder
             .newCacheConfigurationBuilder(String.class, byte[].class,
-                ResourcePoolsBuilder.newResourcePoolsBuilder().heap(100, MemoryUnit.MB).disk(700, MemoryUnit.MB, true))
+                ResourcePoolsBuilder.newResourcePoolsBuilder().heap(10, MemoryUnit.MB).disk(700, MemoryUnit.MB, true))
+            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofDays(10))))
+        .withCache("thumbnail-cache", CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(String.class, byte[].class,
+                ResourcePoolsBuilder.newResourcePoolsBuilder().heap(5, MemoryUnit.MB).disk(200, MemoryUnit.MB, true))
             .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofDays(10))))
         .build();
     cacheManager.init();
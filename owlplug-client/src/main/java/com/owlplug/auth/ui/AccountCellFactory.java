@@ -26,7 +26,6 @@ import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -88,8 +87,8 @@ public class AccountCellFactory implements Callback<ListView<AccountItem>, ListC
           cell.setAlignment(align);
 
           if (account.getIconUrl() != null) {
-            Image image = imageCache.get(account.getIconUrl());
-            ImageView imageView = new ImageView(image);
+            ImageView imageView = new ImageView();
+            imageCache.loadAsync(account.getIconUrl(), imageView);
             imageView.setFitWidth(32);
             imageView.setFitHeight(32);
             cell.getChildren().add(imageView);
@@ -100,8 +100,12 @@ public class ApplicationDefaults {
   public static final String LV2_EXTRA_DIRECTORY_KEY = "LV2_EXTRA_DIRECTORY_KEY";
   public static final String NATIVE_HOST_ENABLED_KEY = "NATIVE_HOST_ENABLED_KEY";
   public static final String PREFERRED_NATIVE_LOADER = "PREFERRED_NATIVE_LOADER";
+  public static final String NATIVE_SCAN_WORKERS_KEY = "NATIVE_SCAN_WORKERS_KEY";
   public static final String SELECTED_ACCOUNT_KEY = "SELECTED_ACCOUNT_KEY";
   public static final String SYNC_PLUGINS_STARTUP_KEY = "SYNC_PLUGINS_STARTUP_KEY";
+  public static final String SYNC_PLUGINS_INCREMENTAL_KEY = "SYNC_PLUGINS_INCREMENTAL_KEY";
+  public static final String SYNC_PLUGINS_CHECKSUM_KEY = "SYNC_PLUGINS_CHECKSUM_KEY";
+  public static final String PLUGIN_DIRECTORY_WATCHER_ENABLED_KEY = "PLUGIN_DIRECTORY_WATCHER_ENABLED_KEY";
   public static final String STORE_DIRECTORY_ENABLED_KEY = "STORE_DIRECTORY_ENABLED_KEY";
   public static final String STORE_BY_CREATOR_ENABLED_KEY = "STORE_BY_CREATOR_ENABLED_KEY";
   public static final String STORE_DIRECTORY_KEY = "STORE_DIRECTORY_KEY";
@@ -110,6 +114,7 @@ public class ApplicationDefaults {
   public static final String APPLICATION_STATE_KEY = "APPLICATION_STATE_KEY";
   public static final String SHOW_DIALOG_DISABLE_PLUGIN_KEY = "SHOW_DIALOG_DISABLE_PLUGIN_KEY";
   public static final String PROJECT_DIRECTORY_KEY = "PROJECT_DIRECTORY_KEY";
+  public static final String PROJECT_LOOKUP_CATALOG_KEY = "PROJECT_LOOKUP_CATALOG_KEY";
 
   /**
    * Creates a new ApplicationDefaults.
@@ -206,6 +211,15 @@ public class ApplicationDefaults {
     return "/path/to/audio/plugins";
   }
 
+  /**
+   * Returns the default number of plugins that can be scanned concurrently.
+   *
+   * @return default native scan workers
+   */
+  public static int getDefaultNativeScanWorkers() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
   public String getVersion() {
     return env.getProperty("owlplug.version");
   }
@@ -225,6 +239,15 @@ public class ApplicationDefaults {
   public String getStudiorackRegistryUrl() {
     return env.getProperty("studiorack.registry.url");
   }
+
+  /**
+   * Returns the number of plugins persisted in a single transaction during plugin syncs.
+   * @return plugin sync batch size
+   */
+  public int getPluginSyncBatchSize() {
+    return env.getProperty("owlplug.sync.plugins.batch-size", Integer.class, 50);
+  }
+
   public String getEnvProperty(String property) {
     return env.getProperty(property);
   }
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.prefs.BackingStoreException;
+import java.util.prefs.PreferenceChangeListener;
 import java.util.prefs.Preferences;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -101,6 +102,15 @@ public class ApplicationPreferences {
     }
   }
 
+  /**
+   * Registers a listener notified when a preference value changes.
+   * Events are dispatched asynchronously by the preferences event thread.
+   * @param listener - preference change listener
+   */
+  public void addPreferenceChangeListener(PreferenceChangeListener listener) {
+    basePreferences.addPreferenceChangeListener(listener);
+  }
+
   public void clear() throws BackingStoreException {
     this.basePreferences.clear();
   }
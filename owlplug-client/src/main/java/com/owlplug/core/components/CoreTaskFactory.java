@@ -37,6 +37,8 @@ import java.util.Set;
 import java.util.TreeSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class CoreTaskFactory extends BaseTaskFactory {
@@ -58,6 +60,8 @@ public class CoreTaskFactory extends BaseTaskFactory {
 
   @Autowired
   private FileStatDAO fileStatDAO;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
 
 
   private ArrayList<SimpleEventListener> syncPluginsListeners = new ArrayList<>();
@@ -94,6 +98,11 @@ public class CoreTaskFactory extends BaseTaskFactory {
     parameters.setVst3ExtraDirectories(prefs.getList(ApplicationDefaults.VST3_EXTRA_DIRECTORY_KEY));
     parameters.setAuExtraDirectories(prefs.getList(ApplicationDefaults.AU_EXTRA_DIRECTORY_KEY));
     parameters.setLv2ExtraDirectories(prefs.getList(ApplicationDefaults.LV2_EXTRA_DIRECTORY_KEY));
+    parameters.setIncremental(prefs.getBoolean(ApplicationDefaults.SYNC_PLUGINS_INCREMENTAL_KEY, false));
+    parameters.setChecksumEnabled(prefs.getBoolean(ApplicationDefaults.SYNC_PLUGINS_CHECKSUM_KEY, false));
+    parameters.setScanWorkers((int) prefs.getLong(ApplicationDefaults.NATIVE_SCAN_WORKERS_KEY,
+        ApplicationDefaults.getDefaultNativeScanWorkers()));
+    parameters.setBatchSize(applicationDefaults.getPluginSyncBatchSize());
 
     if (directoryScope != null) {
       parameters.setDirectoryScope(FileUtils.convertPath(directoryScope));
@@ -103,7 +112,8 @@ public class CoreTaskFactory extends BaseTaskFactory {
         pluginDAO, 
         pluginFootprintDAO, 
         symlinkDAO, 
-        nativeHostService);
+        nativeHostService,
+        new TransactionTemplate(transactionManager));
     
     syncTask.setOnSucceeded(syncEvent -> {
       notifyListeners(syncPluginsListeners);
@@ -15,19 +15,41 @@
  * You should have received a copy of the GNU General Public License
  * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
  */
- 
+
 package com.owlplug.core.components;
 
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javax.imageio.ImageIO;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.ehcache.Cache;
 import org.ehcache.CacheManager;
 import org.slf4j.Logger;
@@ -35,84 +57,137 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+/**
+ * Two-tier image cache.
+ * Original image bytes are stored as downloaded in the persistent "image-cache" EhCache.
+ * Decoded images are kept in a size bounded in-memory LRU. Images are fetched on a shared
+ * bounded pool, concurrent requests for the same url share the same fetch, and missing
+ * images (HTTP 404) are remembered for a limited time.
+ *
+ * <p>Thumbnails downscaled to a display size are stored in their own tiers: the persistent
+ * "thumbnail-cache" EhCache and a separate in-memory LRU. Original images fetched to
+ * create thumbnails are not kept.</p>
+ */
 @Component
 public class ImageCache {
 
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+  /*
+   * Maximum memory used by decoded images, estimated as 4 bytes per pixel.
+   */
+  private static final long DECODED_CACHE_MAX_BYTES = 96L * 1024 * 1024;
+  private static final long THUMBNAIL_CACHE_MAX_BYTES = 32L * 1024 * 1024;
+
+  private static final int FETCH_THREADS = 4;
+  private static final long MISSING_IMAGE_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
   @Autowired
   private CacheManager cacheManager;
 
+  private final ImageLru decodedImages = new ImageLru(DECODED_CACHE_MAX_BYTES);
+  private final ImageLru thumbnails = new ImageLru(THUMBNAIL_CACHE_MAX_BYTES);
+
+  private final Map<String, CompletableFuture<Image>> pendingFetches = new ConcurrentHashMap<>();
+  private final Map<String, Long> missingImages = new ConcurrentHashMap<>();
+
+  private final ExecutorService fetchExecutor;
+  private final CloseableHttpClient httpClient;
+
   ImageCache() {
+    AtomicInteger threadCount = new AtomicInteger();
+    fetchExecutor = new ThreadPoolExecutor(FETCH_THREADS, FETCH_THREADS, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "image-fetch-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    ((ThreadPoolExecutor) fetchExecutor).allowCoreThreadTimeOut(true);
 
+    httpClient = HttpClients.custom()
+        .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnPerRoute(FETCH_THREADS)
+            .setMaxConnTotal(FETCH_THREADS * 2)
+            .build())
+        .build();
   }
 
   /**
-   * Retrieve or persist asynchronously an image in cache from url.
-   * 
+   * Retrieves an image from cache, or fetches it from url. This method blocks until the
+   * image is available and should not be called on the JavaFX thread for uncached images.
+   *
    * @param url Image url
-   * @return The created image
+   * @return The image, or null if it can't be retrieved
    */
   public Image get(String url) {
-    return get(url, "png");
+    return getAsync(url).join();
   }
 
   /**
-   * Retrieve or persist asynchronously an image in cache from url.
-   * 
-   * @param url  Image url
-   * @param type Image type. Must be png or jpeg.
-   * @return The created image
+   * Retrieves an image from cache, or fetches it from url in the background.
+   *
+   * @param url Image url
+   * @return A future completed with the image, or with null if it can't be retrieved
    */
-  public Image get(String url, String type) {
-    return get(url, type, true);
+  public CompletableFuture<Image> getAsync(String url) {
+    if (url == null || url.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    Image image = decodedImages.get(url);
+    if (image != null) {
+      return CompletableFuture.completedFuture(image);
+    }
+    if (isMissing(url)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return submit(url, () -> loadImage(url));
   }
 
   /**
-   * Retrieve or persist image in cache from url.
-   * 
-   * @param url        Image url
-   * @param type       Image type. Must be png or jpeg.
-   * @param asyncFetch true indicates whether the image is being loaded in the
-   *                   background
-   * @return The created image
+   * Retrieves a thumbnail of an image from cache, or creates it in the background.
+   * The thumbnail covers the given size while preserving the image ratio.
+   *
+   * @param url    Image url
+   * @param width  Thumbnail width
+   * @param height Thumbnail height
+   * @return A future completed with the thumbnail, or with null if it can't be retrieved
    */
-  public Image get(String url, String type, boolean asyncFetch) {
-
+  public CompletableFuture<Image> getThumbnailAsync(String url, int width, int height) {
     if (url == null || url.isEmpty()) {
-      return null;
+      return CompletableFuture.completedFuture(null);
     }
-    Cache<String, byte[]> cache = getCache();
-    byte[] cachedElement = cache.get(url);
-
-    // Retrieve image from cache
-    if (cachedElement != null) {
-      try {
-        log.trace("Retrieving image {} from cache", url);
-        byte[] content = cachedElement;
-        ByteArrayInputStream s = new ByteArrayInputStream(content);
-        BufferedImage bufImage = ImageIO.read(s);
-        return SwingFXUtils.toFXImage(bufImage, null);
-      } catch (IOException e) {
-        log.error("Error retrieving image from cache", e);
-      }
+    String key = thumbnailKey(url, width, height);
+    Image image = thumbnails.get(key);
+    if (image != null) {
+      return CompletableFuture.completedFuture(image);
     }
-
-    // Load image
-    Image cachedImage = new Image(url, asyncFetch);
-    // In case of async fetch, persist to the cache on complete
-    cachedImage.progressProperty().addListener((observable, oldValue, progress) -> {
-      if ((Double) progress == 1.0 && !cachedImage.isError()) {
-        persistImageIntoCache(cache, url, cachedImage, type);
-      }
-    });
-    // In case of sync fetch, persist image in cache immediately
-    if (!asyncFetch && !cachedImage.isError()) {
-      persistImageIntoCache(cache, url, cachedImage, type);
-
+    if (isMissing(url)) {
+      return CompletableFuture.completedFuture(null);
     }
+    return submit(key, () -> loadThumbnail(url, key, width, height));
+  }
 
-    return cachedImage;
+  /**
+   * Returns true if a thumbnail is available in memory.
+   *
+   * @param url    Image url
+   * @param width  Thumbnail width
+   * @param height Thumbnail height
+   * @return true if the thumbnail can be displayed without loading
+   */
+  public boolean isThumbnailLoaded(String url, int width, int height) {
+    return thumbnails.get(thumbnailKey(url, width, height)) != null;
+  }
+
+  /**
+   * Loads an image from cache in the background and passes it to the consumer on
+   * the JavaFX thread. The consumer is called with null if the image can't be retrieved.
+   *
+   * @param url      Image url
+   * @param consumer Image consumer
+   */
+  public void loadAsync(String url, Consumer<Image> consumer) {
+    runOnFxThread(getAsync(url), consumer);
   }
 
   /**
@@ -123,23 +198,24 @@ public class ImageCache {
    * @param imageView Target image view
    */
   public void loadAsync(String url, ImageView imageView) {
-
-    Task<Image> task = new Task<Image>() {
-      public Image call() {
-        return ImageCache.this.get(url, "png", false);
-      }
-    };
-
-    task.setOnSucceeded(e -> {
-      Image image = task.getValue();
-      if (image != null && !image.isError()) {
-        Platform.runLater(() -> {
-          imageView.setImage(task.getValue());
-        });
+    loadAsync(url, image -> {
+      if (image != null) {
+        imageView.setImage(image);
       }
     });
-    new Thread(task).start();
+  }
 
+  /**
+   * Loads a thumbnail from cache in the background and passes it to the consumer on
+   * the JavaFX thread. The consumer is called with null if the thumbnail can't be retrieved.
+   *
+   * @param url      Image url
+   * @param width    Thumbnail width
+   * @param height   Thumbnail height
+   * @param consumer Thumbnail consumer
+   */
+  public void loadThumbnailAsync(String url, int width, int height, Consumer<Image> consumer) {
+    runOnFxThread(getThumbnailAsync(url, width, height), consumer);
   }
 
   /**
@@ -149,7 +225,7 @@ public class ImageCache {
    * @return true if cache contains key
    */
   public boolean contains(String key) {
-    return getCache().containsKey(key);
+    return decodedImages.get(key) != null || getCache().containsKey(key);
 
   }
 
@@ -158,7 +234,207 @@ public class ImageCache {
    */
   public void clear() {
     getCache().clear();
+    getThumbnailCache().clear();
+    decodedImages.clear();
+    thumbnails.clear();
+    missingImages.clear();
+
+  }
+
+  @PreDestroy
+  public void close() {
+    fetchExecutor.shutdownNow();
+    try {
+      httpClient.close();
+    } catch (IOException e) {
+      log.error("Image cache HTTP client can't be closed", e);
+    }
+  }
+
+  private void runOnFxThread(CompletableFuture<Image> future, Consumer<Image> consumer) {
+    future.thenAccept(image -> {
+      if (Platform.isFxApplicationThread()) {
+        consumer.accept(image);
+      } else {
+        Platform.runLater(() -> consumer.accept(image));
+      }
+    });
+  }
+
+  private boolean isMissing(String url) {
+    Long missingUntil = missingImages.get(url);
+    if (missingUntil != null) {
+      if (missingUntil > System.currentTimeMillis()) {
+        return true;
+      }
+      missingImages.remove(url);
+    }
+    return false;
+  }
+
+  /**
+   * Runs a loader on the fetch pool. Concurrent requests for the same key share a single fetch.
+   */
+  private CompletableFuture<Image> submit(String key, Supplier<Image> loader) {
+    CompletableFuture<Image> future = new CompletableFuture<>();
+    CompletableFuture<Image> pendingFetch = pendingFetches.putIfAbsent(key, future);
+    if (pendingFetch != null) {
+      return pendingFetch;
+    }
+    fetchExecutor.execute(() -> {
+      try {
+        future.complete(loader.get());
+      } catch (RuntimeException e) {
+        log.error("Error loading image {}", key, e);
+        future.complete(null);
+      } finally {
+        pendingFetches.remove(key, future);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Loads an image from the disk cache, or downloads it. Called on the fetch pool.
+   */
+  private Image loadImage(String url) {
+    Cache<String, byte[]> cache = getCache();
+    byte[] content = cache.get(url);
+    if (content != null) {
+      log.trace("Retrieving image {} from cache", url);
+    } else {
+      content = download(url);
+      if (content == null) {
+        return null;
+      }
+    }
 
+    Image image = new Image(new ByteArrayInputStream(content));
+    if (image.isError()) {
+      log.debug("Image {} can't be decoded", url, image.getException());
+      cache.remove(url);
+      return null;
+    }
+    if (!cache.containsKey(url)) {
+      log.trace("Persisting image {} into cache", url);
+      cache.put(url, content);
+    }
+    decodedImages.put(url, image);
+    return image;
+  }
+
+  /**
+   * Loads a thumbnail from the disk cache, or creates it from the original image.
+   * Called on the fetch pool.
+   */
+  private Image loadThumbnail(String url, String key, int width, int height) {
+    Cache<String, byte[]> thumbnailCache = getThumbnailCache();
+    byte[] content = thumbnailCache.get(key);
+
+    if (content == null) {
+      byte[] original = getCache().get(url);
+      if (original == null) {
+        original = download(url);
+      }
+      if (original == null) {
+        return null;
+      }
+      content = createThumbnail(original, width, height);
+      if (content == null) {
+        // Image format not supported by ImageIO, the thumbnail is only decoded
+        Image image = new Image(new ByteArrayInputStream(original), width, height, true, true);
+        if (image.isError()) {
+          log.debug("Image {} can't be decoded", url, image.getException());
+          return null;
+        }
+        thumbnails.put(key, image);
+        return image;
+      }
+      log.trace("Persisting thumbnail {} into cache", key);
+      thumbnailCache.put(key, content);
+    }
+
+    Image image = new Image(new ByteArrayInputStream(content));
+    if (image.isError()) {
+      log.debug("Thumbnail {} can't be decoded", key, image.getException());
+      thumbnailCache.remove(key);
+      return null;
+    }
+    thumbnails.put(key, image);
+    return image;
+  }
+
+  /**
+   * Downscales an image so that it covers the given size.
+   * @return PNG encoded thumbnail, or null if the image can't be read
+   */
+  private byte[] createThumbnail(byte[] original, int width, int height) {
+    try {
+      BufferedImage source = ImageIO.read(new ByteArrayInputStream(original));
+      if (source == null) {
+        return null;
+      }
+      double scale = Math.min(1, Math.max((double) width / source.getWidth(), (double) height / source.getHeight()));
+      int thumbnailWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+      int thumbnailHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+      BufferedImage thumbnail = new BufferedImage(thumbnailWidth, thumbnailHeight, BufferedImage.TYPE_INT_ARGB);
+      Graphics2D graphics = thumbnail.createGraphics();
+      try {
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(source, 0, 0, thumbnailWidth, thumbnailHeight, null);
+      } finally {
+        graphics.dispose();
+      }
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      ImageIO.write(thumbnail, "png", output);
+      return output.toByteArray();
+    } catch (IOException e) {
+      log.debug("Thumbnail can't be created", e);
+      return null;
+    }
+  }
+
+  /**
+   * Downloads image bytes.
+   * @return image bytes, or null if the image doesn't exist or can't be downloaded
+   */
+  private byte[] download(String url) {
+    try {
+      if (!url.startsWith("http://") && !url.startsWith("https://")) {
+        try (InputStream is = new URL(url).openStream()) {
+          return is.readAllBytes();
+        }
+      }
+
+      byte[] content = httpClient.execute(new HttpGet(url), response -> {
+        HttpEntity entity = response.getEntity();
+        try {
+          if (response.getCode() == HttpStatus.SC_NOT_FOUND || response.getCode() == HttpStatus.SC_GONE) {
+            return null;
+          }
+          if (response.getCode() != HttpStatus.SC_OK || entity == null) {
+            throw new IOException("Unexpected response: HTTP " + response.getCode());
+          }
+          return EntityUtils.toByteArray(entity);
+        } finally {
+          EntityUtils.consume(entity);
+        }
+      });
+      if (content == null) {
+        missingImages.put(url, System.currentTimeMillis() + MISSING_IMAGE_TTL_MILLIS);
+      }
+      return content;
+    } catch (IOException e) {
+      log.debug("Image {} can't be downloaded: {}", url, e.getMessage());
+      return null;
+    }
+  }
+
+  private static String thumbnailKey(String url, int width, int height) {
+    return url + "#" + width + "x" + height;
   }
 
   private Cache<String, byte[]> getCache() {
@@ -166,17 +442,51 @@ public class ImageCache {
 
   }
 
-  private void persistImageIntoCache(Cache<String, byte[]> cache, String key, Image image, String type) {
-    try {
-      log.trace("Persisting image {} into cache", key);
-      BufferedImage buffImage = SwingFXUtils.fromFXImage(image, null);
-      ByteArrayOutputStream s = new ByteArrayOutputStream();
-      ImageIO.write(buffImage, type, s);
-      byte[] res = s.toByteArray();
-      s.close(); // especially if you are using a different output stream.
-      cache.put(key, res);
-    } catch (IllegalArgumentException | IllegalStateException | IOException e) {
-      log.error("Error caching image", e);
+  private Cache<String, byte[]> getThumbnailCache() {
+    return cacheManager.getCache("thumbnail-cache", String.class, byte[].class);
+
+  }
+
+  /**
+   * In-memory LRU of decoded images, bounded by an estimate of the images size.
+   */
+  private static class ImageLru {
+
+    private final LinkedHashMap<String, Image> images = new LinkedHashMap<>(64, 0.75f, true);
+    private final long maxBytes;
+    private long bytes = 0;
+
+    ImageLru(long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    synchronized Image get(String key) {
+      return images.get(key);
+    }
+
+    synchronized void put(String key, Image image) {
+      Image previous = images.put(key, image);
+      if (previous != null) {
+        bytes -= sizeOf(previous);
+      }
+      bytes += sizeOf(image);
+
+      Iterator<Map.Entry<String, Image>> it = images.entrySet().iterator();
+      while (bytes > maxBytes && images.size() > 1 && it.hasNext()) {
+        bytes -= sizeOf(it.next().getValue());
+        it.remove();
+      }
+    }
+
+    synchronized void clear() {
+      images.clear();
+      bytes = 0;
     }
+
+    private static long sizeOf(Image image) {
+      return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
   }
+
 }
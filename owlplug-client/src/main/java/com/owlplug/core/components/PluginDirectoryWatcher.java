@@ -0,0 +1,461 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.components;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Watches plugin directories and schedules scoped plugin syncs when files are changed.
+ * Directories are registered recursively in a {@link WatchService}. Directories that can't be
+ * watched (unsupported file systems) are polled periodically instead.
+ * Bursts of events are debounced and coalesced into a minimal set of directory scopes. Events
+ * from plugin bundles are attributed to the bundle parent directory, as bundles are never used as
+ * sync scopes.
+ */
+@Component
+public class PluginDirectoryWatcher {
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+  private static final long DEBOUNCE_DELAY = 2000;
+  private static final long REFRESH_DELAY = 1000;
+  private static final long POLLING_INTERVAL = 30000;
+
+  /*
+   * A complete sync is scheduled instead of scoped syncs above this amount of changed scopes.
+   */
+  private static final int MAX_SCOPED_SYNCS = 5;
+
+  private static final List<String> BUNDLE_EXTENSIONS = List.of(".vst3", ".vst", ".component", ".lv2");
+
+  private static final Set<String> WATCHED_PREFERENCES = Set.of(
+      ApplicationDefaults.PLUGIN_DIRECTORY_WATCHER_ENABLED_KEY,
+      ApplicationDefaults.VST_DIRECTORY_KEY, ApplicationDefaults.VST2_DISCOVERY_ENABLED_KEY,
+      ApplicationDefaults.VST2_EXTRA_DIRECTORY_KEY,
+      ApplicationDefaults.VST3_DIRECTORY_KEY, ApplicationDefaults.VST3_DISCOVERY_ENABLED_KEY,
+      ApplicationDefaults.VST3_EXTRA_DIRECTORY_KEY,
+      ApplicationDefaults.AU_DIRECTORY_KEY, ApplicationDefaults.AU_DISCOVERY_ENABLED_KEY,
+      ApplicationDefaults.AU_EXTRA_DIRECTORY_KEY,
+      ApplicationDefaults.LV2_DIRECTORY_KEY, ApplicationDefaults.LV2_DISCOVERY_ENABLED_KEY,
+      ApplicationDefaults.LV2_EXTRA_DIRECTORY_KEY);
+
+  @Autowired
+  private ApplicationPreferences prefs;
+  @Autowired
+  private CoreTaskFactory coreTaskFactory;
+
+  /*
+   * All watcher states are only accessed from this single threaded executor.
+   */
+  private ScheduledExecutorService executor;
+
+  private WatchService watchService;
+  private Thread watchThread;
+  private Map<WatchKey, Path> watchKeys = new HashMap<>();
+  private Set<Path> watchedDirectories = new HashSet<>();
+  private List<Path> roots = new ArrayList<>();
+  private Map<Path, Map<Path, Long>> pollingSnapshots = new HashMap<>();
+  private ScheduledFuture<?> pollingTask;
+
+  private Set<Path> pendingScopes = new HashSet<>();
+  private ScheduledFuture<?> pendingSync;
+  private ScheduledFuture<?> pendingRefresh;
+
+  @PostConstruct
+  private void initialize() {
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "plugin-directory-watcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    prefs.addPreferenceChangeListener(event -> {
+      if (WATCHED_PREFERENCES.contains(event.getKey())) {
+        executor.execute(this::scheduleRefresh);
+      }
+    });
+    executor.execute(this::refresh);
+  }
+
+  @PreDestroy
+  private void destroy() {
+    executor.shutdownNow();
+    stopWatching();
+  }
+
+  private void scheduleRefresh() {
+    if (pendingRefresh != null) {
+      pendingRefresh.cancel(false);
+    }
+    pendingRefresh = executor.schedule(this::refresh, REFRESH_DELAY, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Registers all plugin directories defined in preferences.
+   */
+  private void refresh() {
+    stopWatching();
+
+    if (!prefs.getBoolean(ApplicationDefaults.PLUGIN_DIRECTORY_WATCHER_ENABLED_KEY, false)) {
+      return;
+    }
+
+    roots = getPluginDirectories();
+    if (roots.isEmpty()) {
+      return;
+    }
+
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+    } catch (IOException | UnsupportedOperationException e) {
+      log.warn("File system watch service is not available, plugin directories are polled", e);
+    }
+
+    for (Path root : roots) {
+      if (watchService == null || !register(root)) {
+        pollingSnapshots.put(root, snapshot(root));
+      }
+    }
+
+    if (watchService != null) {
+      watchThread = new Thread(this::watch, "plugin-directory-watch-service");
+      watchThread.setDaemon(true);
+      watchThread.start();
+    }
+    if (!pollingSnapshots.isEmpty()) {
+      pollingTask = executor.scheduleWithFixedDelay(this::poll, POLLING_INTERVAL, POLLING_INTERVAL,
+          TimeUnit.MILLISECONDS);
+    }
+    log.info("Watching {} plugin directories ({} polled)", roots.size(), pollingSnapshots.size());
+
+  }
+
+  private void stopWatching() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        log.error("Plugin directory watch service can't be closed", e);
+      }
+    }
+    if (pollingTask != null) {
+      pollingTask.cancel(false);
+    }
+    watchService = null;
+    watchThread = null;
+    pollingTask = null;
+    watchKeys.clear();
+    watchedDirectories.clear();
+    pollingSnapshots.clear();
+    roots.clear();
+  }
+
+  private List<Path> getPluginDirectories() {
+    List<String> directories = new ArrayList<>();
+    if (prefs.getBoolean(ApplicationDefaults.VST2_DISCOVERY_ENABLED_KEY, false)) {
+      directories.add(prefs.get(ApplicationDefaults.VST_DIRECTORY_KEY, ""));
+      directories.addAll(prefs.getList(ApplicationDefaults.VST2_EXTRA_DIRECTORY_KEY));
+    }
+    if (prefs.getBoolean(ApplicationDefaults.VST3_DISCOVERY_ENABLED_KEY, false)) {
+      directories.add(prefs.get(ApplicationDefaults.VST3_DIRECTORY_KEY, ""));
+      directories.addAll(prefs.getList(ApplicationDefaults.VST3_EXTRA_DIRECTORY_KEY));
+    }
+    if (prefs.getBoolean(ApplicationDefaults.AU_DISCOVERY_ENABLED_KEY, false)) {
+      directories.add(prefs.get(ApplicationDefaults.AU_DIRECTORY_KEY, ""));
+      directories.addAll(prefs.getList(ApplicationDefaults.AU_EXTRA_DIRECTORY_KEY));
+    }
+    if (prefs.getBoolean(ApplicationDefaults.LV2_DISCOVERY_ENABLED_KEY, false)) {
+      directories.add(prefs.get(ApplicationDefaults.LV2_DIRECTORY_KEY, ""));
+      directories.addAll(prefs.getList(ApplicationDefaults.LV2_EXTRA_DIRECTORY_KEY));
+    }
+
+    Set<Path> paths = new LinkedHashSet<>();
+    for (String directory : directories) {
+      if (directory != null && !directory.isBlank()) {
+        Path path = new File(directory).toPath().toAbsolutePath().normalize();
+        if (Files.isDirectory(path)) {
+          paths.add(path);
+        }
+      }
+    }
+    // Nested directories are already watched from their parent
+    return coalesceScopes(paths);
+  }
+
+  /**
+   * Registers a directory and all its subdirectories in the watch service.
+   * Plugin bundles and their content are not registered.
+   * @param directory - directory to register
+   * @return false if the directory can't be watched
+   */
+  private boolean register(Path directory) {
+    try {
+      Files.walkFileTree(directory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+          new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+              // Changes in plugin bundles are attributed to the bundle parent directory,
+              // bundle content is not watched to save watch keys.
+              if (!roots.contains(dir) && isBundle(dir.getFileName())) {
+                return FileVisitResult.SKIP_SUBTREE;
+              }
+              if (watchedDirectories.add(dir)) {
+                watchKeys.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+              log.debug("Directory can't be watched: {}", file, exc);
+              return FileVisitResult.CONTINUE;
+            }
+          });
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      log.warn("Directory {} can't be watched and will be polled", directory, e);
+      return false;
+    }
+  }
+
+  /**
+   * Blocking loop dispatching watch service events to the watcher executor.
+   */
+  private void watch() {
+    WatchService service = watchService;
+    while (true) {
+      WatchKey key;
+      try {
+        key = service.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      List<WatchEvent<?>> events = key.pollEvents();
+      boolean valid = key.reset();
+      executor.execute(() -> {
+        if (service == watchService) {
+          processEvents(key, events, valid);
+        }
+      });
+    }
+  }
+
+  private void processEvents(WatchKey key, List<WatchEvent<?>> events, boolean valid) {
+    Path directory = watchKeys.get(key);
+    if (directory == null) {
+      return;
+    }
+    if (!valid) {
+      watchKeys.remove(key);
+      watchedDirectories.remove(directory);
+    }
+
+    for (WatchEvent<?> event : events) {
+      if (event.kind() == OVERFLOW) {
+        // Some events have been lost, the whole directory tree is synchronized
+        addPendingScope(findRoot(directory));
+        continue;
+      }
+      Path child = directory.resolve((Path) event.context());
+      if (event.kind() == ENTRY_CREATE && Files.isDirectory(child)) {
+        register(child);
+      }
+      addPendingScope(resolveScope(findRoot(directory), directory));
+    }
+  }
+
+  private void poll() {
+    for (Map.Entry<Path, Map<Path, Long>> entry : pollingSnapshots.entrySet()) {
+      Path root = entry.getKey();
+      Map<Path, Long> previous = entry.getValue();
+      Map<Path, Long> current = snapshot(root);
+
+      Set<Path> changedPaths = new HashSet<>();
+      for (Map.Entry<Path, Long> file : current.entrySet()) {
+        if (!Objects.equals(previous.get(file.getKey()), file.getValue())) {
+          changedPaths.add(file.getKey());
+        }
+      }
+      for (Path file : previous.keySet()) {
+        if (!current.containsKey(file)) {
+          changedPaths.add(file);
+        }
+      }
+      for (Path changedPath : changedPaths) {
+        Path parent = changedPath.equals(root) ? root : changedPath.getParent();
+        addPendingScope(resolveScope(root, parent));
+      }
+      entry.setValue(current);
+    }
+  }
+
+  private Map<Path, Long> snapshot(Path root) {
+    Map<Path, Long> snapshot = new HashMap<>();
+    try {
+      Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+          new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+              snapshot.put(dir, attrs.lastModifiedTime().toMillis());
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+              snapshot.put(file, attrs.lastModifiedTime().toMillis());
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+              return FileVisitResult.CONTINUE;
+            }
+          });
+    } catch (IOException e) {
+      log.error("Plugin directory can't be polled: {}", root, e);
+    }
+    return snapshot;
+  }
+
+  private Path findRoot(Path directory) {
+    for (Path root : roots) {
+      if (directory.startsWith(root)) {
+        return root;
+      }
+    }
+    return directory;
+  }
+
+  private void addPendingScope(Path scope) {
+    pendingScopes.add(scope);
+    if (pendingSync != null) {
+      pendingSync.cancel(false);
+    }
+    pendingSync = executor.schedule(this::schedulePendingSyncs, DEBOUNCE_DELAY, TimeUnit.MILLISECONDS);
+  }
+
+  private void schedulePendingSyncs() {
+    List<Path> scopes = coalesceScopes(pendingScopes);
+    pendingScopes.clear();
+    pendingSync = null;
+
+    if (scopes.size() > MAX_SCOPED_SYNCS) {
+      log.debug("Changes detected in {} plugin directories, scheduling a complete sync", scopes.size());
+      Platform.runLater(() -> coreTaskFactory.createPluginSyncTask().schedule());
+    } else {
+      for (Path scope : scopes) {
+        log.debug("Changes detected in plugin directory {}", scope);
+        Platform.runLater(() -> coreTaskFactory.createPluginSyncTask(scope.toString()).schedule());
+      }
+    }
+  }
+
+  /**
+   * Returns the sync scope of a changed directory. If the directory is located in a plugin bundle,
+   * the bundle parent directory is returned.
+   * @param root - watched root directory
+   * @param directory - directory containing changed files
+   * @return the directory to synchronize
+   */
+  static Path resolveScope(Path root, Path directory) {
+    if (!directory.startsWith(root)) {
+      return root;
+    }
+    Path scope = root;
+    for (Path name : root.relativize(directory)) {
+      if (isBundle(name)) {
+        break;
+      }
+      scope = scope.resolve(name);
+    }
+    return scope;
+  }
+
+  /**
+   * Removes scopes already included in a parent scope.
+   * @param scopes - directory scopes
+   * @return the minimal list of scopes
+   */
+  static List<Path> coalesceScopes(Collection<Path> scopes) {
+    List<Path> sortedScopes = new ArrayList<>(scopes);
+    sortedScopes.sort(Path::compareTo);
+    Set<Path> coalescedScopes = new LinkedHashSet<>();
+    for (Path scope : sortedScopes) {
+      boolean nested = false;
+      for (Path parent = scope.getParent(); parent != null; parent = parent.getParent()) {
+        if (coalescedScopes.contains(parent)) {
+          nested = true;
+          break;
+        }
+      }
+      if (!nested) {
+        coalescedScopes.add(scope);
+      }
+    }
+    return new ArrayList<>(coalescedScopes);
+  }
+
+  private static boolean isBundle(Path name) {
+    String fileName = name.toString().toLowerCase().replaceFirst("\\.disabled$", "");
+    for (String extension : BUNDLE_EXTENSIONS) {
+      if (fileName.endsWith(extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -20,24 +20,26 @@ package com.owlplug.core.components;
 
 import com.owlplug.core.controllers.TaskBarController;
 import com.owlplug.core.tasks.AbstractTask;
-import com.owlplug.core.tasks.TaskResult;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 import javafx.application.Platform;
 import javafx.concurrent.Worker.State;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.util.concurrent.ListenableFuture;
-import org.springframework.util.concurrent.ListenableFutureCallback;
 
 /**
- * This class stores and executes submitted tasks one by one. Each pending tasks
- * is stored before execution. The runner dispatches execution information to
- * the TaskBarController bean.
+ * This class stores and executes submitted tasks. Each pending tasks is stored
+ * before execution. Tasks accessing independent resources are executed concurrently
+ * on a bounded pool, tasks with conflicting resources are executed one by one in
+ * submission order. The runner dispatches execution information of each running
+ * task (lane) to the TaskBarController bean.
  *
  */
 @Service
@@ -45,18 +47,29 @@ public class TaskRunner {
 
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+  /*
+   * Maximum number of tasks executed concurrently.
+   */
+  private static final int MAX_CONCURRENT_TASKS = 3;
+
   @Autowired
   private TaskBarController taskBarController;
 
-  private SimpleAsyncTaskExecutor exec;
+  private ExecutorService exec;
   private LinkedBlockingDeque<AbstractTask> taskQueue;
-  private AbstractTask currentTask = null;
+  private List<AbstractTask> runningTasks;
 
   private ArrayList<AbstractTask> taskHistory;
 
   private TaskRunner() {
-    exec = new SimpleAsyncTaskExecutor();
+    AtomicInteger threadCount = new AtomicInteger();
+    exec = Executors.newFixedThreadPool(MAX_CONCURRENT_TASKS, runnable -> {
+      Thread thread = new Thread(runnable, "owlplug-task-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
     taskQueue = new LinkedBlockingDeque<AbstractTask>();
+    runningTasks = new ArrayList<AbstractTask>();
     taskHistory = new ArrayList<AbstractTask>();
 
   }
@@ -86,61 +99,68 @@ public class TaskRunner {
   }
 
   /**
-   * Refresh the task runner by submitting the next pending task for execution.
+   * Refresh the task runner by submitting all pending tasks that can be executed.
+   * A pending task is started if it does not conflict with a running task or with
+   * a previous pending task, so conflicting tasks keep their submission order.
    * 
    */
-  @SuppressWarnings({"unchecked"})
   private synchronized void scheduleNext() {
 
-    if (!taskQueue.isEmpty() && currentTask == null) {
-      disableError();
-      // Get the next pending task
-      AbstractTask polledTask = taskQueue.pollFirst();
-      setCurrentTask(polledTask);
-      addInTaskHistory(currentTask);
-      log.debug("Task submitted to executor - {} ", currentTask.getClass().getName());
-      ListenableFuture<TaskResult> future = (ListenableFuture<TaskResult>) exec.submitListenable(currentTask);
-
-      future.addCallback(new ListenableFutureCallback<TaskResult>() {
-        @Override
-        public void onSuccess(TaskResult result) {
-          Platform.runLater(() -> {
-            if (currentTask.getState().equals(State.FAILED)) {
-              if (currentTask.getException() != null) {
-                log.error("Error while running task", currentTask.getException());
-              }
-              triggerOnError();
-            }
-            removeCurrentTask();
-            scheduleNext();
-          });
-        }
-
-        @Override
-        public void onFailure(Throwable ex) {
-          log.error("Error while running task", ex);
-          Platform.runLater(() -> {
-            removeCurrentTask();
-            scheduleNext();
-          });
-        }
-      });
+    List<AbstractTask> blockedTasks = new ArrayList<>();
+    Iterator<AbstractTask> iterator = taskQueue.iterator();
+
+    while (iterator.hasNext() && runningTasks.size() < MAX_CONCURRENT_TASKS) {
+      AbstractTask task = iterator.next();
+      if (conflictsWithAny(task, runningTasks) || conflictsWithAny(task, blockedTasks)) {
+        blockedTasks.add(task);
+        continue;
+      }
+      iterator.remove();
+      startTask(task);
     }
   }
 
-  private void setCurrentTask(AbstractTask task) {
-    this.currentTask = task;
-    // Bind progress indicators
-    taskBarController.taskProgressBar.progressProperty().bind(currentTask.progressProperty());
-    taskBarController.taskLabel.textProperty().bind(currentTask.messageProperty());
+  private boolean conflictsWithAny(AbstractTask task, List<AbstractTask> tasks) {
+    for (AbstractTask other : tasks) {
+      if (task.conflictsWith(other)) {
+        return true;
+      }
+    }
+    return false;
   }
 
-  private void removeCurrentTask() {
-    // Unbind progress indicators
-    taskBarController.taskProgressBar.progressProperty().unbind();
-    taskBarController.taskLabel.textProperty().unbind();
+  private void startTask(AbstractTask task) {
+    if (runningTasks.isEmpty()) {
+      disableError();
+    }
+    runningTasks.add(task);
+    addInTaskHistory(task);
+    taskBarController.bindTasks(runningTasks);
+    log.debug("Task submitted to executor - {} ", task.getClass().getName());
+
+    exec.execute(() -> {
+      try {
+        task.run();
+      } catch (Exception e) {
+        log.error("Error while running task", e);
+      }
+      // Task states are updated on the JavaFX thread, completion is handled once they are dispatched
+      Platform.runLater(() -> {
+        if (task.getState().equals(State.FAILED)) {
+          if (task.getException() != null) {
+            log.error("Error while running task", task.getException());
+          }
+          triggerOnError();
+        }
+        removeRunningTask(task);
+        scheduleNext();
+      });
+    });
+  }
 
-    currentTask = null;
+  private synchronized void removeRunningTask(AbstractTask task) {
+    runningTasks.remove(task);
+    taskBarController.bindTasks(runningTasks);
 
   }
 
@@ -151,13 +171,15 @@ public class TaskRunner {
     taskHistory.add(task);
   }
   
-  public void close() {
+  public synchronized void close() {
     taskQueue.clear();
-    AbstractTask pendingTask = currentTask;
-    removeCurrentTask();
-    if (pendingTask != null) {
+    List<AbstractTask> pendingTasks = new ArrayList<>(runningTasks);
+    runningTasks.clear();
+    taskBarController.bindTasks(runningTasks);
+    for (AbstractTask pendingTask : pendingTasks) {
       pendingTask.cancel();
     }
+    exec.shutdownNow();
     
   }
   
@@ -171,12 +193,12 @@ public class TaskRunner {
   }
 
   private void triggerOnError() {
-    taskBarController.taskProgressBar.getStyleClass().add("progress-bar-error");
+    taskBarController.setError(true);
 
   }
 
   public void disableError() {
-    taskBarController.taskProgressBar.getStyleClass().remove("progress-bar-error");
+    taskBarController.setError(false);
 
   }
 
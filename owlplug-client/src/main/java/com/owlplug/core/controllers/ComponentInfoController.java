@@ -23,7 +23,7 @@ import com.owlplug.core.model.Plugin;
 import com.owlplug.core.model.PluginComponent;
 import com.owlplug.core.services.PluginService;
 import com.owlplug.core.ui.PluginStateView;
-import java.util.ArrayList;
+import java.util.Objects;
 import java.util.Optional;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
@@ -70,7 +70,6 @@ public class ComponentInfoController extends BaseController {
   @FXML
   private Label pluginReferenceLabel;
   private PluginComponent currentComponent = null;
-  private ArrayList<String> knownPluginImages = new ArrayList<>();
 
   /**
    * FXML initialize method.
@@ -106,25 +105,21 @@ public class ComponentInfoController extends BaseController {
     }
 
     String url = currentPlugin.getScreenshotUrl();
-    if (knownPluginImages.contains(url) && !imageCache.contains(url)) {
-
-      BackgroundImage bgImg = new BackgroundImage(this.getApplicationDefaults().pluginPlaceholderImage,
-          BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER,
-            new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
-      pluginScreenshotPane.setBackground(new Background(bgImg));
-
-    } else {
-
-      this.knownPluginImages.add(url);
-      Image screenshot = imageCache.get(url);
-      if (screenshot != null) {
-        BackgroundImage bgImg = new BackgroundImage(screenshot, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
-            BackgroundPosition.CENTER,
-              new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
-        pluginScreenshotPane.setBackground(new Background(bgImg));
+    // The placeholder is displayed until the screenshot is retrieved. Missing screenshots
+    // are remembered by the image cache and never requested twice in a row.
+    setScreenshotBackground(this.getApplicationDefaults().pluginPlaceholderImage);
+    imageCache.loadAsync(url, screenshot -> {
+      if (screenshot != null && currentComponent != null && Objects.equals(url, currentComponent.getPlugin().getScreenshotUrl())) {
+        setScreenshotBackground(screenshot);
       }
+    });
+  }
 
-    }
+  private void setScreenshotBackground(Image image) {
+    BackgroundImage bgImg = new BackgroundImage(image, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
+        BackgroundPosition.CENTER,
+        new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
+    pluginScreenshotPane.setBackground(new Background(bgImg));
   }
 
 }
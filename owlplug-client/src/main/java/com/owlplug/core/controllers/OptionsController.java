@@ -36,6 +36,8 @@ import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.SpinnerValueFactory;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -54,10 +56,18 @@ public class OptionsController extends BaseController {
   private CheckBox pluginNativeCheckbox;
   @FXML
   private ComboBox<NativePluginLoader> pluginNativeComboBox;
+  @FXML
+  private Spinner<Integer> nativeScanWorkersSpinner;
 
   @FXML
   private CheckBox syncPluginsCheckBox;
   @FXML
+  private CheckBox watchDirectoriesCheckBox;
+  @FXML
+  private CheckBox incrementalSyncCheckBox;
+  @FXML
+  private CheckBox checksumSyncCheckBox;
+  @FXML
   private Button removeDataButton;
   @FXML
   private Label versionLabel;
@@ -132,6 +142,15 @@ public class OptionsController extends BaseController {
     pluginNativeCheckbox.selectedProperty().addListener((observable, oldValue, newValue) -> {
       this.getPreferences().putBoolean(ApplicationDefaults.NATIVE_HOST_ENABLED_KEY, newValue);
       this.pluginNativeComboBox.setDisable(!newValue);
+      this.nativeScanWorkersSpinner.setDisable(!newValue);
+    });
+
+    nativeScanWorkersSpinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1,
+        Math.max(64, ApplicationDefaults.getDefaultNativeScanWorkers())));
+    nativeScanWorkersSpinner.valueProperty().addListener((observable, oldValue, newValue) -> {
+      if (newValue != null) {
+        this.getPreferences().putLong(ApplicationDefaults.NATIVE_SCAN_WORKERS_KEY, newValue);
+      }
     });
 
     ObservableList<NativePluginLoader> pluginLoaders = FXCollections.observableArrayList(
@@ -149,6 +168,19 @@ public class OptionsController extends BaseController {
       this.getPreferences().putBoolean(ApplicationDefaults.SYNC_PLUGINS_STARTUP_KEY, newValue);
     });
 
+    watchDirectoriesCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+      this.getPreferences().putBoolean(ApplicationDefaults.PLUGIN_DIRECTORY_WATCHER_ENABLED_KEY, newValue);
+    });
+
+    incrementalSyncCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+      this.getPreferences().putBoolean(ApplicationDefaults.SYNC_PLUGINS_INCREMENTAL_KEY, newValue);
+      checksumSyncCheckBox.setDisable(!newValue);
+    });
+
+    checksumSyncCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+      this.getPreferences().putBoolean(ApplicationDefaults.SYNC_PLUGINS_CHECKSUM_KEY, newValue);
+    });
+
     storeSubDirectoryCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
       this.getPreferences().putBoolean(ApplicationDefaults.STORE_SUBDIRECTORY_ENABLED, newValue);
       warningSubDirectory.setVisible(!newValue);
@@ -225,8 +257,16 @@ public class OptionsController extends BaseController {
 
     pluginNativeCheckbox.setDisable(!nativeHostService.isNativeHostAvailable());
     pluginNativeComboBox.setDisable(!nativeHostService.isNativeHostAvailable());
+    nativeScanWorkersSpinner.setDisable(!nativeHostService.isNativeHostAvailable());
+    nativeScanWorkersSpinner.getValueFactory().setValue((int) this.getPreferences().getLong(
+        ApplicationDefaults.NATIVE_SCAN_WORKERS_KEY, ApplicationDefaults.getDefaultNativeScanWorkers()));
     pluginNativeCheckbox.setSelected(this.getPreferences().getBoolean(ApplicationDefaults.NATIVE_HOST_ENABLED_KEY, false));
     syncPluginsCheckBox.setSelected(this.getPreferences().getBoolean(ApplicationDefaults.SYNC_PLUGINS_STARTUP_KEY, false));
+    watchDirectoriesCheckBox.setSelected(
+        this.getPreferences().getBoolean(ApplicationDefaults.PLUGIN_DIRECTORY_WATCHER_ENABLED_KEY, false));
+    incrementalSyncCheckBox.setSelected(this.getPreferences().getBoolean(ApplicationDefaults.SYNC_PLUGINS_INCREMENTAL_KEY, false));
+    checksumSyncCheckBox.setSelected(this.getPreferences().getBoolean(ApplicationDefaults.SYNC_PLUGINS_CHECKSUM_KEY, false));
+    checksumSyncCheckBox.setDisable(!incrementalSyncCheckBox.isSelected());
     storeSubDirectoryCheckBox.setSelected(this.getPreferences().getBoolean(ApplicationDefaults.STORE_SUBDIRECTORY_ENABLED, true));
     warningSubDirectory.setVisible(!this.getPreferences().getBoolean(ApplicationDefaults.STORE_SUBDIRECTORY_ENABLED, true));
     storeDirectoryCheckBox.setSelected(this.getPreferences().getBoolean(ApplicationDefaults.STORE_DIRECTORY_ENABLED_KEY, false));
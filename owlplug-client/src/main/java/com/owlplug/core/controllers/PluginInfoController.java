@@ -31,6 +31,7 @@ import com.owlplug.core.ui.PluginStateView;
 import com.owlplug.core.utils.PlatformUtils;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Objects;
 import java.util.Optional;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -97,12 +98,13 @@ public class PluginInfoController extends BaseController {
   @FXML
   private Button uninstallButton;
   @FXML
+  private Button clearScanCacheButton;
+  @FXML
   private ListView<PluginComponent> pluginComponentListView;
   @FXML
   private ToggleSwitch nativeDiscoveryToggleButton;
 
   private Plugin currentPlugin = null;
-  private ArrayList<String> knownPluginImages = new ArrayList<>();
 
   /**
    * FXML initialize method.
@@ -143,6 +145,12 @@ public class PluginInfoController extends BaseController {
 
     pluginComponentListView.setCellFactory(new PluginComponentCellFactory(this.getApplicationDefaults()));
 
+    clearScanCacheButton.setOnAction(e -> {
+      if (currentPlugin != null) {
+        pluginService.invalidateNativeScan(currentPlugin);
+      }
+    });
+
     nativeDiscoveryToggleButton.selectedProperty().addListener((observable, oldValue, newValue) -> {
       if (currentPlugin != null && currentPlugin.getFootprint() != null) {
         currentPlugin.getFootprint().setNativeDiscoveryEnabled(newValue);
@@ -197,25 +205,21 @@ public class PluginInfoController extends BaseController {
     }
 
     String url = currentPlugin.getScreenshotUrl();
-    if (knownPluginImages.contains(url) && !imageCache.contains(url)) {
-
-      BackgroundImage bgImg = new BackgroundImage(this.getApplicationDefaults().pluginPlaceholderImage,
-          BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER,
-          new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
-      pluginScreenshotPane.setBackground(new Background(bgImg));
-
-    } else {
-
-      this.knownPluginImages.add(url);
-      Image screenshot = imageCache.get(url);
-      if (screenshot != null) {
-        BackgroundImage bgImg = new BackgroundImage(screenshot, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
-            BackgroundPosition.CENTER,
-            new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
-        pluginScreenshotPane.setBackground(new Background(bgImg));
+    // The placeholder is displayed until the screenshot is retrieved. Missing screenshots
+    // are remembered by the image cache and never requested twice in a row.
+    setScreenshotBackground(this.getApplicationDefaults().pluginPlaceholderImage);
+    imageCache.loadAsync(url, screenshot -> {
+      if (screenshot != null && currentPlugin != null && Objects.equals(url, currentPlugin.getScreenshotUrl())) {
+        setScreenshotBackground(screenshot);
       }
+    });
+  }
 
-    }
+  private void setScreenshotBackground(Image image) {
+    BackgroundImage bgImg = new BackgroundImage(image, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
+        BackgroundPosition.CENTER,
+        new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
+    pluginScreenshotPane.setBackground(new Background(bgImg));
   }
   
   private void showUninstallDialog() {
@@ -25,21 +25,23 @@ import com.owlplug.core.controllers.dialogs.ExportDialogController;
 import com.owlplug.core.controllers.dialogs.NewLinkController;
 import com.owlplug.core.dao.PluginDAO;
 import com.owlplug.core.dao.SymlinkDAO;
-import com.owlplug.core.model.IDirectory;
 import com.owlplug.core.model.Plugin;
-import com.owlplug.core.model.PluginComponent;
-import com.owlplug.core.model.PluginDirectory;
-import com.owlplug.core.model.Symlink;
 import com.owlplug.core.services.PluginService;
 import com.owlplug.core.ui.FilterableTreeItem;
+import com.owlplug.core.ui.PluginSearchIndex;
+import com.owlplug.core.ui.PluginTreeBuilder;
+import com.owlplug.core.ui.PluginTreeBuilder.FileTree;
 import com.owlplug.core.ui.PluginTreeCell;
 import com.owlplug.core.utils.FileUtils;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import javafx.beans.binding.Bindings;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javafx.animation.PauseTransition;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.TabPane;
@@ -48,6 +50,9 @@ import javafx.scene.control.TreeCell;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
 import javafx.util.Callback;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import jfxtras.styles.jmetro.JMetroStyleClass;
@@ -55,6 +60,10 @@ import jfxtras.styles.jmetro.JMetroStyleClass;
 @Controller
 public class PluginsController extends BaseController {
 
+  private static final Duration SEARCH_DEBOUNCE_DELAY = Duration.millis(150);
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
   @Autowired
   private PluginService pluginService;
   @Autowired
@@ -83,8 +92,15 @@ public class PluginsController extends BaseController {
   @FXML
   private Button newLinkButton;
 
-  private Iterable<Plugin> pluginList;
-  private FileTree pluginTree;
+  private int treeRefreshCount = 0;
+  private int searchRequestCount = 0;
+  private PluginSearchIndex searchIndex;
+  private PauseTransition searchDebounce;
+  private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "plugin-search");
+    thread.setDaemon(true);
+    return thread;
+  });
   private FilterableTreeItem<Object> treePluginNode;
   private FilterableTreeItem<Object> treeFileRootNode;
 
@@ -130,37 +146,12 @@ public class PluginsController extends BaseController {
       }
     });
 
-    // Binds search property to plugin tree filter
-    treePluginNode.predicateProperty().bind(Bindings.createObjectBinding(() -> {
-      if (searchTextField.getText() == null || searchTextField.getText().isEmpty()) {
-        return null;
-      }
-      return (item) -> {
-        if (item instanceof Plugin) {
-          Plugin plugin = (Plugin) item;
-          return plugin.getName().toLowerCase().contains(searchTextField.getText().toLowerCase())
-            || (plugin.getCategory() != null && plugin.getCategory().toLowerCase().contains(searchTextField.getText().toLowerCase()));
-        } else {
-          return item.toString().toLowerCase().contains(searchTextField.getText().toLowerCase());
-        }
-      };
-    }, searchTextField.textProperty()));
-
-    // Binds search property to file tree filter
-    treeFileRootNode.predicateProperty().bind(Bindings.createObjectBinding(() -> {
-      if (searchTextField.getText() == null || searchTextField.getText().isEmpty()) {
-        return null;
-      }
-      return (item) -> {
-        if (item instanceof Plugin) {
-          Plugin plugin = (Plugin) item;
-          return plugin.getName().toLowerCase().contains(searchTextField.getText().toLowerCase())
-            || (plugin.getCategory() != null && plugin.getCategory().toLowerCase().contains(searchTextField.getText().toLowerCase()));
-        } else {
-          return item.toString().toLowerCase().contains(searchTextField.getText().toLowerCase());
-        }
-      };
-    }, searchTextField.textProperty()));
+    // Search queries are debounced and resolved against the search index in background
+    searchDebounce = new PauseTransition(SEARCH_DEBOUNCE_DELAY);
+    searchDebounce.setOnFinished(e -> performPluginSearch());
+    searchTextField.textProperty().addListener((observable, oldValue, newValue) -> {
+      searchDebounce.playFromStart();
+    });
 
     syncButton.setOnAction(e -> {
       this.getAnalyticsService().pageView("/app/core/action/syncPlugins");
@@ -180,33 +171,90 @@ public class PluginsController extends BaseController {
   }
 
   /**
-   * Refreshes displayed plugins in tree views.
+   * Refreshes displayed plugins in tree views. Tree items are built in a background
+   * thread and attached to the tree views at once.
    */
   public void clearAndFillPluginTree() {
 
-    treePluginNode.getInternalChildren().clear();
-    this.pluginList = pluginDAO.findAll();
-
-    for (Plugin plugin : pluginList) {
+    Set<String> userPluginDirectories = getUserPluginDirectories();
+    int refreshId = ++treeRefreshCount;
+    String query = searchTextField.getText();
 
-      FilterableTreeItem<Object> item = new FilterableTreeItem<Object>(plugin);
-      treePluginNode.getInternalChildren().add(item);
-
-      // Display subcomponents in the plugin tree
-      if (plugin.getComponents().size() > 1) {
-        for (PluginComponent component : plugin.getComponents()) {
-          FilterableTreeItem<Object> compItem = new FilterableTreeItem<>(component);
-          item.getInternalChildren().add(compItem);
+    Task<PluginTreeContent> task = new Task<PluginTreeContent>() {
+      @Override
+      protected PluginTreeContent call() throws Exception {
+        Iterable<Plugin> pluginList = pluginDAO.findAll();
+        PluginTreeBuilder builder = new PluginTreeBuilder(symlinkDAO.findAll());
+
+        List<TreeItem<Object>> pluginItems = builder.buildPluginItems(pluginList);
+        FileTree pluginTree = builder.buildFileTree(pluginList);
+        List<TreeItem<Object>> directoryItems = new ArrayList<>();
+        for (String directory : userPluginDirectories) {
+          directoryItems.add(builder.buildDirectoryRoot(pluginTree, directory));
         }
+        PluginSearchIndex index = new PluginSearchIndex();
+        index.addAll(pluginItems);
+        index.addAll(directoryItems);
+        return new PluginTreeContent(pluginItems, directoryItems, index, index.findVisibleItems(query));
       }
-    }
+    };
+    task.setOnSucceeded(e -> {
+      // Ignore results of outdated refresh requests
+      if (refreshId != treeRefreshCount) {
+        return;
+      }
+      PluginTreeContent content = task.getValue();
+      searchIndex = content.searchIndex();
+      treePluginNode.getInternalChildren().setAll(content.pluginItems());
+      treePluginNode.setExpanded(true);
+      treeFileRootNode.getInternalChildren().setAll(content.directoryItems());
+      treeFileRootNode.setExpanded(true);
+      // New items are filtered with the query of the refresh request, or searched again if it changed.
+      // Pending searches were resolved on previous items and are ignored.
+      searchRequestCount++;
+      applySearchResult(content.visibleItems());
+      if (!Objects.equals(query, searchTextField.getText())) {
+        performPluginSearch();
+      }
+    });
+    task.setOnFailed(e -> log.error("Plugin tree could not be built", task.getException()));
+    new Thread(task, "plugin-tree-builder").start();
+
+  }
 
-    treePluginNode.setExpanded(true);
+  /**
+   * Resolves the current search query in background and applies the result to both
+   * tree views at once.
+   */
+  private void performPluginSearch() {
+    PluginSearchIndex index = searchIndex;
+    if (index == null) {
+      return;
+    }
+    String query = searchTextField.getText();
+    int requestId = ++searchRequestCount;
 
-    treeFileRootNode.getInternalChildren().clear();
+    Task<Set<TreeItem<Object>>> task = new Task<Set<TreeItem<Object>>>() {
+      @Override
+      protected Set<TreeItem<Object>> call() throws Exception {
+        return index.findVisibleItems(query);
+      }
+    };
+    task.setOnSucceeded(e -> {
+      // Ignore results of outdated queries
+      if (requestId == searchRequestCount) {
+        applySearchResult(task.getValue());
+      }
+    });
+    searchExecutor.execute(task);
+  }
 
-    generatePluginTree();
+  private void applySearchResult(Set<TreeItem<Object>> visibleItems) {
+    treePluginNode.applyFilter(visibleItems);
+    treeFileRootNode.applyFilter(visibleItems);
+  }
 
+  private Set<String> getUserPluginDirectories() {
     Set<String> userPluginDirectories = new HashSet<>();
     ApplicationPreferences prefs = this.getPreferences();
     if (prefs.getBoolean(ApplicationDefaults.VST2_DISCOVERY_ENABLED_KEY, false)
@@ -236,158 +284,7 @@ public class PluginsController extends BaseController {
       userPluginDirectories.add(FileUtils.convertPath(path));
       userPluginDirectories.addAll(prefs.getList(ApplicationDefaults.LV2_EXTRA_DIRECTORY_KEY));
     }
-
-    for (String directory : userPluginDirectories) {
-      treeFileRootNode.getInternalChildren().add(initDirectoryRoot(pluginTree, directory));
-    }
-
-    treeFileRootNode.setExpanded(true);
-
-  }
-
-  /**
-   * Generates a PluginTree representation. [rootDir -> [ subDir1 -> [ plugin1 ->
-   * [ ] ], subDir2 -> [ plugin2 -> [] , plugin3 -> [] ]] ]
-   * 
-   */
-  private void generatePluginTree() {
-
-    pluginTree = new FileTree();
-
-    for (Plugin plug : pluginList) {
-      FileTree node = pluginTree;
-      String[] subDirs = plug.getPath().split("/");
-      String currentPath = "";
-      for (int i = 0; i < subDirs.length; i++) {
-        currentPath = currentPath + subDirs[i] + "/";
-        String segment = subDirs[i];
-        FileTree ft = new FileTree();
-
-        if (node.get(segment) == null) {
-          // Node is a plugin (End of branch)
-          if (i == subDirs.length - 1) {
-            ft.setNodeValue(plug);
-
-            // Node is a directory
-          } else {
-            // TODO Should be optimized for large plugin set
-            List<Plugin> localPluginList = new ArrayList<Plugin>();
-            for (Plugin p : pluginList) {
-              if (p.getPath().startsWith(currentPath)) {
-                localPluginList.add(p);
-              }
-            }
-            
-            // Retrieve Symlink if exist
-            // TODO: This can be refactored to prevent trailing slash removal
-            Symlink symlink = symlinkDAO.findByPath(currentPath.substring(0, currentPath.length() - 1));
-            if (symlink != null) {
-              symlink.setPluginList(localPluginList);
-              ft.setNodeValue(symlink);
-            } else {
-              PluginDirectory directory = new PluginDirectory();
-              directory.setName(segment);
-              directory.setPath(currentPath);
-              directory.setPluginList(localPluginList);
-              ft.setNodeValue(directory);
-            }
-
-          }
-          node.put(segment, ft);
-        }
-        node = node.get(segment);
-      }
-    }
-  }
-
-  private FilterableTreeItem<Object> initDirectoryRoot(FileTree pluginTree, String directoryPath) {
-
-    FilterableTreeItem<Object> item = new FilterableTreeItem<>(null);
-    item.setExpanded(true);
-
-    FileTree treeHead = pluginTree;
-    String[] directories = directoryPath.split("/");
-
-    for (String dir : directories) {
-      if (treeHead != null) {
-        treeHead = treeHead.get(dir);
-      }
-    }
-
-    if (treeHead != null && treeHead.getNodeValue() instanceof PluginDirectory) {
-      PluginDirectory directory = (PluginDirectory) treeHead.getNodeValue();
-      directory.setRootDirectory(true);
-      item.setValue(directory);
-      buildDirectoryTree(treeHead, item, "");
-    }
-
-    return item;
-
-  }
-
-  /**
-   * Builds the directory tree view using filetree representation. If some
-   * directories contains only one subdirectory and nothing else, they are merged
-   * together in one node.
-   * 
-   * @param pluginTree   File tree representation
-   * @param node         root tree node
-   * @param mergedParent Name of merged parent tree
-   */
-  private void buildDirectoryTree(FileTree pluginTree, FilterableTreeItem<Object> node, String mergedParent) {
-
-    String mergedParentName = mergedParent;
-    node.setExpanded(true);
-
-    if (mergedParentName == null) {
-      mergedParentName = "";
-    }
-
-    // For each subdirectory (aka child nodes)
-    for (String dir : pluginTree.keySet()) {
-      FileTree child = pluginTree.get(dir);
-      // If child is empty then we have reached a plugin and we can't go deeper
-      if (child.values().isEmpty()) {
-        Plugin plugin = (Plugin) child.getNodeValue();
-        FilterableTreeItem<Object> plugItem = new FilterableTreeItem<>(plugin);
-        node.getInternalChildren().add(plugItem);
-
-        // Display subcomponents in the directory tree
-        if (plugin.getComponents().size() > 1) {
-          for (PluginComponent component : plugin.getComponents()) {
-            FilterableTreeItem<Object> compItem = new FilterableTreeItem<>(component);
-            plugItem.getInternalChildren().add(compItem);
-          }
-        }
-
-        // If not we are exploring a directory
-      } else {
-        IDirectory directory;
-        // If child node contains only one directory we can merge it with the child node
-        if (child.size() == 1 && ((FileTree) child.values().toArray()[0]).getNodeValue() instanceof PluginDirectory
-            && !(node.getValue() instanceof Symlink) 
-            && !(child.getNodeValue() instanceof Symlink)) {
-
-          directory = (IDirectory) child.getNodeValue();
-          mergedParentName = mergedParentName + directory.getName() + "/";
-
-          buildDirectoryTree(child, node, mergedParentName);
-          // We don't want to merge next directories in the current iteration
-          mergedParentName = "";
-
-          // In case our child cannot be merged (contains not only one subdirectory)
-        } else {
-          directory = (IDirectory) child.getNodeValue();
-          directory.setDisplayName(mergedParentName + directory.getName());
-
-          // We don't want to merge next directories in the current iteration
-          mergedParentName = "";
-          FilterableTreeItem<Object> item = new FilterableTreeItem<>(directory);
-          node.getInternalChildren().add(item);
-          buildDirectoryTree(child, item, mergedParentName);
-        }
-      }
-    }
+    return userPluginDirectories;
   }
 
   public void selectPluginInTreeById(long id) {
@@ -414,17 +311,9 @@ public class PluginsController extends BaseController {
     return items;
   }
 
-  class FileTree extends HashMap<String, FileTree> {
-
-    private Object nodeValue;
-
-    public void setNodeValue(Object nodeValue) {
-      this.nodeValue = nodeValue;
-    }
-
-    public Object getNodeValue() {
-      return nodeValue;
-    }
+  private record PluginTreeContent(List<TreeItem<Object>> pluginItems,
+      List<TreeItem<Object>> directoryItems, PluginSearchIndex searchIndex,
+      Set<TreeItem<Object>> visibleItems) {
   }
 
 }
@@ -22,8 +22,10 @@ import com.owlplug.controls.Popup;
 import com.owlplug.core.components.TaskRunner;
 import com.owlplug.core.tasks.AbstractTask;
 import java.util.ArrayList;
+import java.util.List;
 import javafx.concurrent.Worker.State;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
@@ -32,6 +34,7 @@ import javafx.scene.control.ProgressBar;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
 import javafx.util.Callback;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -48,6 +51,18 @@ public class TaskBarController extends BaseController {
   public ProgressBar taskProgressBar;
   @FXML
   private Button taskHistoryButton;
+  @FXML
+  private VBox taskLaneContainer;
+
+  /*
+   * Progress indicators displayed for tasks running concurrently with the main task.
+   */
+  private List<Node> laneNodes = new ArrayList<>();
+  private List<AbstractTask> boundTasks = new ArrayList<>();
+  /*
+   * True if a task failed since the last time the task bar was idle.
+   */
+  private boolean error = false;
 
   /**
    * FXML initialize.
@@ -57,6 +72,65 @@ public class TaskBarController extends BaseController {
     taskHistoryButton.setOnAction(e -> openTaskHistory());
   }
 
+  /**
+   * Binds progress indicators to running tasks. The first task is displayed in the main
+   * progress bar, an additional lane is displayed for each concurrent task.
+   * @param tasks - running tasks
+   */
+  public void bindTasks(List<AbstractTask> tasks) {
+    boundTasks = new ArrayList<>(tasks);
+    taskProgressBar.progressProperty().unbind();
+    taskLabel.textProperty().unbind();
+    taskLaneContainer.getChildren().removeAll(laneNodes);
+    laneNodes.clear();
+
+    for (int i = 0; i < tasks.size(); i++) {
+      AbstractTask task = tasks.get(i);
+      if (i == 0) {
+        taskProgressBar.progressProperty().bind(task.progressProperty());
+        taskLabel.textProperty().bind(task.messageProperty());
+        setErrorStyle(taskProgressBar, isFailed(task));
+      } else {
+        Label laneLabel = new Label();
+        laneLabel.textProperty().bind(task.messageProperty());
+        ProgressBar laneProgressBar = new ProgressBar();
+        laneProgressBar.setMaxWidth(Double.MAX_VALUE);
+        laneProgressBar.progressProperty().bind(task.progressProperty());
+        setErrorStyle(laneProgressBar, isFailed(task));
+        laneNodes.add(laneLabel);
+        laneNodes.add(laneProgressBar);
+      }
+    }
+    taskLaneContainer.getChildren().addAll(laneNodes);
+    if (tasks.isEmpty()) {
+      setErrorStyle(taskProgressBar, error);
+    }
+  }
+
+  /**
+   * Defines if a task failure is reported. The error is displayed on the main progress
+   * bar once no task is running, progress bars bound to running tasks are not affected.
+   * @param error - true if a task failed
+   */
+  public void setError(boolean error) {
+    this.error = error;
+    if (boundTasks.isEmpty()) {
+      setErrorStyle(taskProgressBar, error);
+    }
+  }
+
+  private boolean isFailed(AbstractTask task) {
+    return task.getState().equals(State.FAILED);
+  }
+
+  private void setErrorStyle(ProgressBar progressBar, boolean error) {
+    if (!error) {
+      progressBar.getStyleClass().removeAll("progress-bar-error");
+    } else if (!progressBar.getStyleClass().contains("progress-bar-error")) {
+      progressBar.getStyleClass().add("progress-bar-error");
+    }
+  }
+
   private void openTaskHistory() {
 
     if (!taskRunner.getTaskHistory().isEmpty()) {
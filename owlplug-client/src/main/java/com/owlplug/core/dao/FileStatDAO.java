@@ -19,10 +19,12 @@
 package com.owlplug.core.dao;
 
 import com.owlplug.core.model.FileStat;
-import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface FileStatDAO extends CrudRepository<FileStat, Long> {
 
@@ -30,7 +32,32 @@ public interface FileStatDAO extends CrudRepository<FileStat, Long> {
 
   List<FileStat> findByParentPathOrderByLengthDesc(String parentPath);
 
+  /**
+   * Deletes stats of a file or directory and all its descendants.
+   * @param path - root path of the deleted tree
+   */
+  default void deleteTree(String path) {
+    String escapedPath = path.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    String descendantPattern = escapedPath.endsWith("/") ? escapedPath + "%" : escapedPath + "/%";
+    detachTree(path, descendantPattern);
+    deleteTree(path, descendantPattern);
+  }
+
+  /**
+   * Removes parent links in a tree so rows can be deleted in bulk.
+   * Pattern uses {@code !} as escape character.
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE FileStat f SET f.parent = NULL WHERE f.path = ?1 OR f.path LIKE ?2 ESCAPE '!'")
+  void detachTree(String path, String descendantPattern);
+
+  /**
+   * Deletes all rows of a tree. Pattern uses {@code !} as escape character.
+   */
   @Transactional
-  List<FileStat> deleteByPath(String path);
+  @Modifying
+  @Query("DELETE FROM FileStat f WHERE f.path = ?1 OR f.path LIKE ?2 ESCAPE '!'")
+  void deleteTree(String path, String descendantPattern);
 
 }
@@ -25,6 +25,7 @@ import jakarta.persistence.criteria.JoinType;
 import java.util.List;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -51,6 +52,16 @@ public interface PluginDAO extends CrudRepository<Plugin, Long>, JpaSpecificatio
   Plugin findByPath(String path);
   
   List<Plugin> findBySyncComplete(boolean syncComplete);
+
+  List<Plugin> findByPathContainingIgnoreCase(String path);
+
+  /**
+   * Loads all plugins with their components and footprint in a single query.
+   *
+   * @return all plugins
+   */
+  @Query("SELECT DISTINCT p FROM Plugin p LEFT JOIN FETCH p.components LEFT JOIN FETCH p.footprint")
+  List<Plugin> findAllWithComponents();
   
   @Transactional
   void deleteByPathContainingIgnoreCase(String path);
@@ -19,10 +19,33 @@
 package com.owlplug.core.dao;
 
 import com.owlplug.core.model.PluginFootprint;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface PluginFootprintDAO  extends CrudRepository<PluginFootprint, Long> {
   
   PluginFootprint findByPath(String path);
 
+  /**
+   * Clears the stored file fingerprint of a plugin, so the plugin is synchronized
+   * again by the next incremental sync.
+   * @param path - plugin path
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE PluginFootprint f SET f.length = NULL, f.lastModified = NULL, f.checksum = NULL, "
+      + "f.discoveryLoaderId = NULL WHERE f.path = ?1")
+  void resetFingerprint(String path);
+
+  /**
+   * Clears stored file fingerprints of all plugins.
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE PluginFootprint f SET f.length = NULL, f.lastModified = NULL, f.checksum = NULL, "
+      + "f.discoveryLoaderId = NULL")
+  void resetAllFingerprints();
+
 }
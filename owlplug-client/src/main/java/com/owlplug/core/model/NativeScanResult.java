@@ -0,0 +1,113 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Cached result of a native plugin discovery. The result is valid as long as the plugin file
+ * fingerprint and the loader used to scan the plugin are unchanged.
+ */
+@Entity
+@Table(indexes = { @Index(name = "IDX_NATIVE_SCAN_RESULT_PATH", columnList = "path") })
+public class NativeScanResult {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.AUTO)
+  private Long id;
+
+  private String path;
+  private String loaderId;
+  private Long length;
+  private Long lastModified;
+  private String checksum;
+
+  /*
+   * Native plugins found during discovery, serialized as JSON
+   */
+  @Column(columnDefinition = "text")
+  private String content;
+
+  public NativeScanResult() {
+
+  }
+
+  public NativeScanResult(String path) {
+    this.path = path;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  public String getLoaderId() {
+    return loaderId;
+  }
+
+  public void setLoaderId(String loaderId) {
+    this.loaderId = loaderId;
+  }
+
+  public Long getLength() {
+    return length;
+  }
+
+  public void setLength(Long length) {
+    this.length = length;
+  }
+
+  public Long getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(Long lastModified) {
+    this.lastModified = lastModified;
+  }
+
+  public String getChecksum() {
+    return checksum;
+  }
+
+  public void setChecksum(String checksum) {
+    this.checksum = checksum;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public void setContent(String content) {
+    this.content = content;
+  }
+
+}
@@ -35,6 +35,19 @@ public class PluginFootprint {
   protected Long id;
   protected String path;
   protected boolean nativeDiscoveryEnabled = true;
+
+  /*
+   * Plugin file fingerprint recorded on the last completed sync.
+   * Used by incremental syncs to detect unchanged plugins.
+   */
+  protected Long length;
+  protected Long lastModified;
+  protected String checksum;
+  /*
+   * Native loader used to discover plugin components on the last completed sync,
+   * null if native discovery did not run.
+   */
+  protected String discoveryLoaderId;
   
   
   public PluginFootprint(){
@@ -61,6 +74,38 @@ public class PluginFootprint {
     this.nativeDiscoveryEnabled = nativeDiscoveryEnabled;
   }
 
+  public Long getLength() {
+    return length;
+  }
+
+  public void setLength(Long length) {
+    this.length = length;
+  }
+
+  public Long getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(Long lastModified) {
+    this.lastModified = lastModified;
+  }
+
+  public String getChecksum() {
+    return checksum;
+  }
+
+  public void setChecksum(String checksum) {
+    this.checksum = checksum;
+  }
+
+  public String getDiscoveryLoaderId() {
+    return discoveryLoaderId;
+  }
+
+  public void setDiscoveryLoaderId(String discoveryLoaderId) {
+    this.discoveryLoaderId = discoveryLoaderId;
+  }
+
   public Long getId() {
     return id;
   }
@@ -18,7 +18,13 @@
 
 package com.owlplug.core.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.owlplug.core.components.ApplicationDefaults;
+import com.owlplug.core.dao.NativeScanResultDAO;
+import com.owlplug.core.dao.PluginFootprintDAO;
+import com.owlplug.core.model.NativeScanResult;
+import com.owlplug.core.tasks.plugins.discovery.PluginFileFingerprint;
 import com.owlplug.host.NativePlugin;
 import com.owlplug.host.loaders.DummyPluginLoader;
 import com.owlplug.host.loaders.EmbeddedScannerPluginLoader;
@@ -26,17 +32,30 @@ import com.owlplug.host.loaders.NativePluginLoader;
 import com.owlplug.host.loaders.jni.JNINativePluginLoader;
 import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class NativeHostService extends BaseService {
 
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+  @Autowired
+  private NativeScanResultDAO nativeScanResultDAO;
+
+  @Autowired
+  private PluginFootprintDAO pluginFootprintDAO;
+
+  private ObjectMapper objectMapper = new ObjectMapper();
+
   private List<NativePluginLoader> pluginLoaders = new ArrayList<>();
 
   private NativePluginLoader currentPluginLoader = null;
@@ -120,6 +139,95 @@ public class NativeHostService extends BaseService {
     }
   }
 
+  /**
+   * Retrieves all cached native scans in a single query.
+   *
+   * @return cached native scans indexed by plugin path
+   */
+  public Map<String, NativeScanResult> getCachedScans() {
+    Map<String, NativeScanResult> results = new HashMap<>();
+    for (NativeScanResult result : nativeScanResultDAO.findAll()) {
+      results.put(result.getPath(), result);
+    }
+    return results;
+  }
+
+  /**
+   * Returns native plugins stored in a cached scan if it has been made with the current loader.
+   * The cached result is ignored if the plugin file fingerprint changed since the scan.
+   *
+   * @param result - cached scan of the plugin, may be null
+   * @param fingerprint - current plugin file fingerprint
+   * @return cached native plugins, or null if no valid result is cached
+   */
+  public List<NativePlugin> getCachedScan(NativeScanResult result, PluginFileFingerprint fingerprint) {
+    if (result == null || fingerprint == null || currentPluginLoader == null
+        || !currentPluginLoader.getId().equals(result.getLoaderId())
+        || !fingerprint.matches(result.getLength(), result.getLastModified(), result.getChecksum())) {
+      return null;
+    }
+
+    try {
+      return new ArrayList<>(Arrays.asList(objectMapper.readValue(result.getContent(), NativePlugin[].class)));
+    } catch (JsonProcessingException e) {
+      log.error("Cached native scan can't be deserialized for plugin {}", result.getPath(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Stores native plugins discovered for the given path with the current loader.
+   * Empty results are not cached as loaders also return them when a plugin crashes
+   * the scanner, so the plugin is scanned again on the next sync.
+   *
+   * @param result - previous cached scan of the plugin, may be null
+   * @param path - plugin path
+   * @param fingerprint - plugin file fingerprint at scan time
+   * @param nativePlugins - discovered native plugins
+   */
+  public void cacheScan(NativeScanResult result, String path, PluginFileFingerprint fingerprint,
+      List<NativePlugin> nativePlugins) {
+    if (fingerprint == null || nativePlugins == null || nativePlugins.isEmpty() || currentPluginLoader == null) {
+      return;
+    }
+
+    try {
+      if (result == null) {
+        result = new NativeScanResult(path);
+      }
+      result.setLoaderId(currentPluginLoader.getId());
+      result.setLength(fingerprint.getLength());
+      result.setLastModified(fingerprint.getLastModified());
+      result.setChecksum(fingerprint.getChecksum());
+      result.setContent(objectMapper.writeValueAsString(nativePlugins));
+      nativeScanResultDAO.save(result);
+    } catch (JsonProcessingException e) {
+      log.error("Native scan can't be serialized for plugin {}", path, e);
+    }
+  }
+
+  /**
+   * Removes the cached native scan of a plugin. The plugin will be scanned again on the next sync.
+   * The plugin fingerprint is cleared as well, otherwise incremental syncs skip the plugin
+   * before looking up the cache.
+   *
+   * @param path - plugin path
+   */
+  @Transactional
+  public void invalidateCachedScan(String path) {
+    nativeScanResultDAO.deleteByPath(path);
+    pluginFootprintDAO.resetFingerprint(path);
+  }
+
+  /**
+   * Removes all cached native scans. All plugins will be scanned again on the next sync.
+   */
+  @Transactional
+  public void clearScanCache() {
+    nativeScanResultDAO.deleteAll();
+    pluginFootprintDAO.resetAllFingerprints();
+  }
+
   public boolean isNativeHostEnabled() {
     return this.getPreferences().getBoolean(ApplicationDefaults.NATIVE_HOST_ENABLED_KEY, false);
   }
@@ -55,6 +55,8 @@ public class OptionsService extends BaseService {
   private FileStatDAO fileStatDAO;
   @Autowired
   private ImageCache imageCache;
+  @Autowired
+  private NativeHostService nativeHostService;
 
   @PostConstruct
   private void initialize() {
@@ -123,6 +125,7 @@ public class OptionsService extends BaseService {
    */
   public void clearCache() {
     imageCache.clear();
+    nativeHostService.clearScanCache();
   }
 
 }
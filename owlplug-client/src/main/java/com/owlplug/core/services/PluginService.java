@@ -50,6 +50,8 @@ public class PluginService extends BaseService {
   protected PluginFootprintDAO pluginFootprintDAO;
   @Autowired
   protected CoreTaskFactory taskFactory;
+  @Autowired
+  protected NativeHostService nativeHostService;
   
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
@@ -175,6 +177,15 @@ public class PluginService extends BaseService {
     return pluginFootprintDAO.save(pluginFootprint);
   }
   
+  /**
+   * Removes the cached native discovery result of a plugin.
+   * The plugin will be explored again by the native host on the next sync.
+   * @param plugin - plugin to invalidate
+   */
+  public void invalidateNativeScan(Plugin plugin) {
+    nativeHostService.invalidateCachedScan(plugin.getPath());
+  }
+
   public List<Plugin> getSyncIncompletePlugins() {
     return pluginDAO.findBySyncComplete(false);
   }
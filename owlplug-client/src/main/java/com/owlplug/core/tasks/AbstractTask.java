@@ -19,6 +19,9 @@
 package com.owlplug.core.tasks;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import javafx.concurrent.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +36,7 @@ public abstract class AbstractTask extends Task<TaskResult> {
   private double committedProgress = 0;
 
   private ArrayList<String> warnings = new ArrayList<>();
+  private Set<TaskResource> resources = new HashSet<>();
 
   public AbstractTask() {
   }
@@ -80,6 +84,38 @@ public abstract class AbstractTask extends Task<TaskResult> {
     this.name = name;
   }
 
+  /**
+   * Declares a resource accessed by the task. Tasks without any declared resource
+   * are never executed concurrently with other tasks.
+   * @param resource - accessed resource
+   */
+  protected void addResource(TaskResource resource) {
+    resources.add(resource);
+  }
+
+  public Set<TaskResource> getResources() {
+    return Collections.unmodifiableSet(resources);
+  }
+
+  /**
+   * Checks if this task can't be executed concurrently with the given task.
+   * @param task - task to compare
+   * @return true if both tasks access conflicting resources
+   */
+  public boolean conflictsWith(AbstractTask task) {
+    if (resources.isEmpty() || task.resources.isEmpty()) {
+      return true;
+    }
+    for (TaskResource resource : resources) {
+      for (TaskResource other : task.resources) {
+        if (resource.conflictsWith(other)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   protected ArrayList<String> getWarnings() {
     return warnings;
   }
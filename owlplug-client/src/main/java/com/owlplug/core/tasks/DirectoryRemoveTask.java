@@ -30,6 +30,7 @@ public class DirectoryRemoveTask extends AbstractTask {
 
     this.pluginDirectory = pluginDirectory;
     setName("Remove directory");
+    addResource(TaskResource.directory(pluginDirectory.getPath()));
   }
 
   @Override
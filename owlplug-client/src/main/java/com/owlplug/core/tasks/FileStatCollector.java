@@ -0,0 +1,173 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.tasks;
+
+import com.owlplug.core.model.FileStat;
+import com.owlplug.core.utils.FileUtils;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes file and directory sizes of a directory tree. Each directory is listed with
+ * its file attributes in a fork/join task, so subdirectories are explored in parallel.
+ * A {@link FileStat} is emitted for each regular file and, once its content is
+ * measured, for each directory. The consumer can be called concurrently.
+ */
+public class FileStatCollector {
+
+  private static final Logger log = LoggerFactory.getLogger(FileStatCollector.class);
+
+  private final ForkJoinPool pool;
+  private final Consumer<FileStat> consumer;
+  private final Set<Object> visitedDirectories = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Creates a new collector.
+   * @param pool - pool executing directory tasks
+   * @param consumer - thread safe consumer receiving collected stats
+   */
+  public FileStatCollector(ForkJoinPool pool, Consumer<FileStat> consumer) {
+    this.pool = pool;
+    this.consumer = consumer;
+  }
+
+  /**
+   * Starts collecting stats of a directory tree.
+   * @param directory - root directory
+   * @return task computing the directory size
+   */
+  public ForkJoinTask<Long> submit(Path directory) {
+    return pool.submit(new DirectoryTask(directory.toAbsolutePath(), null, null));
+  }
+
+  private FileStat createFileStat(Path file, String parentPath, long length) {
+    FileStat fileStat = new FileStat();
+    Path fileName = file.getFileName();
+    fileStat.setName(fileName != null ? fileName.toString() : file.toString());
+    fileStat.setPath(FileUtils.convertPath(file.toString()));
+    fileStat.setParentPath(parentPath);
+    fileStat.setLength(length);
+    return fileStat;
+  }
+
+  /**
+   * Checks if a directory is explored for the first time. Symbolic links are followed,
+   * so directories are identified by their file key to avoid cycles.
+   */
+  private boolean markVisited(Path directory, BasicFileAttributes attributes) {
+    Object key = attributes != null ? attributes.fileKey() : null;
+    if (key == null) {
+      try {
+        key = directory.toRealPath().toString();
+      } catch (IOException e) {
+        key = directory.toString();
+      }
+    }
+    return visitedDirectories.add(key);
+  }
+
+  private class DirectoryTask extends RecursiveTask<Long> {
+
+    private final Path directory;
+    private final BasicFileAttributes attributes;
+    private final String parentPath;
+
+    DirectoryTask(Path directory, BasicFileAttributes attributes, String parentPath) {
+      this.directory = directory;
+      this.attributes = attributes;
+      this.parentPath = parentPath;
+    }
+
+    @Override
+    protected Long compute() {
+
+      BasicFileAttributes directoryAttributes = attributes;
+      if (directoryAttributes == null) {
+        try {
+          directoryAttributes = Files.readAttributes(directory, BasicFileAttributes.class);
+        } catch (IOException e) {
+          log.warn("Attributes of directory {} can't be read", directory, e);
+        }
+      }
+      if (!markVisited(directory, directoryAttributes)) {
+        return 0L;
+      }
+
+      String path = FileUtils.convertPath(directory.toString());
+      List<DirectoryTask> subdirectoryTasks = new ArrayList<>();
+      long[] length = {0};
+
+      try {
+        Files.walkFileTree(directory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes fileAttributes) {
+            if (fileAttributes.isDirectory()) {
+              subdirectoryTasks.add(new DirectoryTask(file, fileAttributes, path));
+            } else if (fileAttributes.isRegularFile()) {
+              length[0] += fileAttributes.size();
+              consumer.accept(createFileStat(file, path, fileAttributes.size()));
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            log.debug("File {} can't be read", file, exc);
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+            if (exc != null) {
+              log.warn("Directory {} can't be listed", dir, exc);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+      } catch (IOException e) {
+        log.warn("Directory {} can't be explored", directory, e);
+      }
+
+      invokeAll(subdirectoryTasks);
+      for (DirectoryTask task : subdirectoryTasks) {
+        length[0] += task.join();
+      }
+
+      consumer.accept(createFileStat(directory, parentPath, length[0]));
+      return length[0];
+    }
+  }
+
+}
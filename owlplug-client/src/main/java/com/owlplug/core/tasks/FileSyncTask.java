@@ -22,13 +22,30 @@ import com.owlplug.core.dao.FileStatDAO;
 import com.owlplug.core.model.FileStat;
 import com.owlplug.core.utils.FileUtils;
 import java.io.File;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Computes file and directory sizes of the given directories. Directory trees are
+ * explored in parallel by a {@link FileStatCollector} and collected stats are saved in
+ * batches by the task thread.
+ */
 public class FileSyncTask extends AbstractTask {
 
+  private static final int FILE_STAT_BATCH_SIZE = 500;
+  private static final int QUEUE_CAPACITY = 10000;
+
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
   private FileStatDAO fileStatDAO;
@@ -39,77 +56,104 @@ public class FileSyncTask extends AbstractTask {
     this.fileStatDAO = fileStatDAO;
     directories = Arrays.asList(directoryPath);
     setName("Sync files metrics");
+    addResources();
   }
 
   public FileSyncTask(FileStatDAO fileStatDAO, List<String> directories) {
     this.fileStatDAO = fileStatDAO;
     this.directories = directories;
     setName("Sync files metrics");
+    addResources();
   }
 
 
+  private void addResources() {
+    addResource(TaskResource.FILE_STATS);
+    for (String directory : directories) {
+      addResource(TaskResource.directory(directory));
+    }
+  }
+
   @Override
   protected TaskResult call() throws Exception {
 
     this.updateProgress(1, 3);
 
-    long length = 0;
-    for (String directoryPath : directories) {
-      try {
-        log.info("Starting file sync task on directory {}", directoryPath);
+    ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), factoryPool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(factoryPool);
+      thread.setName("file-sync-" + thread.getPoolIndex());
+      thread.setDaemon(true);
+      return thread;
+    }, null, false);
+
+    try {
+      for (String directoryPath : directories) {
         File directory = new File(directoryPath);
         if (directory.exists() && directory.isDirectory()) {
-          length = extractFolderSize(directory, null);
+          log.info("Starting file sync task on directory {}", directoryPath);
+          long length = syncDirectory(pool, directory);
           log.info("Completed file sync task on directory {}, computed length: {}", directoryPath, length);
         }
-
-      } catch (Exception e) {
-        log.error("An error occurred during file sync task execution", e);
-        throw new TaskException(e);
       }
+    } catch (Exception e) {
+      log.error("An error occurred during file sync task execution", e);
+      throw new TaskException(e);
+    } finally {
+      pool.shutdownNow();
     }
+
     this.updateMessage("Plugins and files metrics synchronized.");
     this.updateProgress(3, 3);
     return success();
   }
 
-  public long extractFolderSize(File directory, FileStat parent) {
-    long length = 0;
-
-    this.updateMessage("Collecting file metrics on directory: " + directory.getAbsolutePath());
-    fileStatDAO.deleteByPath(FileUtils.convertPath(directory.getAbsolutePath()));
-
-    FileStat directoryStat = new FileStat();
-    directoryStat.setName(directory.getName());
-    directoryStat.setPath(FileUtils.convertPath(directory.getAbsolutePath()));
-
-    if (parent != null) {
-      directoryStat.setParentPath(parent.getPath());
-      directoryStat.setParent(parent);
-    }
-    directoryStat.setLength(0);
-    fileStatDAO.save(directoryStat);
-
-    for (File file : directory.listFiles()) {
-      if (file.isFile()) {
-        FileStat fileStat = new FileStat();
-        fileStat.setName(file.getName());
-        fileStat.setPath(FileUtils.convertPath(file.getAbsolutePath()));
-        fileStat.setParentPath(FileUtils.convertPath(directory.getAbsolutePath()));
-        fileStat.setLength(file.length());
-        fileStat.setParent(directoryStat);
-
-        directoryStat.getChilds().add(fileStat);
-        length += fileStat.getLength();
-
-      } else {
-        length += extractFolderSize(file, directoryStat);
+  /**
+   * Replaces stats of a directory tree. Stats are produced by the collector threads
+   * and saved in batches by the calling thread. The queue is bounded so collectors
+   * wait for the writer on large trees.
+   * @param pool - pool executing the collector
+   * @param directory - root directory
+   * @return the directory length
+   */
+  private long syncDirectory(ForkJoinPool pool, File directory) throws InterruptedException {
+
+    String directoryPath = FileUtils.convertPath(directory.getAbsolutePath());
+    this.updateMessage("Collecting file metrics on directory: " + directoryPath);
+    fileStatDAO.deleteTree(directoryPath);
+
+    BlockingQueue<FileStat> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    FileStatCollector collector = new FileStatCollector(pool, fileStat -> {
+      try {
+        queue.put(fileStat);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("File sync interrupted");
+      }
+    });
+    ForkJoinTask<Long> collectorTask = collector.submit(directory.toPath());
+
+    DecimalFormat formatter = new DecimalFormat("#");
+    List<FileStat> batch = new ArrayList<>(FILE_STAT_BATCH_SIZE);
+    long collectedCount = 0;
+    while (!collectorTask.isDone() || !queue.isEmpty()) {
+      FileStat fileStat = queue.poll(100, TimeUnit.MILLISECONDS);
+      if (fileStat != null) {
+        batch.add(fileStat);
+        queue.drainTo(batch, FILE_STAT_BATCH_SIZE - batch.size());
       }
+      if (batch.size() >= FILE_STAT_BATCH_SIZE || (fileStat == null && !batch.isEmpty())) {
+        fileStatDAO.saveAll(batch);
+        collectedCount += batch.size();
+        batch.clear();
+        this.updateMessage("Collecting file metrics on directory: " + directoryPath
+            + " (" + formatter.format(collectedCount) + " files)");
+      }
+    }
+    if (!batch.isEmpty()) {
+      fileStatDAO.saveAll(batch);
     }
 
-    directoryStat.setLength(length);
-    fileStatDAO.save(directoryStat);
-    return length;
+    return collectorTask.join();
 
   }
 }
@@ -39,6 +39,8 @@ public class PluginRemoveTask extends AbstractTask {
     this.pluginDAO = pluginDAO;
 
     setName("Remove Plugin - " + plugin.getName());
+    addResource(TaskResource.PLUGINS);
+    addResource(TaskResource.directory(plugin.getPath()));
   }
 
   @Override
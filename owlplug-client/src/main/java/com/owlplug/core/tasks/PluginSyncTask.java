@@ -21,6 +21,7 @@ package com.owlplug.core.tasks;
 import com.owlplug.core.dao.PluginDAO;
 import com.owlplug.core.dao.PluginFootprintDAO;
 import com.owlplug.core.dao.SymlinkDAO;
+import com.owlplug.core.model.NativeScanResult;
 import com.owlplug.core.model.Plugin;
 import com.owlplug.core.model.PluginComponent;
 import com.owlplug.core.model.PluginFootprint;
@@ -29,21 +30,35 @@ import com.owlplug.core.model.PluginType;
 import com.owlplug.core.model.Symlink;
 import com.owlplug.core.services.NativeHostService;
 import com.owlplug.core.tasks.plugins.discovery.PluginFileCollector;
+import com.owlplug.core.tasks.plugins.discovery.PluginFileFingerprint;
+import com.owlplug.core.tasks.plugins.discovery.PluginSyncReport;
 import com.owlplug.core.tasks.plugins.discovery.PluginSyncTaskParameters;
 import com.owlplug.core.tasks.plugins.discovery.SymlinkCollector;
 import com.owlplug.core.tasks.plugins.discovery.fileformats.PluginFile;
+import com.owlplug.core.utils.FileUtils;
 import com.owlplug.host.NativePlugin;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * OwlPlug task to collect plugin metadata from directories
  * By default, the task collects and sync all plugins from user folders. A directory scope
  * can be defined to reduce the amount of scanned files.
+ * In incremental mode, plugins are only rebuilt if their file fingerprint changed since the
+ * last sync. References to deleted plugin files are removed.
  *
  */
 public class PluginSyncTask extends AbstractTask {
@@ -54,6 +69,7 @@ public class PluginSyncTask extends AbstractTask {
   private SymlinkDAO symlinkDAO;
   private PluginFootprintDAO pluginFootprintDAO;
   private NativeHostService nativeHostService;
+  private TransactionTemplate transactionTemplate;
   private PluginSyncTaskParameters parameters;
 
 
@@ -64,24 +80,58 @@ public class PluginSyncTask extends AbstractTask {
    * @param pluginFootprintDAO pluginFootprintDAO
    * @param symlinkDAO symlinkDAO
    * @param nativeHostService nativeHostService
+   * @param transactionTemplate transactionTemplate used to persist plugins in batches
    */
   public PluginSyncTask(PluginSyncTaskParameters parameters, 
       PluginDAO pluginDAO,
       PluginFootprintDAO pluginFootprintDAO,
       SymlinkDAO symlinkDAO,
-      NativeHostService nativeHostService) {
+      NativeHostService nativeHostService,
+      TransactionTemplate transactionTemplate) {
     this.parameters = parameters;
     this.pluginDAO = pluginDAO;
     this.pluginFootprintDAO = pluginFootprintDAO;
     this.symlinkDAO = symlinkDAO;
 
     this.nativeHostService = nativeHostService;
+    this.transactionTemplate = transactionTemplate;
 
     setName("Sync Plugins");
     setMaxProgress(100);
+    addResources();
 
   }
 
+  private void addResources() {
+    addResource(TaskResource.PLUGINS);
+    if (parameters.getDirectoryScope() != null) {
+      addResource(TaskResource.directory(parameters.getDirectoryScope()));
+      return;
+    }
+    List<String> directories = new ArrayList<>();
+    if (parameters.isFindVst2()) {
+      directories.add(parameters.getVst2Directory());
+      directories.addAll(parameters.getVst2ExtraDirectories());
+    }
+    if (parameters.isFindVst3()) {
+      directories.add(parameters.getVst3Directory());
+      directories.addAll(parameters.getVst3ExtraDirectories());
+    }
+    if (parameters.isFindAu()) {
+      directories.add(parameters.getAuDirectory());
+      directories.addAll(parameters.getAuExtraDirectories());
+    }
+    if (parameters.isFindLv2()) {
+      directories.add(parameters.getLv2Directory());
+      directories.addAll(parameters.getLv2ExtraDirectories());
+    }
+    for (String directory : directories) {
+      if (directory != null && !directory.isBlank()) {
+        addResource(TaskResource.directory(directory));
+      }
+    }
+  }
+
   @Override
   protected TaskResult call() throws Exception {
 
@@ -90,134 +140,197 @@ public class PluginSyncTask extends AbstractTask {
     this.commitProgress(10);
 
     try {
-      Set<PluginFile> collectedPluginFiles = new LinkedHashSet<>();
-      PluginFileCollector pluginCollector = new PluginFileCollector(parameters.getPlatform());
-      ArrayList<Symlink> collectedSymlinks = new ArrayList<>();
       SymlinkCollector symlinkCollector = new SymlinkCollector(true);
+      PluginFileCollector pluginCollector = new PluginFileCollector(parameters.getPlatform(), symlinkCollector);
       
+      PluginSyncReport report = new PluginSyncReport();
+      // Plugins previously synchronized, indexed by path. Only used by incremental syncs.
+      Map<String, Plugin> previousPlugins = new HashMap<>();
+
       if (parameters.getDirectoryScope() != null) {
         // Delete previous plugins scanned in the directory scope
-        pluginDAO.deleteByPathContainingIgnoreCase(parameters.getDirectoryScope());
+        if (parameters.isIncremental()) {
+          pluginDAO.findByPathContainingIgnoreCase(parameters.getDirectoryScope())
+              .forEach(p -> previousPlugins.put(p.getPath(), p));
+        } else {
+          pluginDAO.deleteByPathContainingIgnoreCase(parameters.getDirectoryScope());
+        }
         symlinkDAO.deleteByPathContainingIgnoreCase(parameters.getDirectoryScope());
       } else {
         // Delete all previous plugins by default (in case of a complete Sync task)
-        pluginDAO.deleteAll();
+        if (parameters.isIncremental()) {
+          pluginDAO.findAll().forEach(p -> previousPlugins.put(p.getPath(), p));
+        } else {
+          pluginDAO.deleteAll();
+        }
         symlinkDAO.deleteAll();
       }
 
       if (parameters.getDirectoryScope() != null) {
         // Plugins are retrieved from a scoped directory
         if (parameters.isFindLv2()) {
-          collectedPluginFiles.addAll(pluginCollector.collect(parameters.getDirectoryScope(), PluginFormat.LV2));
+          pluginCollector.addDirectory(parameters.getDirectoryScope(), PluginFormat.LV2);
         }
         if (parameters.isFindVst3()) {
-          collectedPluginFiles.addAll(pluginCollector.collect(parameters.getDirectoryScope(), PluginFormat.VST3));
+          pluginCollector.addDirectory(parameters.getDirectoryScope(), PluginFormat.VST3);
         }
         if (parameters.isFindVst2()) {
-          collectedPluginFiles.addAll(pluginCollector.collect(parameters.getDirectoryScope(), PluginFormat.VST2));
+          pluginCollector.addDirectory(parameters.getDirectoryScope(), PluginFormat.VST2);
         }
         if (parameters.isFindAu()) {
-          collectedPluginFiles.addAll(pluginCollector.collect(parameters.getDirectoryScope(), PluginFormat.AU));
+          pluginCollector.addDirectory(parameters.getDirectoryScope(), PluginFormat.AU);
         }
 
-        collectedSymlinks.addAll(symlinkCollector.collect(parameters.getDirectoryScope()));
-
       } else {
         // Plugins are retrieved from regulars directories
-        String vst2Directory = parameters.getVst2Directory();
-        String vst3Directory = parameters.getVst3Directory();
-        String auDirectory = parameters.getAuDirectory();
-        String lv2Directory = parameters.getLv2Directory();
-
         if (parameters.isFindLv2()) {
-          collectedPluginFiles.addAll(pluginCollector.collect(lv2Directory, PluginFormat.LV2));
-          collectedSymlinks.addAll(symlinkCollector.collect(lv2Directory));
+          pluginCollector.addDirectory(parameters.getLv2Directory(), PluginFormat.LV2);
           for (String path : parameters.getLv2ExtraDirectories()) {
-            collectedPluginFiles.addAll(pluginCollector.collect(path, PluginFormat.LV2));
-            collectedSymlinks.addAll(symlinkCollector.collect(path));
+            pluginCollector.addDirectory(path, PluginFormat.LV2);
           }
         }
 
         if (parameters.isFindVst3()) {
-          collectedPluginFiles.addAll(pluginCollector.collect(vst3Directory, PluginFormat.VST3));
-          collectedSymlinks.addAll(symlinkCollector.collect(vst3Directory));
+          pluginCollector.addDirectory(parameters.getVst3Directory(), PluginFormat.VST3);
           for (String path : parameters.getVst3ExtraDirectories()) {
-            collectedPluginFiles.addAll(pluginCollector.collect(path, PluginFormat.VST3));
-            collectedSymlinks.addAll(symlinkCollector.collect(path));
+            pluginCollector.addDirectory(path, PluginFormat.VST3);
           }
         }
 
         if (parameters.isFindVst2()) {
-          collectedPluginFiles.addAll(pluginCollector.collect(vst2Directory, PluginFormat.VST2));
-          collectedSymlinks.addAll(symlinkCollector.collect(vst2Directory));
+          pluginCollector.addDirectory(parameters.getVst2Directory(), PluginFormat.VST2);
           for (String path : parameters.getVst2ExtraDirectories()) {
-            collectedPluginFiles.addAll(pluginCollector.collect(path, PluginFormat.VST2));
-            collectedSymlinks.addAll(symlinkCollector.collect(path));
+            pluginCollector.addDirectory(path, PluginFormat.VST2);
           }
         }
 
         if (parameters.isFindAu()) {
-          collectedPluginFiles.addAll(pluginCollector.collect(auDirectory, PluginFormat.AU));
-          collectedSymlinks.addAll(symlinkCollector.collect(auDirectory));
+          pluginCollector.addDirectory(parameters.getAuDirectory(), PluginFormat.AU);
           for (String path : parameters.getAuExtraDirectories()) {
-            collectedPluginFiles.addAll(pluginCollector.collect(path, PluginFormat.AU));
-            collectedSymlinks.addAll(symlinkCollector.collect(path));
+            pluginCollector.addDirectory(path, PluginFormat.AU);
           }
         }
       }
+
+      // All plugin directories are explored in a single pass
+      List<PluginFile> collectedPluginFiles = pluginCollector.collect();
+      List<Symlink> collectedSymlinks = symlinkCollector.getSymlinks();
       
       log.info(collectedPluginFiles.size() + " plugins collected");
       
       //Save all discovered symlinks
       symlinkDAO.saveAll(collectedSymlinks);
 
+      // Footprints are retrieved in a single query and indexed by plugin path
+      Map<String, PluginFootprint> footprints = new HashMap<>();
+      for (PluginFootprint footprint : pluginFootprintDAO.findAll()) {
+        footprints.put(footprint.getPath(), footprint);
+      }
+
+      List<PluginScan> pluginScans = new ArrayList<>();
+      List<Plugin> outdatedPlugins = new ArrayList<>();
+      List<PluginFootprint> createdFootprints = new ArrayList<>();
+
       for (PluginFile pluginFile : collectedPluginFiles) {
+        String pluginPath = FileUtils.convertPath(pluginFile.getPluginFile().getAbsolutePath());
+        PluginFootprint pluginFootprint = footprints.get(pluginPath);
+        PluginFileFingerprint fingerprint = createFingerprint(pluginFile);
+
+        if (parameters.isIncremental()) {
+          Plugin previousPlugin = previousPlugins.remove(pluginPath);
+          // Plugins are also synchronized again if native discovery settings changed since the last sync
+          if (previousPlugin != null && previousPlugin.isSyncComplete()
+              && fingerprint != null && fingerprint.matches(pluginFootprint)
+              && Objects.equals(pluginFootprint.getDiscoveryLoaderId(),
+                  getDiscoveryLoaderId(previousPlugin, pluginFootprint))) {
+            report.incrementUnchanged();
+            this.commitProgress(80.0 / collectedPluginFiles.size());
+            continue;
+          }
+          if (previousPlugin != null) {
+            outdatedPlugins.add(previousPlugin);
+            report.incrementChanged();
+          } else {
+            report.incrementAdded();
+          }
+        } else {
+          report.incrementAdded();
+        }
+
         Plugin plugin = pluginFile.toPlugin();
-        
-        PluginFootprint pluginFootprint = pluginFootprintDAO.findByPath(plugin.getPath());
-        
+
         if (pluginFootprint == null) {
           pluginFootprint = new PluginFootprint(plugin.getPath());
-          pluginFootprintDAO.save(pluginFootprint);
+          footprints.put(pluginPath, pluginFootprint);
+          createdFootprints.add(pluginFootprint);
         }
         plugin.setFootprint(pluginFootprint);
-        pluginDAO.save(plugin);
-
-        if (nativeHostService.isNativeHostEnabled() && nativeHostService.getCurrentPluginLoader().isAvailable()
-            && pluginFootprint.isNativeDiscoveryEnabled() && !plugin.isDisabled()) {
-
-          log.debug("Load plugin using native discovery: " + plugin.getPath());
-          this.updateMessage("Exploring plugin " + plugin.getName());
-          List<NativePlugin> nativePlugins = nativeHostService.loadPlugin(plugin.getPath());
-
-          if (nativePlugins != null && !nativePlugins.isEmpty()) {
-            log.debug("Found {} components (nativePlugin) for plugin {}", nativePlugins.size(), plugin.getName());
+        pluginScans.add(new PluginScan(plugin, pluginFootprint, fingerprint));
+      }
 
-            plugin.setNativeCompatible(true);
+      // Outdated plugins and new footprints must be persisted before plugins are saved
+      transactionTemplate.executeWithoutResult(status -> {
+        pluginDAO.deleteAll(outdatedPlugins);
+        pluginFootprintDAO.saveAll(createdFootprints);
+      });
+
+      // Native discovery is dispatched to a pool of workers while plugins are committed in collection order
+      ExecutorService scanExecutor = createScanExecutor();
+      // Cached native scans are retrieved in a single query and indexed by plugin path
+      Map<String, NativeScanResult> cachedScans = new HashMap<>();
+      if (nativeHostService.isNativeHostEnabled() && !pluginScans.isEmpty()) {
+        cachedScans = nativeHostService.getCachedScans();
+      }
 
-            for (NativePlugin nativePlugin : nativePlugins) {
-              PluginComponent component = createComponentFromNative(nativePlugin);
-              component.setPlugin(plugin);
-              plugin.getComponents().add(component);
-              log.debug("Created component {} for plugin {}", component.getName(), plugin.getName());
+      try {
+        for (PluginScan pluginScan : pluginScans) {
+          Plugin plugin = pluginScan.plugin;
+          if (getDiscoveryLoaderId(plugin, pluginScan.footprint) != null) {
+            NativeScanResult cachedResult = cachedScans.get(plugin.getPath());
+            List<NativePlugin> cachedScan = nativeHostService.getCachedScan(cachedResult, pluginScan.fingerprint);
+            if (cachedScan != null) {
+              log.debug("Native discovery result retrieved from cache: " + plugin.getPath());
+              pluginScan.nativeScan = CompletableFuture.completedFuture(cachedScan);
+            } else {
+              pluginScan.nativeScan = scanExecutor.submit(() -> {
+                // Plugin is saved with an incomplete sync state in its own transaction before being loaded.
+                // If the loader crashes the application, the plugin is reported during crash recovery.
+                pluginDAO.save(plugin);
+                log.debug("Load plugin using native discovery: " + plugin.getPath());
+                this.updateMessage("Exploring plugin " + plugin.getName());
+                List<NativePlugin> nativePlugins = nativeHostService.loadPlugin(plugin.getPath());
+                nativeHostService.cacheScan(cachedResult, plugin.getPath(), pluginScan.fingerprint, nativePlugins);
+                return nativePlugins;
+              });
             }
-
-            // Hardcode plugin properties from the first component (nativePlugin) retrieved.
-            mapPluginPropertiesFromNative(plugin, nativePlugins.get(0));
-
           }
         }
-        
-        plugin.setSyncComplete(true);
-        pluginDAO.save(plugin);
 
-        this.commitProgress(80.0 / collectedPluginFiles.size());
+        // Synchronized plugins are persisted in batches
+        List<PluginScan> batch = new ArrayList<>();
+        for (PluginScan pluginScan : pluginScans) {
+          commitPluginScan(pluginScan);
+          batch.add(pluginScan);
+          if (batch.size() >= parameters.getBatchSize()) {
+            persistPluginScans(batch);
+            batch.clear();
+          }
+          this.commitProgress(80.0 / collectedPluginFiles.size());
+        }
+        persistPluginScans(batch);
+      } finally {
+        scanExecutor.shutdownNow();
       }
 
+      // Remaining plugins have not been collected, their files are gone
+      if (!previousPlugins.isEmpty()) {
+        pluginDAO.deleteAll(previousPlugins.values());
+        report.incrementRemoved(previousPlugins.size());
+      }
 
       this.updateProgress(1, 1);
-      this.updateMessage("Plugins synchronized");
-      log.info("Plugin Sync task complete");
+      this.updateMessage("Plugins synchronized (" + report + ")");
+      log.info("Plugin Sync task complete: {}", report);
       
       return success();
 
@@ -230,6 +343,115 @@ public class PluginSyncTask extends AbstractTask {
 
   }
 
+  private void commitPluginScan(PluginScan pluginScan) throws InterruptedException {
+    Plugin plugin = pluginScan.plugin;
+    String discoveryLoaderId = null;
+
+    if (pluginScan.nativeScan != null) {
+      List<NativePlugin> nativePlugins = null;
+      try {
+        nativePlugins = pluginScan.nativeScan.get();
+      } catch (ExecutionException e) {
+        log.error("Native discovery failed for plugin {}", plugin.getPath(), e.getCause());
+      }
+
+      // Failed or empty discoveries are not recorded so they are retried on the next sync
+      if (nativePlugins != null && !nativePlugins.isEmpty()) {
+        discoveryLoaderId = nativeHostService.getCurrentPluginLoader().getId();
+      }
+
+      if (nativePlugins != null && !nativePlugins.isEmpty()) {
+        log.debug("Found {} components (nativePlugin) for plugin {}", nativePlugins.size(), plugin.getName());
+
+        plugin.setNativeCompatible(true);
+
+        for (NativePlugin nativePlugin : nativePlugins) {
+          PluginComponent component = createComponentFromNative(nativePlugin);
+          component.setPlugin(plugin);
+          plugin.getComponents().add(component);
+          log.debug("Created component {} for plugin {}", component.getName(), plugin.getName());
+        }
+
+        // Hardcode plugin properties from the first component (nativePlugin) retrieved.
+        mapPluginPropertiesFromNative(plugin, nativePlugins.get(0));
+
+      }
+    }
+
+    plugin.setSyncComplete(true);
+
+    // Fingerprint is stored once the plugin is completely synchronized
+    if (pluginScan.fingerprint != null) {
+      pluginScan.fingerprint.applyTo(pluginScan.footprint);
+      pluginScan.footprint.setDiscoveryLoaderId(discoveryLoaderId);
+    }
+  }
+
+  /**
+   * Returns the loader used to discover components of a plugin with the current settings.
+   * @param plugin - plugin to discover
+   * @param footprint - plugin footprint
+   * @return the native loader id, or null if native discovery is not performed on the plugin
+   */
+  private String getDiscoveryLoaderId(Plugin plugin, PluginFootprint footprint) {
+    if (nativeHostService.isNativeHostEnabled() && nativeHostService.getCurrentPluginLoader().isAvailable()
+        && footprint.isNativeDiscoveryEnabled() && !plugin.isDisabled()) {
+      return nativeHostService.getCurrentPluginLoader().getId();
+    }
+    return null;
+  }
+
+  /**
+   * Saves synchronized plugins and their footprints in a single transaction.
+   * Inserts are grouped in JDBC batches by Hibernate.
+   * @param pluginScans - committed plugin scans
+   */
+  private void persistPluginScans(List<PluginScan> pluginScans) {
+    if (pluginScans.isEmpty()) {
+      return;
+    }
+    List<Plugin> plugins = new ArrayList<>();
+    List<PluginFootprint> updatedFootprints = new ArrayList<>();
+    for (PluginScan pluginScan : pluginScans) {
+      plugins.add(pluginScan.plugin);
+      if (pluginScan.fingerprint != null) {
+        updatedFootprints.add(pluginScan.footprint);
+      }
+    }
+    transactionTemplate.executeWithoutResult(status -> {
+      pluginFootprintDAO.saveAll(updatedFootprints);
+      pluginDAO.saveAll(plugins);
+    });
+  }
+
+  /**
+   * Creates the executor used to load plugins with the native host.
+   * Plugins are loaded one by one if the current loader does not support concurrent loading.
+   * @return the plugin scan executor
+   */
+  private ExecutorService createScanExecutor() {
+    int workers = 1;
+    if (nativeHostService.getCurrentPluginLoader().isConcurrentLoadingSupported()) {
+      workers = Math.max(1, parameters.getScanWorkers());
+    }
+    log.debug("Native plugin discovery running with {} workers", workers);
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(workers, runnable -> {
+      Thread thread = new Thread(runnable, "plugin-scan-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private PluginFileFingerprint createFingerprint(PluginFile pluginFile) {
+    try {
+      return PluginFileFingerprint.of(pluginFile.getPluginFile(), parameters.isChecksumEnabled());
+    } catch (IOException e) {
+      log.warn("Fingerprint can't be computed for plugin file {}", pluginFile.getPluginFile().getAbsolutePath(), e);
+      return null;
+    }
+  }
+
   private PluginComponent createComponentFromNative(NativePlugin nativePlugin) {
     PluginComponent pluginComponent = new PluginComponent();
     pluginComponent.setName(nativePlugin.getName());
@@ -264,4 +486,18 @@ public class PluginSyncTask extends AbstractTask {
     }
 
   }
+
+  private static class PluginScan {
+
+    private final Plugin plugin;
+    private final PluginFootprint footprint;
+    private final PluginFileFingerprint fingerprint;
+    private Future<List<NativePlugin>> nativeScan;
+
+    PluginScan(Plugin plugin, PluginFootprint footprint, PluginFileFingerprint fingerprint) {
+      this.plugin = plugin;
+      this.footprint = footprint;
+      this.fingerprint = fingerprint;
+    }
+  }
 }
@@ -28,6 +28,7 @@ public class SymlinkRemoveTask extends AbstractTask {
   public SymlinkRemoveTask(Symlink symlink) {
     this.symlink = symlink;
     setName("Remove symlink");
+    addResource(TaskResource.directory(symlink.getPath()));
   }
 
   @Override
@@ -0,0 +1,93 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.tasks;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Resource accessed by a task. Tasks declaring conflicting resources are never executed
+ * concurrently. Named resources (databases) conflict with resources of the same name.
+ * Directory resources conflict with the same directory, its parents and its subdirectories.
+ */
+public final class TaskResource {
+
+  public static final TaskResource PLUGINS = new TaskResource("Plugins", null);
+  public static final TaskResource REGISTRY = new TaskResource("Registry", null);
+  public static final TaskResource PROJECTS = new TaskResource("Projects", null);
+  public static final TaskResource FILE_STATS = new TaskResource("File stats", null);
+
+  private final String name;
+  private final Path path;
+
+  private TaskResource(String name, Path path) {
+    this.name = name;
+    this.path = path;
+  }
+
+  /**
+   * Creates a resource representing a directory tree on the filesystem.
+   * @param directoryPath - directory path
+   * @return the directory resource
+   */
+  public static TaskResource directory(String directoryPath) {
+    Path path = new File(directoryPath).toPath().toAbsolutePath().normalize();
+    return new TaskResource(path.toString(), path);
+  }
+
+  /**
+   * Checks if two tasks using the given resources can't be executed concurrently.
+   * @param other - resource to compare
+   * @return true if both resources conflict
+   */
+  public boolean conflictsWith(TaskResource other) {
+    if (path != null && other.path != null) {
+      return path.startsWith(other.path) || other.path.startsWith(path);
+    }
+    return equals(other);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TaskResource that = (TaskResource) o;
+    return name.equals(that.name) && Objects.equals(path, that.path);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, path);
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+}
@@ -24,68 +24,211 @@ import com.owlplug.core.tasks.plugins.discovery.fileformats.PluginFile;
 import com.owlplug.core.tasks.plugins.discovery.fileformats.PluginFileFormatResolver;
 import com.owlplug.core.utils.FileUtils;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Collects plugin files from a set of directories in a single pass.
+ * Each directory is registered with the plugin formats to look for. Directory trees are walked
+ * only once, even if registered directories overlap, and recognized plugin bundles are not explored.
+ * Symlinks found during the walk are collected by the given {@link SymlinkCollector}.
+ */
 public class PluginFileCollector {
 
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+  /*
+   * Formats are resolved in this order when a directory is registered for multiple formats.
+   */
+  private static final List<PluginFormat> RESOLUTION_ORDER = List.of(PluginFormat.LV2, PluginFormat.VST3,
+      PluginFormat.VST2, PluginFormat.AU);
+
   private RuntimePlatform runtimePlatform;
+  private SymlinkCollector symlinkCollector;
+
+  private Map<String, Set<PluginFormat>> directories = new TreeMap<>();
+  private Map<PluginFormat, PluginFileFormatResolver> resolvers = new EnumMap<>(PluginFormat.class);
+  private Set<String> visitedDirectories = new HashSet<>();
 
   private List<PluginFile> collectedFiles = new ArrayList<>();
+  private Set<Path> collectedPaths = new HashSet<>();
 
   public PluginFileCollector(RuntimePlatform runtimePlatform) {
+    this(runtimePlatform, null);
+  }
+
+  public PluginFileCollector(RuntimePlatform runtimePlatform, SymlinkCollector symlinkCollector) {
     super();
     this.runtimePlatform = runtimePlatform;
+    this.symlinkCollector = symlinkCollector;
   }
 
   /**
-   * Collects plugins files on the current environment. Plugins are collected from the directoryPath and 
-   * all nested subfolders.
-   * @param directoryPath - path where plugin are retrieved
+   * Registers a directory where plugins of the given format are collected.
+   * A directory can be registered multiple times with different formats.
+   * @param directoryPath - path where plugins are retrieved
    * @param pluginFormat - format to retrieve
-   * @return a list of {@link PluginFile}
+   * @return this collector
    */
-  public List<PluginFile> collect(String directoryPath, PluginFormat pluginFormat) {
-
-    File dir = new File(directoryPath);
-
-    if (dir.isDirectory()) {
-      List<File> baseFiles = (List<File>) FileUtils.listUniqueFilesAndDirs(dir);
-      PluginFileFormatResolver pluginFileResolver = new PluginFileFormatResolver(runtimePlatform, pluginFormat);
-      baseFiles.sort(Comparator.comparing(File::getAbsolutePath));
-
-      for (File file : baseFiles) {
-        /*
-         *  Lookup for nested plugins in bundles and prevent them from being referenced multiple times.
-         *  For example a VST3 bundle file can contain a .vst3 file for windows, but we
-         *  don't want it to be referenced as it's an internal package managed by the host.
-         *  Maybe this should be refactored to recursively explore directories and directly prevent exploration of
-         *  bundles subdirectories.
-         */
-        boolean nestedPluginDetected = false;
-        for (PluginFile previouslyCollectedFile : collectedFiles) {
-          if (file.getAbsolutePath().contains(previouslyCollectedFile.getPluginFile().getAbsolutePath())) {
-            nestedPluginDetected = true;
-          }
+  public PluginFileCollector addDirectory(String directoryPath, PluginFormat pluginFormat) {
+    if (directoryPath == null || directoryPath.isBlank()) {
+      return this;
+    }
+    directories.computeIfAbsent(normalize(new File(directoryPath).toPath()), k -> EnumSet.noneOf(PluginFormat.class))
+        .add(pluginFormat);
+    return this;
+  }
+
+  /**
+   * Collects plugins files in all registered directories and their nested subfolders.
+   * @return a list of {@link PluginFile} sorted by path
+   */
+  public List<PluginFile> collect() {
+
+    for (String directoryPath : directories.keySet()) {
+      Path dir = new File(directoryPath).toPath();
+
+      if (!Files.isDirectory(dir)) {
+        log.error("Scan target is not a valid directory. 0 plugins have been collected from " + directoryPath);
+      } else if (visitedDirectories.contains(directoryPath)) {
+        log.debug("Directory {} already explored from a parent directory", directoryPath);
+      } else {
+        try {
+          Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+              new PluginFileVisitor(dir));
+        } catch (IOException e) {
+          log.error("Error while collecting plugins from " + directoryPath, e);
         }
+      }
+    }
 
-        if (!nestedPluginDetected && !file.equals(dir)) {
-          PluginFile pluginFile = pluginFileResolver.resolve(file);
-          if (pluginFile != null) {
-            collectedFiles.add(pluginFile);
+    collectedFiles.sort(Comparator.comparing(f -> f.getPluginFile().getAbsolutePath()));
+    return collectedFiles;
+  }
+
+  private PluginFile resolve(File file, Set<PluginFormat> formats) {
+    for (PluginFormat format : RESOLUTION_ORDER) {
+      if (formats.contains(format)) {
+        PluginFile pluginFile = resolvers.computeIfAbsent(format,
+            f -> new PluginFileFormatResolver(runtimePlatform, f)).resolve(file);
+        if (pluginFile != null) {
+          return pluginFile;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Lookup for nested plugins in bundles and prevent them from being referenced multiple times.
+   * Bundles are never explored during a walk, but a registered directory can be located
+   * inside a bundle collected from another directory. Each parent of the file is looked up
+   * in the collected plugin paths index, the cost only depends on the file depth.
+   */
+  private boolean isNestedPlugin(File file) {
+    for (Path path = file.toPath().toAbsolutePath(); path != null; path = path.getParent()) {
+      if (collectedPaths.contains(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void addCollectedFile(PluginFile pluginFile) {
+    collectedFiles.add(pluginFile);
+    collectedPaths.add(pluginFile.getPluginFile().toPath().toAbsolutePath());
+  }
+
+  private static String normalize(Path path) {
+    return FileUtils.convertPath(path.toAbsolutePath().normalize().toString());
+  }
+
+  private class PluginFileVisitor extends SimpleFileVisitor<Path> {
+
+    private final Path root;
+    private final Deque<Set<PluginFormat>> formatContext = new ArrayDeque<>();
+
+    PluginFileVisitor(Path root) {
+      this.root = root;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+      String dirPath = normalize(dir);
+      if (!visitedDirectories.add(dirPath)) {
+        return FileVisitResult.SKIP_SUBTREE;
+      }
+      collectSymlink(dir);
+
+      // Formats looked up in a directory are inherited from all registered parent directories
+      Set<PluginFormat> formats = EnumSet.noneOf(PluginFormat.class);
+      if (!formatContext.isEmpty()) {
+        formats.addAll(formatContext.peek());
+      }
+      formats.addAll(directories.getOrDefault(dirPath, Set.of()));
+
+      if (!dir.equals(root)) {
+        PluginFile pluginFile = resolve(dir.toFile(), formats);
+        if (pluginFile != null) {
+          if (!isNestedPlugin(pluginFile.getPluginFile())) {
+            addCollectedFile(pluginFile);
           }
+          // Plugin bundles are managed by hosts, nested files are not explored
+          return FileVisitResult.SKIP_SUBTREE;
         }
       }
-    } else {
-      log.error("Scan target is not a valid directory. 0 plugins have been collected from " + directoryPath);
+
+      formatContext.push(formats);
+      return FileVisitResult.CONTINUE;
     }
 
-    return collectedFiles;
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+      collectSymlink(file);
+      PluginFile pluginFile = resolve(file.toFile(), formatContext.peek());
+      if (pluginFile != null && !isNestedPlugin(pluginFile.getPluginFile())) {
+        addCollectedFile(pluginFile);
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+      // Unreadable files and recursive symlinks are ignored
+      log.debug("File {} can't be explored: {}", file, exc.getMessage());
+      collectSymlink(file);
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+      formatContext.pop();
+      return FileVisitResult.CONTINUE;
+    }
+
+    private void collectSymlink(Path path) {
+      if (symlinkCollector != null && Files.isSymbolicLink(path)) {
+        symlinkCollector.collect(path);
+      }
+    }
   }
 
   public RuntimePlatform getRuntimePlatform() {
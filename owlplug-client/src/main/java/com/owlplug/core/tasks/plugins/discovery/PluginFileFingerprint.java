@@ -0,0 +1,173 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.tasks.plugins.discovery;
+
+import com.owlplug.core.model.PluginFootprint;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Lightweight fingerprint of a plugin file used to detect changes between two syncs.
+ * For bundles (directories), the fingerprint aggregates the total length and the most recent
+ * modification time of all files in the bundle. An optional SHA-256 checksum of the bundle
+ * content can be computed for stricter comparisons.
+ */
+public class PluginFileFingerprint {
+
+  private final long length;
+  private final long lastModified;
+  private final String checksum;
+
+  public PluginFileFingerprint(long length, long lastModified, String checksum) {
+    this.length = length;
+    this.lastModified = lastModified;
+    this.checksum = checksum;
+  }
+
+  /**
+   * Computes the fingerprint of a plugin file or bundle.
+   * @param file - plugin file or bundle directory
+   * @param withChecksum - computes a content checksum if true
+   * @return the file fingerprint
+   * @throws IOException if the file can't be read
+   */
+  public static PluginFileFingerprint of(File file, boolean withChecksum) throws IOException {
+
+    if (!file.isDirectory()) {
+      String checksum = withChecksum ? digest(List.of(file.toPath())) : null;
+      return new PluginFileFingerprint(file.length(), file.lastModified(), checksum);
+    }
+
+    List<Path> files;
+    try (Stream<Path> stream = Files.walk(file.toPath())) {
+      files = stream.filter(Files::isRegularFile).sorted().toList();
+    }
+
+    long length = 0;
+    long lastModified = file.lastModified();
+    for (Path path : files) {
+      length += Files.size(path);
+      lastModified = Math.max(lastModified, Files.getLastModifiedTime(path).toMillis());
+    }
+    String checksum = withChecksum ? digest(files) : null;
+    return new PluginFileFingerprint(length, lastModified, checksum);
+
+  }
+
+  private static String digest(List<Path> files) throws IOException {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] buffer = new byte[8192];
+      for (Path path : files) {
+        try (InputStream is = new DigestInputStream(Files.newInputStream(path), digest)) {
+          while (is.read(buffer) != -1) {
+            // Content is consumed by the digest stream
+          }
+        }
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Checks if the fingerprint matches the one stored in a plugin footprint.
+   * @param footprint - plugin footprint
+   * @return true if the plugin file is considered unchanged
+   */
+  public boolean matches(PluginFootprint footprint) {
+    if (footprint == null) {
+      return false;
+    }
+    return matches(footprint.getLength(), footprint.getLastModified(), footprint.getChecksum());
+  }
+
+  /**
+   * Checks if the fingerprint matches the given stored values.
+   * Checksums are only compared if both sides define one.
+   * @param storedLength - stored file length
+   * @param storedLastModified - stored file last modification time
+   * @param storedChecksum - stored checksum, may be null
+   * @return true if the plugin file is considered unchanged
+   */
+  public boolean matches(Long storedLength, Long storedLastModified, String storedChecksum) {
+    if (storedLength == null || storedLastModified == null) {
+      return false;
+    }
+    if (storedLength != length || storedLastModified != lastModified) {
+      return false;
+    }
+    if (checksum != null && storedChecksum != null) {
+      return checksum.equals(storedChecksum);
+    }
+    return checksum == null;
+  }
+
+  /**
+   * Stores the fingerprint in the given plugin footprint.
+   * @param footprint - plugin footprint to update
+   */
+  public void applyTo(PluginFootprint footprint) {
+    footprint.setLength(length);
+    footprint.setLastModified(lastModified);
+    footprint.setChecksum(checksum);
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  public String getChecksum() {
+    return checksum;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PluginFileFingerprint that = (PluginFileFingerprint) o;
+    return length == that.length && lastModified == that.lastModified
+        && Objects.equals(checksum, that.checksum);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(length, lastModified, checksum);
+  }
+
+}
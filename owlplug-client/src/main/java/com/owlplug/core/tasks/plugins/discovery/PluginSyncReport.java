@@ -0,0 +1,68 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.tasks.plugins.discovery;
+
+/**
+ * Summary of plugin changes applied by a plugin sync.
+ */
+public class PluginSyncReport {
+
+  private int added = 0;
+  private int changed = 0;
+  private int removed = 0;
+  private int unchanged = 0;
+
+  public void incrementAdded() {
+    added++;
+  }
+
+  public void incrementChanged() {
+    changed++;
+  }
+
+  public void incrementRemoved(int count) {
+    removed += count;
+  }
+
+  public void incrementUnchanged() {
+    unchanged++;
+  }
+
+  public int getAdded() {
+    return added;
+  }
+
+  public int getChanged() {
+    return changed;
+  }
+
+  public int getRemoved() {
+    return removed;
+  }
+
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  @Override
+  public String toString() {
+    return added + " added, " + changed + " changed, " + removed + " removed, " + unchanged + " unchanged";
+  }
+
+}
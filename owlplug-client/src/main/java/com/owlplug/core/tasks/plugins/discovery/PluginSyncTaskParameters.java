@@ -37,6 +37,10 @@ public class PluginSyncTaskParameters {
   private List<String> vst3ExtraDirectories;
   private List<String> auExtraDirectories;
   private List<String> lv2ExtraDirectories;
+  private boolean incremental;
+  private boolean checksumEnabled;
+  private int scanWorkers = 1;
+  private int batchSize = 50;
 
   public RuntimePlatform getPlatform() {
     return platform;
@@ -150,4 +154,36 @@ public class PluginSyncTaskParameters {
     this.lv2ExtraDirectories = lv2ExtraDirectories;
   }
 
+  public boolean isIncremental() {
+    return incremental;
+  }
+
+  public void setIncremental(boolean incremental) {
+    this.incremental = incremental;
+  }
+
+  public boolean isChecksumEnabled() {
+    return checksumEnabled;
+  }
+
+  public void setChecksumEnabled(boolean checksumEnabled) {
+    this.checksumEnabled = checksumEnabled;
+  }
+
+  public int getScanWorkers() {
+    return scanWorkers;
+  }
+
+  public void setScanWorkers(int scanWorkers) {
+    this.scanWorkers = scanWorkers;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
 }
@@ -18,54 +18,121 @@
  
 package com.owlplug.core.ui;
 
-import java.util.Objects;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
-import javafx.beans.binding.Bindings;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.scene.control.TreeItem;
 
+/**
+ * Tree item displaying a filtered view of its internal children. Filters are applied as a
+ * set of visible items, which can be computed outside of the FX thread, and only branches
+ * displayed by the filter are updated.
+ */
 public class FilterableTreeItem<T> extends TreeItem<T> {
   private final ObservableList<TreeItem<T>> sourceChildren = FXCollections.observableArrayList();
-  private final FilteredList<TreeItem<T>> filteredChildren = new FilteredList<>(sourceChildren);
   private final ObjectProperty<Predicate<T>> predicate = new SimpleObjectProperty<>();
+  // visible items of the last applied filter, null if all items are visible
+  private Set<TreeItem<T>> visibleItems;
 
   public FilterableTreeItem(T value) {
     super(value);
 
-    filteredChildren.predicateProperty().bind(Bindings.createObjectBinding(() -> {
-      Predicate<TreeItem<T>> p = child -> {
-        if (child instanceof FilterableTreeItem) {
-          ((FilterableTreeItem<T>) child).predicateProperty().set(predicate.get());
-        }
-        if (predicate.get() == null || !child.getChildren().isEmpty() || child.getValue() == null) {
-          return true;
-        }
-
-        return predicate.get().test(child.getValue());
-
-      };
-      return p;
-    }, predicate));
-
-    filteredChildren.addListener((ListChangeListener<TreeItem<T>>) c -> {
-      while (c.next()) {
-        getChildren().removeAll(c.getRemoved());
-        getChildren().addAll(c.getAddedSubList());
-      }
+    // The last applied filter was resolved on previous children, new children are only
+    // filtered by the predicate, which is resolved again
+    sourceChildren.addListener((ListChangeListener<TreeItem<T>>) c -> {
+      Predicate<T> current = predicate.get();
+      visibleItems = current == null ? null : findVisibleItems(sourceChildren, current);
+      updateChildren();
     });
+    predicate.addListener((observable, oldValue, newValue) ->
+        applyFilter(newValue == null ? null : findVisibleItems(sourceChildren, newValue)));
   }
 
   public ObservableList<TreeItem<T>> getInternalChildren() {
     return sourceChildren;
   }
 
+  /**
+   * Predicate filtering items of this tree. The predicate is resolved on the calling thread,
+   * filters of large trees should be computed in background and applied with
+   * {@link #applyFilter(Set)}.
+   * @return predicate property
+   */
   public ObjectProperty<Predicate<T>> predicateProperty() {
     return predicate;
   }
 
-} 
+  /**
+   * Displays only the given items in this branch. Hidden branches are not traversed, they
+   * are updated by the first filter displaying them again. When internal children change,
+   * the filter is replaced by the predicate one.
+   * @param visibleItems identity set of visible items, or null to display all items
+   */
+  public void applyFilter(Set<TreeItem<T>> visibleItems) {
+    // Displayed descendants already use the filter
+    if (visibleItems == this.visibleItems) {
+      return;
+    }
+    this.visibleItems = visibleItems;
+    updateChildren();
+  }
+
+  private void updateChildren() {
+    List<TreeItem<T>> children = filterChildren();
+    if (!children.equals(getChildren())) {
+      getChildren().setAll(children);
+    }
+    for (TreeItem<T> child : children) {
+      if (child instanceof FilterableTreeItem<T> filterableChild) {
+        filterableChild.applyFilter(visibleItems);
+      }
+    }
+  }
+
+  private List<TreeItem<T>> filterChildren() {
+    if (visibleItems == null) {
+      return sourceChildren;
+    }
+    return sourceChildren.stream().filter(visibleItems::contains).toList();
+  }
+
+  /**
+   * Returns items to display in the given trees: items without value or whose value is accepted
+   * by the predicate, and items with a visible descendant. The trees must not be modified during
+   * the call, which can be made from any thread.
+   * @param items tree roots
+   * @param predicate value predicate
+   * @return identity set of visible items
+   */
+  public static <T> Set<TreeItem<T>> findVisibleItems(Collection<? extends TreeItem<T>> items,
+      Predicate<T> predicate) {
+    Set<TreeItem<T>> visibleItems = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (TreeItem<T> item : items) {
+      collectVisibleItems(item, predicate, visibleItems);
+    }
+    return visibleItems;
+  }
+
+  private static <T> boolean collectVisibleItems(TreeItem<T> item, Predicate<T> predicate,
+      Set<TreeItem<T>> visibleItems) {
+    boolean visible = item.getValue() == null || predicate.test(item.getValue());
+    List<TreeItem<T>> children = item instanceof FilterableTreeItem<T> filterableItem
+        ? filterableItem.getInternalChildren() : item.getChildren();
+    for (TreeItem<T> child : children) {
+      visible |= collectVisibleItems(child, predicate, visibleItems);
+    }
+    if (visible) {
+      visibleItems.add(item);
+    }
+    return visible;
+  }
+
+}
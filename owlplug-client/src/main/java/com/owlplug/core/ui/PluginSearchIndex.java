@@ -0,0 +1,193 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.ui;
+
+import com.owlplug.core.model.IDirectory;
+import com.owlplug.core.model.Plugin;
+import com.owlplug.core.model.PluginComponent;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javafx.scene.control.TreeItem;
+
+/**
+ * Search index over plugin tree item values. Plugin names, categories, manufacturers,
+ * component names and directory names are normalized and tokenized once, so queries
+ * are resolved with prefix lookups instead of testing every tree node.
+ * The index is immutable once built and can be queried from any thread.
+ */
+public class PluginSearchIndex {
+
+  private final TreeMap<String, List<Object>> postings = new TreeMap<>();
+  private final List<TreeItem<Object>> roots = new ArrayList<>();
+
+  /**
+   * Indexes the given tree items values and all their descendants.
+   *
+   * @param items tree items
+   */
+  public void addAll(Collection<TreeItem<Object>> items) {
+    roots.addAll(items);
+    index(items);
+  }
+
+  private void index(Collection<TreeItem<Object>> items) {
+    for (TreeItem<Object> item : items) {
+      add(item.getValue());
+      if (item instanceof FilterableTreeItem<Object> filterableItem) {
+        index(filterableItem.getInternalChildren());
+      } else {
+        index(item.getChildren());
+      }
+    }
+  }
+
+  private void add(Object value) {
+    if (value == null) {
+      return;
+    }
+    Set<String> tokens = new LinkedHashSet<>();
+    if (value instanceof Plugin plugin) {
+      tokens.addAll(tokenize(plugin.getName()));
+      tokens.addAll(tokenize(plugin.getCategory()));
+      tokens.addAll(tokenize(plugin.getManufacturerName()));
+      for (PluginComponent component : plugin.getComponents()) {
+        tokens.addAll(tokenize(component.getName()));
+      }
+    } else if (value instanceof PluginComponent component) {
+      tokens.addAll(tokenize(component.getName()));
+      tokens.addAll(tokenize(component.getCategory()));
+      tokens.addAll(tokenize(component.getManufacturerName()));
+    } else if (value instanceof IDirectory directory) {
+      tokens.addAll(tokenize(directory.getName()));
+      tokens.addAll(tokenize(directory.getDisplayName()));
+    } else {
+      tokens.addAll(tokenize(value.toString()));
+    }
+
+    for (String token : tokens) {
+      postings.computeIfAbsent(token, k -> new ArrayList<>()).add(value);
+    }
+  }
+
+  /**
+   * Returns values matching the query. Each query token must be a prefix of a token
+   * of the value.
+   *
+   * @param query search query
+   * @return identity set of matching values, or null if the query is blank
+   */
+  public Set<Object> search(String query) {
+    List<String> queryWords = words(query);
+    if (queryWords.isEmpty()) {
+      return null;
+    }
+
+    Set<Object> matches = null;
+    for (String queryWord : queryWords) {
+      String queryToken = queryWord.toLowerCase();
+      Set<Object> tokenMatches = Collections.newSetFromMap(new IdentityHashMap<>());
+      Map<String, List<Object>> range = postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false);
+      for (List<Object> values : range.values()) {
+        if (matches == null) {
+          tokenMatches.addAll(values);
+        } else {
+          for (Object value : values) {
+            if (matches.contains(value)) {
+              tokenMatches.add(value);
+            }
+          }
+        }
+      }
+      matches = tokenMatches;
+      if (matches.isEmpty()) {
+        break;
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Returns tree items to display for the query: items whose value matches the query and
+   * their ancestors.
+   *
+   * @param query search query
+   * @return identity set of visible items, or null if the query is blank
+   */
+  public Set<TreeItem<Object>> findVisibleItems(String query) {
+    Set<Object> matches = search(query);
+    if (matches == null) {
+      return null;
+    }
+    return FilterableTreeItem.findVisibleItems(roots, matches::contains);
+  }
+
+  /**
+   * Splits a text in normalized tokens. Besides words, camel case parts and the
+   * whole text without separators are emitted, so "ValhallaVintageVerb" can be found
+   * with "vintage" as well as "valhallavin".
+   *
+   * @param text text to tokenize
+   * @return list of tokens
+   */
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    StringBuilder compact = new StringBuilder();
+    for (String word : words(text)) {
+      String lowerWord = word.toLowerCase();
+      tokens.add(lowerWord);
+      compact.append(lowerWord);
+      String[] parts = word.split("(?<=\\p{Lower})(?=\\p{Upper})|(?<=\\p{Alpha})(?=\\p{Digit})");
+      if (parts.length > 1) {
+        for (String part : parts) {
+          tokens.add(part.toLowerCase());
+        }
+      }
+    }
+    if (compact.length() > 0 && !tokens.contains(compact.toString())) {
+      tokens.add(compact.toString());
+    }
+    return tokens;
+  }
+
+  /**
+   * Splits a text in words, with diacritics removed.
+   */
+  private static List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null) {
+      return words;
+    }
+    String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    for (String word : normalized.split("[^\\p{Alnum}]+")) {
+      if (!word.isEmpty()) {
+        words.add(word);
+      }
+    }
+    return words;
+  }
+
+}
@@ -0,0 +1,258 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.ui;
+
+import com.owlplug.core.model.IDirectory;
+import com.owlplug.core.model.Plugin;
+import com.owlplug.core.model.PluginComponent;
+import com.owlplug.core.model.PluginDirectory;
+import com.owlplug.core.model.Symlink;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.scene.control.TreeItem;
+
+/**
+ * Builds plugin tree items from a plugin inventory. The builder doesn't touch any
+ * displayed node, so it can be used outside of the JavaFX Application Thread and the
+ * produced items attached to the tree views afterwards.
+ */
+public class PluginTreeBuilder {
+
+  private final Map<String, Symlink> symlinks = new HashMap<>();
+
+  /**
+   * Creates a new builder.
+   *
+   * @param symlinks all known symlinks, indexed once by path
+   */
+  public PluginTreeBuilder(Iterable<Symlink> symlinks) {
+    for (Symlink symlink : symlinks) {
+      this.symlinks.put(symlink.getPath(), symlink);
+    }
+  }
+
+  /**
+   * Builds a flat list of plugin tree items, with plugin components as children.
+   *
+   * @param plugins plugin list
+   * @return list of plugin tree items
+   */
+  public List<TreeItem<Object>> buildPluginItems(Iterable<Plugin> plugins) {
+    List<TreeItem<Object>> items = new ArrayList<>();
+    for (Plugin plugin : plugins) {
+      items.add(createPluginItem(plugin));
+    }
+    return items;
+  }
+
+  /**
+   * Generates a FileTree representation. [rootDir -> [ subDir1 -> [ plugin1 ->
+   * [ ] ], subDir2 -> [ plugin2 -> [] , plugin3 -> [] ]] ]
+   * Each directory node holds the list of all plugins located under it. Plugins are
+   * inserted in a single pass and directory plugin lists are aggregated bottom-up
+   * once the tree is complete.
+   *
+   * @param plugins plugin list
+   * @return the file tree root
+   */
+  public FileTree buildFileTree(Iterable<Plugin> plugins) {
+
+    FileTree fileTree = new FileTree();
+
+    for (Plugin plugin : plugins) {
+      FileTree node = fileTree;
+      String[] subDirs = plugin.getPath().split("/");
+      StringBuilder currentPath = new StringBuilder();
+      for (int i = 0; i < subDirs.length; i++) {
+        String segment = subDirs[i];
+        currentPath.append(segment);
+        FileTree child = node.get(segment);
+
+        if (child == null) {
+          child = new FileTree();
+          // Node is a plugin (End of branch)
+          if (i == subDirs.length - 1) {
+            child.setNodeValue(plugin);
+          // Node is a directory
+          } else {
+            Symlink symlink = symlinks.get(currentPath.toString());
+            if (symlink != null) {
+              child.setNodeValue(symlink);
+            } else {
+              PluginDirectory directory = new PluginDirectory();
+              directory.setName(segment);
+              directory.setPath(currentPath + "/");
+              child.setNodeValue(directory);
+            }
+          }
+          node.put(segment, child);
+        }
+        currentPath.append("/");
+        node = child;
+      }
+    }
+
+    aggregatePlugins(fileTree);
+    return fileTree;
+  }
+
+  /**
+   * Collects plugins located under the given node and assigns the resulting list
+   * to each directory in a post-order traversal.
+   *
+   * @param node file tree node
+   * @return plugins located under the node
+   */
+  private List<Plugin> aggregatePlugins(FileTree node) {
+    List<Plugin> plugins = new ArrayList<>();
+    if (node.getNodeValue() instanceof Plugin plugin) {
+      plugins.add(plugin);
+    }
+    for (FileTree child : node.values()) {
+      plugins.addAll(aggregatePlugins(child));
+    }
+
+    if (node.getNodeValue() instanceof Symlink symlink) {
+      symlink.setPluginList(plugins);
+    } else if (node.getNodeValue() instanceof PluginDirectory directory) {
+      directory.setPluginList(plugins);
+    }
+    return plugins;
+  }
+
+  /**
+   * Builds the tree item of a user plugin directory.
+   *
+   * @param fileTree File tree representation
+   * @param directoryPath plugin directory path
+   * @return the directory tree item
+   */
+  public FilterableTreeItem<Object> buildDirectoryRoot(FileTree fileTree, String directoryPath) {
+
+    FilterableTreeItem<Object> item = new FilterableTreeItem<>(null);
+    item.setExpanded(true);
+
+    FileTree treeHead = fileTree;
+    String[] directories = directoryPath.split("/");
+
+    for (String dir : directories) {
+      if (treeHead != null) {
+        treeHead = treeHead.get(dir);
+      }
+    }
+
+    if (treeHead != null && treeHead.getNodeValue() instanceof PluginDirectory) {
+      PluginDirectory directory = (PluginDirectory) treeHead.getNodeValue();
+      directory.setRootDirectory(true);
+      item.setValue(directory);
+      buildDirectoryTree(treeHead, item, "");
+    }
+
+    return item;
+
+  }
+
+  /**
+   * Builds the directory tree view using filetree representation. If some
+   * directories contains only one subdirectory and nothing else, they are merged
+   * together in one node.
+   *
+   * @param fileTree     File tree representation
+   * @param node         root tree node
+   * @param mergedParent Name of merged parent tree
+   */
+  private void buildDirectoryTree(FileTree fileTree, FilterableTreeItem<Object> node, String mergedParent) {
+
+    String mergedParentName = mergedParent;
+    node.setExpanded(true);
+
+    if (mergedParentName == null) {
+      mergedParentName = "";
+    }
+
+    // Children are attached in bulk to limit list change events
+    List<TreeItem<Object>> children = new ArrayList<>();
+
+    // For each subdirectory (aka child nodes)
+    for (FileTree child : fileTree.values()) {
+      // If child is empty then we have reached a plugin and we can't go deeper
+      if (child.values().isEmpty()) {
+        children.add(createPluginItem((Plugin) child.getNodeValue()));
+
+        // If not we are exploring a directory
+      } else {
+        IDirectory directory;
+        // If child node contains only one directory we can merge it with the child node
+        if (child.size() == 1 && child.values().iterator().next().getNodeValue() instanceof PluginDirectory
+            && !(node.getValue() instanceof Symlink)
+            && !(child.getNodeValue() instanceof Symlink)) {
+
+          directory = (IDirectory) child.getNodeValue();
+          mergedParentName = mergedParentName + directory.getName() + "/";
+
+          buildDirectoryTree(child, node, mergedParentName);
+          // We don't want to merge next directories in the current iteration
+          mergedParentName = "";
+
+          // In case our child cannot be merged (contains not only one subdirectory)
+        } else {
+          directory = (IDirectory) child.getNodeValue();
+          directory.setDisplayName(mergedParentName + directory.getName());
+
+          // We don't want to merge next directories in the current iteration
+          mergedParentName = "";
+          FilterableTreeItem<Object> item = new FilterableTreeItem<>(directory);
+          children.add(item);
+          buildDirectoryTree(child, item, mergedParentName);
+        }
+      }
+    }
+    node.getInternalChildren().addAll(children);
+  }
+
+  private FilterableTreeItem<Object> createPluginItem(Plugin plugin) {
+    FilterableTreeItem<Object> item = new FilterableTreeItem<>(plugin);
+
+    // Display subcomponents in the tree
+    if (plugin.getComponents().size() > 1) {
+      List<TreeItem<Object>> componentItems = new ArrayList<>();
+      for (PluginComponent component : plugin.getComponents()) {
+        componentItems.add(new FilterableTreeItem<>(component));
+      }
+      item.getInternalChildren().addAll(componentItems);
+    }
+    return item;
+  }
+
+  public static class FileTree extends HashMap<String, FileTree> {
+
+    private Object nodeValue;
+
+    public void setNodeValue(Object nodeValue) {
+      this.nodeValue = nodeValue;
+    }
+
+    public Object getNodeValue() {
+      return nodeValue;
+    }
+  }
+
+}
@@ -49,6 +49,20 @@ public class CryptoUtils {
 
   }
 
+  /**
+   * Returns the SHA-256 digest of the given content as an hexadecimal string.
+   * @param content - content to digest
+   * @return the content digest
+   */
+  public static String getSha256Digest(byte[] content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return bytesToHex(digest.digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
   private static String bytesToHex(byte[] hash) {
     StringBuilder hexString = new StringBuilder(2 * hash.length);
     for (int i = 0; i < hash.length; i++) {
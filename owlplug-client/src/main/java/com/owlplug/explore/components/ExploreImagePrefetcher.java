@@ -0,0 +1,175 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.explore.components;
+
+import com.owlplug.core.components.ImageCache;
+import com.owlplug.explore.model.RemotePackage;
+import com.owlplug.explore.ui.PackageBlocView;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javafx.geometry.Dimension2D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms the image cache with thumbnails of packages about to be displayed in the explore view.
+ * Prefetch requests are queued on a single low priority thread and only a few thumbnails are
+ * loaded at the same time, so visible tiles are never delayed. Queued requests are dropped
+ * when the search query changes.
+ *
+ * <p>Hit and miss counters record whether thumbnails were already loaded when their tile
+ * was displayed.</p>
+ */
+@Component
+public class ExploreImagePrefetcher {
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+  /*
+   * Maximum number of thumbnails loaded concurrently by the prefetcher.
+   */
+  private static final int MAX_CONCURRENT_PREFETCHES = 2;
+
+  @Autowired
+  private ImageCache imageCache;
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "explore-image-prefetch");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+  private final Semaphore permits = new Semaphore(MAX_CONCURRENT_PREFETCHES);
+
+  private final AtomicInteger generation = new AtomicInteger();
+  private final Set<String> queuedKeys = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong prefetchCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * Queues thumbnails of the given packages for prefetching. Must be called on the JavaFX thread.
+   *
+   * @param packages - packages about to be displayed
+   */
+  public void prefetch(Collection<RemotePackage> packages) {
+    int currentGeneration = generation.get();
+    for (RemotePackage remotePackage : packages) {
+      String url = remotePackage.getScreenshotUrl();
+      if (url == null || url.isEmpty()) {
+        continue;
+      }
+      Dimension2D size = PackageBlocView.getThumbnailSize(remotePackage);
+      int width = (int) size.getWidth();
+      int height = (int) size.getHeight();
+      if (!queuedKeys.add(url + "#" + width + "x" + height)) {
+        continue;
+      }
+      executor.execute(() -> prefetch(currentGeneration, url, width, height));
+    }
+  }
+
+  private void prefetch(int requestGeneration, String url, int width, int height) {
+    if (requestGeneration != generation.get()) {
+      return;
+    }
+    if (imageCache.isThumbnailLoaded(url, width, height)) {
+      return;
+    }
+    prefetchCount.incrementAndGet();
+
+    permits.acquireUninterruptibly();
+    if (requestGeneration != generation.get()) {
+      permits.release();
+      return;
+    }
+    imageCache.getThumbnailAsync(url, width, height).whenComplete((image, error) -> permits.release());
+  }
+
+  /**
+   * Drops queued prefetch requests. Thumbnails already being loaded are still cached.
+   */
+  public void cancel() {
+    generation.incrementAndGet();
+    queuedKeys.clear();
+    log.debug("Explore image prefetch cancelled: {} prefetched, {} hits, {} misses",
+        prefetchCount.get(), hitCount.get(), missCount.get());
+  }
+
+  /**
+   * Records a thumbnail lookup for a displayed tile.
+   *
+   * @param url    - image url
+   * @param width  - thumbnail width
+   * @param height - thumbnail height
+   */
+  public void recordTileDisplay(String url, int width, int height) {
+    if (url == null || url.isEmpty()) {
+      return;
+    }
+    if (imageCache.isThumbnailLoaded(url, width, height)) {
+      hitCount.incrementAndGet();
+    } else {
+      missCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Returns the number of thumbnails loaded by the prefetcher.
+   *
+   * @return the prefetch count
+   */
+  public long getPrefetchCount() {
+    return prefetchCount.get();
+  }
+
+  /**
+   * Returns the number of displayed tiles with a thumbnail already loaded.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns the number of displayed tiles waiting for their thumbnail.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @PreDestroy
+  public void close() {
+    executor.shutdownNow();
+  }
+
+}
@@ -33,6 +33,8 @@ import java.io.File;
 import java.util.ArrayList;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Component
 public class ExploreTaskFactory extends BaseTaskFactory {
@@ -45,6 +47,10 @@ public class ExploreTaskFactory extends BaseTaskFactory {
   private RemoteSourceDAO remoteSourceDAO;
   @Autowired
   private RemotePackageDAO remotePackageDAO;
+  @Autowired
+  private RemoteSourceFetcher remoteSourceFetcher;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
 
   private ArrayList<SimpleEventListener> syncSourcesListeners = new ArrayList<>();
 
@@ -56,7 +62,8 @@ public class ExploreTaskFactory extends BaseTaskFactory {
    */
   public TaskExecutionContext createSourceSyncTask() {
 
-    SourceSyncTask task = new SourceSyncTask(remoteSourceDAO, remotePackageDAO);
+    SourceSyncTask task = new SourceSyncTask(remoteSourceDAO, remotePackageDAO, remoteSourceFetcher,
+        new TransactionTemplate(transactionManager));
     task.setOnSucceeded(e -> {
       notifyListeners(syncSourcesListeners);
     });
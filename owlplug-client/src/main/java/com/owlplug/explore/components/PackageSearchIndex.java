@@ -0,0 +1,230 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.explore.components;
+
+import jakarta.annotation.PostConstruct;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Full-text search of remote packages names, creators, tags and descriptions backed by the
+ * H2 native FullText index. The index is created once in the database and kept in sync by H2
+ * triggers on package and tag writes.
+ * Query tokens are expanded against the index vocabulary to indexed words matching exactly,
+ * by prefix, or with a few typos for longer tokens. Matching packages are then filtered and
+ * ranked in a single query, depending on the field each word comes from.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class PackageSearchIndex {
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+  /*
+   * Maximum number of indexed words a query token is expanded to.
+   */
+  private static final int MAX_TOKEN_EXPANSIONS = 50;
+
+  private static final float NAME_WEIGHT = 10;
+  private static final float CREATOR_WEIGHT = 5;
+  private static final float TAG_WEIGHT = 5;
+  private static final float DESCRIPTION_WEIGHT = 1;
+
+  private static final float PREFIX_MATCH_FACTOR = 0.6f;
+  private static final float FUZZY_MATCH_FACTOR = 0.4f;
+
+  /*
+   * Indexed row keys are stored by H2 as a condition on the primary key, like "ID"=42.
+   */
+  private static final String ROW_KEY_ID = "CAST(SUBSTRING(R.\"KEY\", 6) AS BIGINT)";
+
+  /*
+   * Ranks packages matching all query tokens. Words of the query table Q are matched against
+   * indexed package and tag rows, each token keeping its best scoring word per package.
+   */
+  private static final String SEARCH_QUERY = "SELECT PACKAGE_ID, SUM(SCORE) AS SCORE FROM ("
+      + "SELECT PACKAGE_ID, TOKEN, MAX(SCORE) AS SCORE FROM ("
+      + "SELECT COALESCE(P.ID, T.REMOTE_PACKAGE_ID) AS PACKAGE_ID, Q.TOKEN, Q.FACTOR * CASE "
+      + "WHEN T.ID IS NOT NULL THEN " + TAG_WEIGHT + " "
+      + "WHEN LOCATE(Q.WORD, UPPER(P.NAME)) > 0 THEN " + NAME_WEIGHT + " "
+      + "WHEN LOCATE(Q.WORD, UPPER(P.CREATOR)) > 0 THEN " + CREATOR_WEIGHT + " "
+      + "ELSE " + DESCRIPTION_WEIGHT + " END AS SCORE FROM (%s) Q "
+      + "JOIN FT.MAP M ON M.WORDID = Q.WORDID JOIN FT.ROWS R ON R.ID = M.ROWID "
+      + "JOIN FT.INDEXES I ON I.ID = R.INDEXID "
+      + "LEFT JOIN REMOTE_PACKAGE P ON I.\"TABLE\" = 'REMOTE_PACKAGE' AND P.ID = " + ROW_KEY_ID + " "
+      + "LEFT JOIN PACKAGE_TAG T ON I.\"TABLE\" = 'PACKAGE_TAG' AND T.ID = " + ROW_KEY_ID + " "
+      + "WHERE P.ID IS NOT NULL OR T.ID IS NOT NULL"
+      + ") D GROUP BY PACKAGE_ID, TOKEN"
+      + ") S GROUP BY PACKAGE_ID HAVING COUNT(*) = ? ORDER BY SCORE DESC, PACKAGE_ID";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  /**
+   * Creates the FullText indexes on packages and tags if they don't exist yet.
+   * Existing rows are indexed on creation. The bean depends on the entity manager factory
+   * so indexed tables are created by Hibernate first.
+   */
+  @PostConstruct
+  public void initialize() {
+    jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR 'org.h2.fulltext.FullText.init'");
+    jdbcTemplate.execute("CALL FT_INIT()");
+    createIndex("REMOTE_PACKAGE", "NAME,CREATOR,DESCRIPTION");
+    createIndex("PACKAGE_TAG", "NAME");
+  }
+
+  private void createIndex(String table, String columns) {
+    Integer count = jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM FT.INDEXES WHERE SCHEMA = 'PUBLIC' AND \"TABLE\" = ?", Integer.class, table);
+    if (count == null || count == 0) {
+      long start = System.currentTimeMillis();
+      jdbcTemplate.execute("CALL FT_CREATE_INDEX('PUBLIC', '" + table + "', '" + columns + "')");
+      log.info("Full-text index created on {} in {} ms", table, System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Searches packages matching all tokens of the given query.
+   * @param query - search query
+   * @return matching package ids and their scores, sorted by descending score
+   */
+  public Map<Long, Float> search(String query) {
+    Map<Long, Float> rankedScores = new LinkedHashMap<>();
+    List<String> tokens = tokenize(query);
+    if (tokens.isEmpty()) {
+      return rankedScores;
+    }
+
+    StringBuilder values = new StringBuilder();
+    List<Object> parameters = new ArrayList<>();
+    for (int i = 0; i < tokens.size(); i++) {
+      List<WordMatch> matches = expand(tokens.get(i).toUpperCase(Locale.ROOT));
+      if (matches.isEmpty()) {
+        return rankedScores;
+      }
+      for (WordMatch match : matches) {
+        values.append(values.isEmpty() ? "" : " UNION ALL ").append("SELECT CAST(? AS INT) AS TOKEN, "
+            + "CAST(? AS INT) AS WORDID, CAST(? AS VARCHAR) AS WORD, CAST(? AS REAL) AS FACTOR");
+        parameters.add(i);
+        parameters.add(match.id());
+        parameters.add(match.word());
+        parameters.add(match.factor());
+      }
+    }
+    parameters.add(tokens.size());
+
+    jdbcTemplate.query(String.format(SEARCH_QUERY, values), rs -> {
+      rankedScores.put(rs.getLong(1), rs.getFloat(2));
+    }, parameters.toArray());
+    return rankedScores;
+  }
+
+  /**
+   * Finds indexed words matching a query token exactly, by prefix, or with a few typos.
+   * @param token - uppercase query token
+   * @return matching words
+   */
+  private List<WordMatch> expand(String token) {
+    List<WordMatch> matches = new ArrayList<>();
+    // Words are sorted so the exact match is always retrieved first
+    jdbcTemplate.query("SELECT ID, NAME FROM FT.WORDS WHERE NAME >= ? AND NAME < ? ORDER BY NAME LIMIT ?", rs -> {
+      String word = rs.getString(2);
+      matches.add(new WordMatch(rs.getInt(1), word, word.equals(token) ? 1 : PREFIX_MATCH_FACTOR));
+    }, token, token + Character.MAX_VALUE, MAX_TOKEN_EXPANSIONS);
+
+    int maxDistance = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+    if (maxDistance > 0) {
+      // Typos are only looked up in words starting with the same character
+      String first = token.substring(0, 1);
+      String next = String.valueOf((char) (token.charAt(0) + 1));
+      jdbcTemplate.query("SELECT ID, NAME FROM FT.WORDS WHERE NAME >= ? AND NAME < ? "
+          + "AND LENGTH(NAME) BETWEEN ? AND ?", rs -> {
+            String word = rs.getString(2);
+            if (!word.startsWith(token) && matches.size() < MAX_TOKEN_EXPANSIONS * 2
+                && distance(token, word, maxDistance) <= maxDistance) {
+              matches.add(new WordMatch(rs.getInt(1), word, FUZZY_MATCH_FACTOR));
+            }
+          }, first, next, token.length() - maxDistance, token.length() + maxDistance);
+    }
+    return matches;
+  }
+
+  private record WordMatch(int id, String word, float factor) {
+  }
+
+  /**
+   * Splits a text in lowercase tokens without diacritics.
+   * @param text - text to split
+   * @return list of tokens
+   */
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null) {
+      return tokens;
+    }
+    String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+        .replaceAll("\\p{M}", "")
+        .toLowerCase();
+    for (String token : normalized.split("[^\\p{Alnum}]+")) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Computes the Levenshtein distance between two tokens. The computation stops as soon as
+   * the distance exceeds the given maximum.
+   */
+  static int distance(String a, String b, int maxDistance) {
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      int rowMin = current[0];
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+        rowMin = Math.min(rowMin, current[j]);
+      }
+      if (rowMin > maxDistance) {
+        return rowMin;
+      }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length()];
+  }
+
+}
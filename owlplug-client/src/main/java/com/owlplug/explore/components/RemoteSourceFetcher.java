@@ -0,0 +1,128 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.explore.components;
+
+import com.owlplug.explore.model.RemoteSource;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches remote source contents over a shared pool of HTTP connections.
+ * Validators (ETag, Last-Modified) returned by the server are stored in the source and sent
+ * back on the next conditional fetch, unchanged contents are never downloaded again.
+ */
+@Component
+public class RemoteSourceFetcher {
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+  private static final int MAX_CONNECTIONS_PER_ROUTE = 4;
+  private static final int MAX_CONNECTIONS = 20;
+
+  private CloseableHttpClient httpClient;
+
+  public enum FetchStatus {
+    FETCHED, NOT_MODIFIED
+  }
+
+  /**
+   * Handles the content of a fetched source.
+   */
+  @FunctionalInterface
+  public interface ContentHandler {
+    void handle(HttpEntity entity) throws IOException;
+  }
+
+  public RemoteSourceFetcher() {
+    httpClient = HttpClients.custom()
+        .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+            .setMaxConnTotal(MAX_CONNECTIONS)
+            .build())
+        .build();
+  }
+
+  /**
+   * Fetches a remote source content. Validators of the source are updated once the content
+   * is successfully handled.
+   * @param remoteSource - source to fetch
+   * @param conditional - sends the source validators if true
+   * @param contentHandler - handler called with the source content, unless the content is not modified
+   * @return the fetch status
+   * @throws IOException if the source can't be fetched or its content can't be handled
+   */
+  public FetchStatus fetch(RemoteSource remoteSource, boolean conditional, ContentHandler contentHandler)
+      throws IOException {
+
+    HttpGet httpGet = new HttpGet(remoteSource.getUrl());
+    if (conditional && remoteSource.getEtag() != null) {
+      httpGet.addHeader(HttpHeaders.IF_NONE_MATCH, remoteSource.getEtag());
+    }
+    if (conditional && remoteSource.getLastModified() != null) {
+      httpGet.addHeader(HttpHeaders.IF_MODIFIED_SINCE, remoteSource.getLastModified());
+    }
+
+    return httpClient.execute(httpGet, response -> {
+      HttpEntity entity = response.getEntity();
+      try {
+        if (response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+          log.debug("Source {} not modified since last sync", remoteSource.getName());
+          return FetchStatus.NOT_MODIFIED;
+        }
+        if (response.getCode() != HttpStatus.SC_OK || entity == null) {
+          throw new IOException("Unexpected response from source " + remoteSource.getName()
+                                    + ": HTTP " + response.getCode());
+        }
+
+        contentHandler.handle(entity);
+
+        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        remoteSource.setEtag(etag != null ? etag.getValue() : null);
+        remoteSource.setLastModified(lastModified != null ? lastModified.getValue() : null);
+        return FetchStatus.FETCHED;
+
+      } finally {
+        EntityUtils.consume(entity);
+      }
+    });
+  }
+
+  @PreDestroy
+  public void close() {
+    try {
+      httpClient.close();
+    } catch (IOException e) {
+      log.error("Remote source HTTP client can't be closed", e);
+    }
+  }
+
+}
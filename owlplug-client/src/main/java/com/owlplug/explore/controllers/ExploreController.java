@@ -18,18 +18,18 @@
  
 package com.owlplug.explore.controllers;
 
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.owlplug.controls.Dialog;
 import com.owlplug.controls.DialogLayout;
-import com.owlplug.controls.MasonryPane;
 import com.owlplug.controls.Popup;
-import com.owlplug.controls.Rippler;
+import com.owlplug.controls.VirtualGrid;
 import com.owlplug.core.components.ApplicationDefaults;
 import com.owlplug.core.components.ImageCache;
 import com.owlplug.core.components.LazyViewRegistry;
 import com.owlplug.core.controllers.BaseController;
 import com.owlplug.core.controllers.MainController;
 import com.owlplug.core.utils.FileUtils;
+import com.owlplug.explore.components.ExploreImagePrefetcher;
 import com.owlplug.explore.components.ExploreTaskFactory;
 import com.owlplug.explore.model.PackageBundle;
 import com.owlplug.explore.model.RemotePackage;
@@ -37,13 +37,15 @@ import com.owlplug.explore.model.search.ExploreFilterCriteriaType;
 import com.owlplug.explore.model.search.StoreFilterCriteria;
 import com.owlplug.explore.services.ExploreService;
 import com.owlplug.explore.ui.ExploreChipView;
+import com.owlplug.explore.ui.PackageBlocView;
 import com.owlplug.explore.ui.PackageBlocViewBuilder;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
-import javafx.application.Platform;
+import java.util.Objects;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
@@ -55,7 +57,6 @@ import javafx.scene.control.CheckBox;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
-import javafx.scene.input.MouseButton;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Priority;
@@ -74,6 +75,11 @@ public class ExploreController extends BaseController {
 
   private static final int PARTITION_SIZE = 20;
 
+  /*
+   * Number of partitions after the displayed ones with prefetched images.
+   */
+  private static final int PREFETCH_PARTITIONS = 3;
+
   @Autowired
   private ExploreService exploreService;
   @Autowired
@@ -86,6 +92,8 @@ public class ExploreController extends BaseController {
   private MainController mainController;
   @Autowired
   private ExploreTaskFactory exploreTaskFactory;
+  @Autowired
+  private ExploreImagePrefetcher imagePrefetcher;
 
   @FXML
   private Button sourcesButton;
@@ -98,7 +106,7 @@ public class ExploreController extends BaseController {
   @FXML
   private VBox masonryWrapper;
   @FXML
-  private MasonryPane masonryPane;
+  private VirtualGrid<RemotePackage> packageGrid;
   @FXML
   private ScrollPane scrollPane;
   @FXML
@@ -119,8 +127,8 @@ public class ExploreController extends BaseController {
    * When the user scrolls the entire partition, the next one is appended in the
    * UI.
    */
-  private Iterable<List<RemotePackage>> loadedPackagePartitions;
-  private Iterable<RemotePackage> loadedRemotePackages = new ArrayList<>();
+  private List<List<RemotePackage>> loadedPackagePartitions;
+  private List<RemotePackage> loadedRemotePackages = new ArrayList<>();
 
   /**
    * Counter of loaded partitions on UI.
@@ -132,7 +140,8 @@ public class ExploreController extends BaseController {
    */
   public void initialize() {
 
-    packageBlocViewBuilder = new PackageBlocViewBuilder(this.getApplicationDefaults(), imageCache, this);
+    packageBlocViewBuilder = new PackageBlocViewBuilder(this.getApplicationDefaults(), imageCache, this,
+        imagePrefetcher);
 
     sourcesButton.setOnAction(e -> {
       mainController.setLeftDrawer(viewRegistry.get(LazyViewRegistry.SOURCE_MENU_VIEW));
@@ -197,11 +206,13 @@ public class ExploreController extends BaseController {
     exploreTaskFactory.addSyncSourcesListener(() -> refreshView());
     refreshView();
 
-    masonryPane.setHSpacing(5);
-    masonryPane.setVSpacing(5);
+    packageGrid.setHSpacing(PackageBlocView.CELL_SPACING);
+    packageGrid.setVSpacing(PackageBlocView.CELL_SPACING);
 
-    masonryPane.setCellHeight(130);
-    masonryPane.setCellWidth(130);
+    packageGrid.setCellHeight(PackageBlocView.CELL_SIZE);
+    packageGrid.setCellWidth(PackageBlocView.CELL_SIZE);
+    packageGrid.setSpanFactory(PackageBlocView::getSpan);
+    packageGrid.setCellFactory(grid -> packageBlocViewBuilder.buildCell());
 
   }
   
@@ -246,12 +257,13 @@ public class ExploreController extends BaseController {
    */
   public synchronized void refreshView(Iterable<RemotePackage> remotePackages) {
 
-    if (shouldRefreshPackages(remotePackages)) {
-      this.masonryPane.getChildren().clear();
-      this.masonryPane.requestLayout();
+    List<RemotePackage> packages = Lists.newArrayList(remotePackages);
+    if (shouldRefreshPackages(packages)) {
+      this.packageGrid.getItems().clear();
+      imagePrefetcher.cancel();
 
-      loadedRemotePackages = remotePackages;
-      loadedPackagePartitions = Iterables.partition(loadedRemotePackages, PARTITION_SIZE);
+      loadedRemotePackages = packages;
+      loadedPackagePartitions = Lists.partition(loadedRemotePackages, PARTITION_SIZE);
       displayedPartitions = 0;
       displayNewPackagePartition();
     }
@@ -259,32 +271,26 @@ public class ExploreController extends BaseController {
 
   private void displayNewPackagePartition() {
 
-    if (Iterables.size(loadedPackagePartitions) > displayedPartitions) {
-      for (RemotePackage remotePackage : Iterables.get(loadedPackagePartitions, displayedPartitions)) {
-        Rippler rippler = new Rippler(packageBlocViewBuilder.build(remotePackage));
-        rippler.setOnMouseClicked(e -> {
-          if (e.getButton().equals(MouseButton.PRIMARY)) {
-            selectPackage(remotePackage);
-          }
-        });
-        masonryPane.getChildren().add(rippler);
-      }
+    if (loadedPackagePartitions.size() > displayedPartitions) {
+      // Only package blocs intersecting the viewport are created by the grid
+      packageGrid.getItems().addAll(loadedPackagePartitions.get(displayedPartitions));
       displayedPartitions += 1;
 
-      if (Iterables.size(loadedPackagePartitions) == displayedPartitions) {
+      // Warms image cache for the next partitions
+      for (int i = displayedPartitions; i < Math.min(displayedPartitions + PREFETCH_PARTITIONS,
+          loadedPackagePartitions.size()); i++) {
+        imagePrefetcher.prefetch(loadedPackagePartitions.get(i));
+      }
+
+      if (loadedPackagePartitions.size() == displayedPartitions) {
         lazyLoadBar.setVisible(false);
       } else {
         lazyLoadBar.setVisible(true);
 
       }
-
-      Platform.runLater(() -> {
-        masonryPane.requestLayout();
-        scrollPane.requestLayout();
-      });
     }
     
-    resultCounter.setText(this.masonryPane.getChildren().size() + " / " + Iterables.size(this.loadedRemotePackages));
+    resultCounter.setText(this.packageGrid.getItems().size() + " / " + this.loadedRemotePackages.size());
 
   }
 
@@ -295,14 +301,15 @@ public class ExploreController extends BaseController {
    * @param newPackages - the new package list
    * @return
    */
-  private boolean shouldRefreshPackages(Iterable<RemotePackage> newPackages) {
+  private boolean shouldRefreshPackages(List<RemotePackage> newPackages) {
 
-    if (Iterables.size(newPackages) != Iterables.size(loadedRemotePackages)) {
+    if (newPackages.size() != loadedRemotePackages.size()) {
       return true;
     }
 
-    for (int i = 0; i < Iterables.size(newPackages); i++) {
-      if (!Iterables.get(newPackages, i).getId().equals(Iterables.get(loadedRemotePackages, i).getId())) {
+    Iterator<RemotePackage> loadedIterator = loadedRemotePackages.iterator();
+    for (RemotePackage newPackage : newPackages) {
+      if (!Objects.equals(newPackage.getId(), loadedIterator.next().getId())) {
         return true;
       }
     }
@@ -364,7 +371,7 @@ public class ExploreController extends BaseController {
         directoryChooser.setInitialDirectory(initialDirectory);
       }
       // Open directory chooser on top of the current windows
-      Window mainWindow = masonryPane.getScene().getWindow();
+      Window mainWindow = packageGrid.getScene().getWindow();
       selectedDirectory = directoryChooser.showDialog(mainWindow);
     }
     
@@ -438,10 +445,10 @@ public class ExploreController extends BaseController {
   }
 
   /**
-   * Requests masonry and scroll pane layout.
+   * Requests package grid and scroll pane layout.
    */
   public void requestLayout() {
-    masonryPane.requestLayout();
+    packageGrid.requestLayout();
     scrollPane.requestLayout();
   }
 
@@ -113,6 +113,8 @@ public class PackageInfoController extends BaseController {
 
   }
 
+  private RemotePackage currentPackage;
+
   public void setPackage(RemotePackage remotePackage) {
     configureHeader(remotePackage);
     configureBody(remotePackage);
@@ -127,13 +129,16 @@ public class PackageInfoController extends BaseController {
         this.getApplicationDefaults(), true));
 
     // Screenshot display
-    Image screenshot = imageCache.get(remotePackage.getScreenshotUrl());
-    if (screenshot != null) {
-      BackgroundImage bgImg = new BackgroundImage(screenshot, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
-          BackgroundPosition.CENTER,
-          new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
-      screenshotBackgroundPane.setBackground(new Background(bgImg));
-    }
+    screenshotBackgroundPane.setBackground(null);
+    currentPackage = remotePackage;
+    imageCache.loadAsync(remotePackage.getScreenshotUrl(), screenshot -> {
+      if (screenshot != null && currentPackage == remotePackage) {
+        BackgroundImage bgImg = new BackgroundImage(screenshot, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
+            BackgroundPosition.CENTER,
+            new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
+        screenshotBackgroundPane.setBackground(new Background(bgImg));
+      }
+    });
     screenshotBackgroundPane.setEffect(new InnerShadow(25, Color.BLACK));
 
     // Name and source display
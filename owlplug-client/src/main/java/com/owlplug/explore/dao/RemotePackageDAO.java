@@ -20,15 +20,19 @@ package com.owlplug.explore.dao;
 
 import com.owlplug.core.model.PluginType;
 import com.owlplug.explore.model.RemotePackage;
+import com.owlplug.explore.model.RemoteSource;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface RemotePackageDAO extends CrudRepository<RemotePackage, Long>, JpaSpecificationExecutor<RemotePackage> {
 
@@ -42,13 +46,18 @@ public interface RemotePackageDAO extends CrudRepository<RemotePackage, Long>, J
   }
 
   /**
-   * Name filtering JPA Specification.
+   * Identifier filtering JPA Specification.
    * 
-   * @param name - The product name
+   * @param ids - The package ids to find
    * @return The JPA specification
    */
-  static Specification<RemotePackage> nameContains(String name) {
-    return (remotePackage, cq, cb) -> cb.like(cb.lower(remotePackage.get("name")), "%" + name.toLowerCase() + "%");
+  static Specification<RemotePackage> hasIdIn(Collection<Long> ids) {
+    return (remotePackage, cq, cb) -> {
+      if (ids.isEmpty()) {
+        return cb.disjunction();
+      }
+      return remotePackage.get("id").in(ids);
+    };
   }
   
   /**
@@ -125,6 +134,69 @@ public interface RemotePackageDAO extends CrudRepository<RemotePackage, Long>, J
   }
 
   public Iterable<RemotePackage> findByNameContainingIgnoreCase(String name);
+
+  public boolean existsByRemoteSource(RemoteSource remoteSource);
+
+  /**
+   * Returns the identity and content checksum of all packages of a source.
+   * @param remoteSource - the package source
+   * @return package checksums
+   */
+  @Query("SELECT p.id AS id, p.slug AS slug, p.checksum AS checksum FROM RemotePackage p "
+      + "WHERE p.remoteSource = ?1")
+  public List<PackageChecksum> findChecksumsByRemoteSource(RemoteSource remoteSource);
+
+  /**
+   * Returns packages with their bundles fetched in the same query.
+   * @param ids - package ids
+   * @return packages
+   */
+  @Query("SELECT DISTINCT p FROM RemotePackage p LEFT JOIN FETCH p.bundles WHERE p.id IN ?1")
+  public List<RemotePackage> findAllWithBundlesByIdIn(Collection<Long> ids);
+
+  /**
+   * Deletes packages and their bundles and tags in bulk. Associations are not cascaded
+   * by bulk queries, so rows are deleted from child tables first.
+   * @param ids - package ids
+   */
+  default void deleteAllInBulk(Collection<Long> ids) {
+    deleteBundleTargetsByPackageIdIn(ids);
+    deleteBundlesByPackageIdIn(ids);
+    deleteTagsByPackageIdIn(ids);
+    deletePackagesByIdIn(ids);
+  }
+
+  @Transactional
+  @Modifying
+  @Query(value = "DELETE FROM package_bundle_targets WHERE package_bundle_id IN "
+      + "(SELECT id FROM package_bundle WHERE remote_package_id IN ?1)", nativeQuery = true)
+  public void deleteBundleTargetsByPackageIdIn(Collection<Long> ids);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM PackageBundle b WHERE b.remotePackage.id IN ?1")
+  public void deleteBundlesByPackageIdIn(Collection<Long> ids);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM PackageTag t WHERE t.remotePackage.id IN ?1")
+  public void deleteTagsByPackageIdIn(Collection<Long> ids);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM RemotePackage p WHERE p.id IN ?1")
+  public void deletePackagesByIdIn(Collection<Long> ids);
+
+  /**
+   * Package identity and content checksum projection.
+   */
+  interface PackageChecksum {
+    Long getId();
+
+    String getSlug();
+
+    String getChecksum();
+  }
   
   @Query("SELECT DISTINCT p.creator FROM RemotePackage p")
   public List<String> findDistinctCreators();
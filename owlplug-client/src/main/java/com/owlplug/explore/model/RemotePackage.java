@@ -60,6 +60,11 @@ public class RemotePackage {
   private PluginType type;
   private PluginStage stage;
 
+  /*
+   * Digest of the source content the package has been created from.
+   */
+  private String checksum;
+
   @ManyToOne
   private RemoteSource remoteSource;
 
@@ -201,4 +206,12 @@ public class RemotePackage {
     this.tags = tags;
   }
 
+  public String getChecksum() {
+    return checksum;
+  }
+
+  public void setChecksum(String checksum) {
+    this.checksum = checksum;
+  }
+
 }
@@ -37,6 +37,12 @@ public class RemoteSource {
   private boolean enabled = true;
   private SourceType type;
 
+  /*
+   * HTTP validators of the last fetched source content, used for conditional requests.
+   */
+  private String etag;
+  private String lastModified;
+
   @OneToMany(mappedBy = "remoteSource", orphanRemoval = true)
   private List<RemotePackage> packages;
 
@@ -87,4 +93,21 @@ public class RemoteSource {
   public void setType(SourceType type) {
     this.type = type;
   }
+
+  public String getEtag() {
+    return etag;
+  }
+
+  public void setEtag(String etag) {
+    this.etag = etag;
+  }
+
+  public String getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(String lastModified) {
+    this.lastModified = lastModified;
+  }
+
 }
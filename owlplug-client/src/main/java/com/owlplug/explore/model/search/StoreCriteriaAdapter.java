@@ -39,7 +39,8 @@ public class StoreCriteriaAdapter {
   public static Specification<RemotePackage> toSpecification(StoreFilterCriteria criteria) {
 
     if (criteria.getFilterType().equals(ExploreFilterCriteriaType.NAME)) {
-      return RemotePackageDAO.nameContains(String.valueOf(criteria.getValue()));
+      // Text criteria are resolved together by the package search index
+      return Specification.where(null);
     }
     if (criteria.getFilterType().equals(ExploreFilterCriteriaType.CREATOR)) {
       return RemotePackageDAO.hasCreator(String.valueOf(criteria.getValue()));
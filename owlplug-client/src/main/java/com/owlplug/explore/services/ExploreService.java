@@ -26,6 +26,7 @@ import com.owlplug.core.model.PluginFormat;
 import com.owlplug.core.model.platform.RuntimePlatform;
 import com.owlplug.core.services.BaseService;
 import com.owlplug.explore.components.ExploreTaskFactory;
+import com.owlplug.explore.components.PackageSearchIndex;
 import com.owlplug.explore.dao.RemotePackageDAO;
 import com.owlplug.explore.dao.RemoteSourceDAO;
 import com.owlplug.explore.model.PackageBundle;
@@ -36,12 +37,17 @@ import com.owlplug.explore.model.json.RegistryJsonMapper;
 import com.owlplug.explore.model.json.RegistryModelAdapter;
 import com.owlplug.explore.model.json.legacy.StoreJsonMapper;
 import com.owlplug.explore.model.json.legacy.StoreModelAdapter;
+import com.owlplug.explore.model.search.ExploreFilterCriteriaType;
 import com.owlplug.explore.model.search.StoreCriteriaAdapter;
 import com.owlplug.explore.model.search.StoreFilterCriteria;
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
@@ -64,6 +70,8 @@ public class ExploreService extends BaseService {
   private RemotePackageDAO remotePackageDAO;
   @Autowired
   private ExploreTaskFactory exploreTaskFactory;
+  @Autowired
+  private PackageSearchIndex packageSearchIndex;
 
   @PostConstruct
   private void init() {
@@ -98,7 +106,8 @@ public class ExploreService extends BaseService {
 
   /**
    * Retrieves products from store with name matching the given criteria and
-   * compatible with the current platform.
+   * compatible with the current platform. When the criteria contain a text search,
+   * products are sorted by relevance.
    *
    * @param criteriaList criteria list
    * @return list of store products
@@ -110,7 +119,21 @@ public class ExploreService extends BaseService {
         .and(RemotePackageDAO.hasPlatformTag(env.getCompatiblePlatformsTags()));
     spec = spec.and(StoreCriteriaAdapter.toSpecification(criteriaList));
 
-    return remotePackageDAO.findAll(spec);
+    // Packages must match all tokens of all text criteria, so text criteria are searched at once
+    String query = criteriaList.stream()
+        .filter(c -> c.getFilterType().equals(ExploreFilterCriteriaType.NAME))
+        .map(c -> String.valueOf(c.getValue()))
+        .collect(Collectors.joining(" "));
+    if (query.isBlank()) {
+      return remotePackageDAO.findAll(spec);
+    }
+
+    // Search scores are used both to filter and to sort packages
+    Map<Long, Float> ranks = packageSearchIndex.search(query);
+    spec = spec.and(RemotePackageDAO.hasIdIn(ranks.keySet()));
+    List<RemotePackage> packages = new ArrayList<>(remotePackageDAO.findAll(spec));
+    packages.sort(Comparator.comparing((RemotePackage p) -> ranks.getOrDefault(p.getId(), 0f)).reversed());
+    return packages;
   }
 
   public Iterable<RemotePackage> getPackagesByName(String name) {
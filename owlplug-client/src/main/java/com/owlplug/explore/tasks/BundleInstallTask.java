@@ -22,6 +22,7 @@ import com.owlplug.core.components.ApplicationDefaults;
 import com.owlplug.core.model.platform.RuntimePlatform;
 import com.owlplug.core.tasks.AbstractTask;
 import com.owlplug.core.tasks.TaskException;
+import com.owlplug.core.tasks.TaskResource;
 import com.owlplug.core.tasks.TaskResult;
 import com.owlplug.core.utils.ArchiveUtils;
 import com.owlplug.core.utils.CryptoUtils;
@@ -63,6 +64,7 @@ public class BundleInstallTask extends AbstractTask {
     this.targetDirectory = targetDirectory;
     this.applicationDefaults = applicationDefaults;
     setName("Install plugin - " + bundle.getRemotePackage().getName());
+    addResource(TaskResource.directory(targetDirectory.getAbsolutePath()));
     setMaxProgress(150);
   }
 
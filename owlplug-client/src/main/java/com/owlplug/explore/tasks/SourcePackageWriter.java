@@ -0,0 +1,233 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.explore.tasks;
+
+import com.google.common.collect.Lists;
+import com.owlplug.explore.dao.RemotePackageDAO;
+import com.owlplug.explore.dao.RemotePackageDAO.PackageChecksum;
+import com.owlplug.explore.model.PackageBundle;
+import com.owlplug.explore.model.PackageTag;
+import com.owlplug.explore.model.RemotePackage;
+import com.owlplug.explore.model.RemoteSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Applies the packages read from a source content to the packages stored for this source.
+ * Packages are matched by slug, only new or modified packages are written. Modified packages
+ * are updated in place, only their changed bundles and tags are replaced. Packages missing
+ * from the source content are removed in bulk once the whole content is written.
+ */
+public class SourcePackageWriter {
+
+  private RemotePackageDAO remotePackageDAO;
+  private TransactionTemplate transactionTemplate;
+  private RemoteSource remoteSource;
+  private int batchSize;
+
+  private Map<String, PackageChecksum> storedPackages = new HashMap<>();
+  private List<Long> outdatedPackageIds = new ArrayList<>();
+  private List<RemotePackage> pendingPackages = new ArrayList<>();
+  private Map<Long, RemotePackage> pendingUpdates = new HashMap<>();
+
+  private int added = 0;
+  private int updated = 0;
+  private int removed = 0;
+  private int unchanged = 0;
+
+  /**
+   * Creates a new writer. Checksums of the packages already stored for the source are loaded.
+   * @param remotePackageDAO - remote package DAO
+   * @param transactionTemplate - transaction template used to write each batch
+   * @param remoteSource - source of written packages
+   * @param batchSize - number of packages saved in a single batch
+   */
+  public SourcePackageWriter(RemotePackageDAO remotePackageDAO, TransactionTemplate transactionTemplate,
+      RemoteSource remoteSource, int batchSize) {
+    this.remotePackageDAO = remotePackageDAO;
+    this.transactionTemplate = transactionTemplate;
+    this.remoteSource = remoteSource;
+    this.batchSize = batchSize;
+
+    for (PackageChecksum storedPackage : remotePackageDAO.findChecksumsByRemoteSource(remoteSource)) {
+      // Packages without slug or with duplicated slugs can't be matched and are replaced
+      if (storedPackage.getSlug() == null || storedPackages.containsKey(storedPackage.getSlug())) {
+        outdatedPackageIds.add(storedPackage.getId());
+      } else {
+        storedPackages.put(storedPackage.getSlug(), storedPackage);
+      }
+    }
+  }
+
+  /**
+   * Writes a package read from the source content.
+   * @param remotePackage - the package
+   * @param checksum - checksum of the package content
+   */
+  public void write(RemotePackage remotePackage, String checksum) {
+    PackageChecksum storedPackage = remotePackage.getSlug() != null
+        ? storedPackages.remove(remotePackage.getSlug()) : null;
+
+    if (storedPackage != null && Objects.equals(storedPackage.getChecksum(), checksum)) {
+      unchanged++;
+      return;
+    }
+
+    remotePackage.setRemoteSource(remoteSource);
+    remotePackage.setChecksum(checksum);
+    if (storedPackage != null) {
+      pendingUpdates.put(storedPackage.getId(), remotePackage);
+      updated++;
+    } else {
+      pendingPackages.add(remotePackage);
+      added++;
+    }
+
+    if (pendingPackages.size() + pendingUpdates.size() >= batchSize) {
+      flush();
+    }
+  }
+
+  /**
+   * Removes outdated packages, updates modified packages and saves new packages
+   * in a single transaction.
+   */
+  public void flush() {
+    transactionTemplate.executeWithoutResult(status -> {
+      for (List<Long> partition : Lists.partition(outdatedPackageIds, batchSize)) {
+        remotePackageDAO.deleteAllInBulk(partition);
+      }
+      if (!pendingUpdates.isEmpty()) {
+        // Loaded packages are managed by the transaction, changes are written on commit
+        for (RemotePackage storedPackage : remotePackageDAO.findAllWithBundlesByIdIn(pendingUpdates.keySet())) {
+          update(storedPackage, pendingUpdates.get(storedPackage.getId()));
+        }
+      }
+      remotePackageDAO.saveAll(pendingPackages);
+    });
+    outdatedPackageIds.clear();
+    pendingUpdates.clear();
+    pendingPackages.clear();
+  }
+
+  /**
+   * Completes the write once the whole source content is read. Stored packages that have not
+   * been found in the content are removed.
+   */
+  public void complete() {
+    for (PackageChecksum storedPackage : storedPackages.values()) {
+      outdatedPackageIds.add(storedPackage.getId());
+      removed++;
+    }
+    storedPackages.clear();
+    flush();
+  }
+
+  /**
+   * Copies the content of a package read from the source to the stored package.
+   * Bundles and tags are only replaced if they changed.
+   * @param storedPackage - stored package
+   * @param remotePackage - package read from the source
+   */
+  static void update(RemotePackage storedPackage, RemotePackage remotePackage) {
+    storedPackage.setName(remotePackage.getName());
+    storedPackage.setPageUrl(remotePackage.getPageUrl());
+    storedPackage.setDownloadUrl(remotePackage.getDownloadUrl());
+    storedPackage.setScreenshotUrl(remotePackage.getScreenshotUrl());
+    storedPackage.setDonateUrl(remotePackage.getDonateUrl());
+    storedPackage.setCreator(remotePackage.getCreator());
+    storedPackage.setLicense(remotePackage.getLicense());
+    storedPackage.setVersion(remotePackage.getVersion());
+    storedPackage.setDescription(remotePackage.getDescription());
+    storedPackage.setType(remotePackage.getType());
+    storedPackage.setStage(remotePackage.getStage());
+    storedPackage.setChecksum(remotePackage.getChecksum());
+
+    List<PackageBundle> addedBundles = new ArrayList<>(remotePackage.getBundles());
+    Iterator<PackageBundle> storedBundles = storedPackage.getBundles().iterator();
+    while (storedBundles.hasNext()) {
+      PackageBundle storedBundle = storedBundles.next();
+      PackageBundle sameBundle = addedBundles.stream()
+          .filter(bundle -> isSameBundle(storedBundle, bundle)).findFirst().orElse(null);
+      if (sameBundle != null) {
+        addedBundles.remove(sameBundle);
+      } else {
+        storedBundles.remove();
+      }
+    }
+    for (PackageBundle bundle : addedBundles) {
+      bundle.setRemotePackage(storedPackage);
+      storedPackage.getBundles().add(bundle);
+    }
+
+    Set<String> addedTags = new HashSet<>();
+    for (PackageTag tag : remotePackage.getTags()) {
+      addedTags.add(tag.getName());
+    }
+    storedPackage.getTags().removeIf(tag -> !addedTags.remove(tag.getName()));
+    for (String tag : addedTags) {
+      storedPackage.getTags().add(new PackageTag(tag, storedPackage));
+    }
+  }
+
+  private static boolean isSameBundle(PackageBundle storedBundle, PackageBundle bundle) {
+    return Objects.equals(storedBundle.getName(), bundle.getName())
+        && Objects.equals(storedBundle.getDownloadUrl(), bundle.getDownloadUrl())
+        && Objects.equals(storedBundle.getDownloadSha256(), bundle.getDownloadSha256())
+        && Objects.equals(storedBundle.getFormat(), bundle.getFormat())
+        && Objects.equals(storedBundle.getTechnicalUid(), bundle.getTechnicalUid())
+        && Objects.equals(storedBundle.getVersion(), bundle.getVersion())
+        && storedBundle.getFileSize() == bundle.getFileSize()
+        && Objects.equals(toList(storedBundle.getTargets()), toList(bundle.getTargets()));
+  }
+
+  private static List<String> toList(List<String> targets) {
+    // Persistent collections do not implement list equality
+    return targets != null ? new ArrayList<>(targets) : null;
+  }
+
+  public int getAdded() {
+    return added;
+  }
+
+  public int getUpdated() {
+    return updated;
+  }
+
+  public int getRemoved() {
+    return removed;
+  }
+
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  @Override
+  public String toString() {
+    return added + " added, " + updated + " updated, " + removed + " removed, " + unchanged + " unchanged";
+  }
+
+}
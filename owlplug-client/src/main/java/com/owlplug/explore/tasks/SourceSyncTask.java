@@ -18,13 +18,19 @@
  
 package com.owlplug.explore.tasks;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.owlplug.core.tasks.AbstractTask;
 import com.owlplug.core.tasks.TaskException;
+import com.owlplug.core.tasks.TaskResource;
 import com.owlplug.core.tasks.TaskResult;
+import com.owlplug.core.utils.CryptoUtils;
+import com.owlplug.explore.components.RemoteSourceFetcher;
+import com.owlplug.explore.components.RemoteSourceFetcher.FetchStatus;
 import com.owlplug.explore.dao.RemotePackageDAO;
 import com.owlplug.explore.dao.RemoteSourceDAO;
 import com.owlplug.explore.model.RemotePackage;
@@ -32,7 +38,6 @@ import com.owlplug.explore.model.RemoteSource;
 import com.owlplug.explore.model.SourceType;
 import com.owlplug.explore.model.json.PackageJsonMapper;
 import com.owlplug.explore.model.json.PackageVersionJsonMapper;
-import com.owlplug.explore.model.json.RegistryJsonMapper;
 import com.owlplug.explore.model.json.RegistryModelAdapter;
 import com.owlplug.explore.model.json.legacy.ProductJsonMapper;
 import com.owlplug.explore.model.json.legacy.StoreJsonMapper;
@@ -40,88 +45,98 @@ import com.owlplug.explore.model.json.legacy.StoreModelAdapter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hc.core5.http.HttpEntity;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
 
 public class SourceSyncTask extends AbstractTask {
 
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+  /*
+   * Number of packages saved in a single batch.
+   */
+  private static final int PACKAGE_BATCH_SIZE = 100;
+
+  /*
+   * Maximum number of sources fetched concurrently.
+   */
+  private static final int MAX_CONCURRENT_SOURCES = 4;
+
   private RemoteSourceDAO remoteSourceDAO;
   private RemotePackageDAO remotePackageDAO;
+  private RemoteSourceFetcher remoteSourceFetcher;
+  private TransactionTemplate transactionTemplate;
+
+  private double[] sourceProgress;
 
   /**
    * Creates a new SourceSync tasks.
    * 
    * @param remoteSourceDAO  remoteSource DAO
    * @param remotePackageDAO remotePackage DAO
+   * @param remoteSourceFetcher shared remote source fetcher
+   * @param transactionTemplate transactionTemplate used to write packages in batches
    */
-  public SourceSyncTask(RemoteSourceDAO remoteSourceDAO, RemotePackageDAO remotePackageDAO) {
+  public SourceSyncTask(RemoteSourceDAO remoteSourceDAO, RemotePackageDAO remotePackageDAO,
+      RemoteSourceFetcher remoteSourceFetcher, TransactionTemplate transactionTemplate) {
     super("Syncing plugin sources");
+    addResource(TaskResource.REGISTRY);
     this.remoteSourceDAO = remoteSourceDAO;
     this.remotePackageDAO = remotePackageDAO;
+    this.remoteSourceFetcher = remoteSourceFetcher;
+    this.transactionTemplate = transactionTemplate;
   }
 
   @Override
   protected TaskResult call() throws TaskException {
 
     this.updateMessage("Syncing plugins stores");
-    this.commitProgress(-1);
-
-    Iterable<RemoteSource> storeList = remoteSourceDAO.findAll();
-    this.setMaxProgress(2 + Iterables.size(storeList));
-
-    remotePackageDAO.deleteAll();
-
-    this.commitProgress(2);
-    CloseableHttpResponse response = null;
-
-    for (RemoteSource remoteSource : remoteSourceDAO.findAll()) {
-      try (CloseableHttpClient httpclient = HttpClients.createDefault()) {
-        log.debug("Exploring source {} - {}", remoteSource.getName(), remoteSource.getType().getLabel());
-        this.updateMessage("Exploring source " + remoteSource.getName()
-                               + " - " + remoteSource.getType().getLabel());
-        HttpGet httpGet = new HttpGet(remoteSource.getUrl());
-        response = httpclient.execute(httpGet);
-        HttpEntity entity = response.getEntity();
-
-        if (remoteSource.getType() == null || remoteSource.getType().equals(SourceType.OWLPLUG_STORE)) {
-          processStoreSource(entity, remoteSource);
-        } else if (remoteSource.getType().equals(SourceType.OWLPLUG_REGISTRY)) {
-          processRegistrySource(entity, remoteSource);
-        }
-
-        EntityUtils.consume(entity);
+    this.updateProgress(-1, 1);
 
-      } catch (IOException e) {
-        this.getWarnings().add(remoteSource.getName());
-        this.updateMessage("Error accessing source " + remoteSource.getName() + ". Check your network connectivity");
-        log.error("Error accessing source " + remoteSource.getName() + ". Check your network connectivity", e);
+    List<RemoteSource> remoteSources = Lists.newArrayList(remoteSourceDAO.findAll());
+    this.setMaxProgress(1 + remoteSources.size());
+    this.commitProgress(1);
+    sourceProgress = new double[remoteSources.size()];
 
-      } catch (StoreParsingException e) {
-        this.getWarnings().add(remoteSource.getName());
-        this.updateMessage("Error parsing remote source response");
-        log.error("Error parsing remote source response", e);
+    // Sources are fetched and processed concurrently
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(remoteSources.size(), MAX_CONCURRENT_SOURCES)), runnable -> {
+          Thread thread = new Thread(runnable, "source-sync-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
 
-      } finally {
-        this.commitProgress(1);
-        try {
-          if (response != null) {
-            response.close();
-          }
-        } catch (IOException e) {
-          log.error("Error closing response", e);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < remoteSources.size(); i++) {
+        RemoteSource remoteSource = remoteSources.get(i);
+        int sourceIndex = i;
+        results.add(executor.submit(() -> syncSource(remoteSource, sourceIndex)));
+      }
+      for (int i = 0; i < remoteSources.size(); i++) {
+        if (!results.get(i).get()) {
+          this.getWarnings().add(remoteSources.get(i).getName());
         }
       }
+    } catch (ExecutionException e) {
+      log.error("Unexpected error during source synchronization", e.getCause());
+      throw new TaskException("Unexpected error during source synchronization", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TaskException("Source synchronization interrupted", e);
+    } finally {
+      executor.shutdownNow();
     }
 
-    this.commitProgress(1);
+    this.updateProgress(1, 1);
 
     if (this.getWarnings().isEmpty()) {
       this.updateMessage("Plugin sources synced.");
@@ -133,23 +148,81 @@ public class SourceSyncTask extends AbstractTask {
     return success();
   }
 
-  private void processStoreSource(HttpEntity entity, RemoteSource remoteSource) throws StoreParsingException {
+  /**
+   * Fetches and processes a single source. Packages of the source are only replaced if the
+   * source content has been modified since the last sync.
+   * @param remoteSource - source to synchronize
+   * @param sourceIndex - source index used to report progress
+   * @return false if the source can't be synchronized
+   */
+  private boolean syncSource(RemoteSource remoteSource, int sourceIndex) {
+
+    log.debug("Exploring source {} - {}", remoteSource.getName(), remoteSource.getType().getLabel());
+    this.updateMessage("Exploring source " + remoteSource.getName()
+                           + " - " + remoteSource.getType().getLabel());
+
+    // Conditional requests are only sent if packages from the last sync are still available
+    boolean conditional = remotePackageDAO.existsByRemoteSource(remoteSource);
+
+    try {
+      FetchStatus status = remoteSourceFetcher.fetch(remoteSource, conditional, entity -> {
+        // Validators are reset until the new content is completely processed
+        remoteSource.setEtag(null);
+        remoteSource.setLastModified(null);
+        remoteSourceDAO.save(remoteSource);
+
+        SourcePackageWriter packageWriter = new SourcePackageWriter(remotePackageDAO, transactionTemplate,
+            remoteSource, PACKAGE_BATCH_SIZE);
+        if (remoteSource.getType() == null || remoteSource.getType().equals(SourceType.OWLPLUG_STORE)) {
+          processStoreSource(entity, packageWriter);
+        } else if (remoteSource.getType().equals(SourceType.OWLPLUG_REGISTRY)) {
+          processRegistrySource(entity, packageWriter, sourceIndex);
+        }
+        packageWriter.complete();
+        log.info("Source {} synchronized: {}", remoteSource.getName(), packageWriter);
+      });
+
+      if (status == FetchStatus.FETCHED) {
+        remoteSourceDAO.save(remoteSource);
+      }
+      return true;
+
+    } catch (StoreParsingException e) {
+      this.updateMessage("Error parsing remote source response");
+      log.error("Error parsing remote source response", e);
+      return false;
+
+    } catch (IOException e) {
+      this.updateMessage("Error accessing source " + remoteSource.getName() + ". Check your network connectivity");
+      log.error("Error accessing source " + remoteSource.getName() + ". Check your network connectivity", e);
+      return false;
+
+    } finally {
+      updateSourceProgress(sourceIndex, 1);
+    }
+  }
+
+  private synchronized void updateSourceProgress(int sourceIndex, double progress) {
+    sourceProgress[sourceIndex] = progress;
+    double totalProgress = 0;
+    for (double value : sourceProgress) {
+      totalProgress += value;
+    }
+    this.computeTotalProgress(totalProgress);
+  }
+
+  private void processStoreSource(HttpEntity entity, SourcePackageWriter packageWriter)
+      throws StoreParsingException {
 
     ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
         false);
 
     try {
       StoreJsonMapper pluginStoreTO = objectMapper.readValue(entity.getContent(), StoreJsonMapper.class);
-      List<List<ProductJsonMapper>> chunks = Lists.partition(pluginStoreTO.getProducts(), 100);
-      
-      for (List<ProductJsonMapper> partition : chunks) {
-        List<RemotePackage> remotePackagePartition = new ArrayList<>();
-        for (ProductJsonMapper productMapper : partition) {
-          RemotePackage product = StoreModelAdapter.jsonMapperToEntity(productMapper);
-          product.setRemoteSource(remoteSource);
-          remotePackagePartition.add(product);
-        }
-        remotePackageDAO.saveAll(remotePackagePartition);
+      for (ProductJsonMapper productMapper : pluginStoreTO.getProducts()) {
+        RemotePackage product = StoreModelAdapter.jsonMapperToEntity(productMapper);
+        String checksum = CryptoUtils.getSha256Digest(objectMapper.writeValueAsBytes(productMapper));
+        packageWriter.write(product, checksum);
       }
       
     } catch (Exception e) {
@@ -157,41 +230,76 @@ public class SourceSyncTask extends AbstractTask {
     }
   }
 
-  private void processRegistrySource(HttpEntity entity, RemoteSource remoteSource) throws StoreParsingException {
+  /**
+   * Reads registry packages from a streaming parser. Packages are mapped and written in batches
+   * as soon as they are read, the whole registry is never loaded in memory.
+   */
+  private void processRegistrySource(HttpEntity entity, SourcePackageWriter packageWriter, int sourceIndex)
+      throws StoreParsingException {
     ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
         false);
 
-    try {
-      RegistryJsonMapper registryMapper = objectMapper.readValue(entity.getContent(), RegistryJsonMapper.class);
-      List<PackageJsonMapper> packages = new ArrayList<>(registryMapper.getPackages().values());
-      List<List<PackageJsonMapper>> chunks = Lists.partition(packages, 100);
+    long contentLength = entity.getContentLength();
+    int readPackages = 0;
 
-      for (List<PackageJsonMapper> partition : chunks) {
-        List<RemotePackage> remotePackagePartition = new ArrayList<>();
-        for (PackageJsonMapper packageMapper : partition) {
+    try (JsonParser parser = objectMapper.getFactory().createParser(entity.getContent())) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new StoreParsingException("Registry content must be a JSON object");
+      }
 
-          if (packageMapper.getVersions().containsKey(packageMapper.getLatestVersion())) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken valueToken = parser.nextToken();
 
-            PackageVersionJsonMapper latestPackage = packageMapper.getVersions()
-                .get(packageMapper.getLatestVersion());
+        if (!"packages".equals(fieldName) || valueToken != JsonToken.START_OBJECT) {
+          parser.skipChildren();
+          continue;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          parser.nextToken();
+          JsonNode packageNode = objectMapper.readTree(parser);
+          PackageJsonMapper packageMapper = objectMapper.treeToValue(packageNode, PackageJsonMapper.class);
+          RemotePackage remotePackage = createRegistryPackage(packageMapper);
+          if (remotePackage != null) {
+            String checksum = CryptoUtils.getSha256Digest(objectMapper.writeValueAsBytes(packageNode));
+            packageWriter.write(remotePackage, checksum);
+          }
 
-            RemotePackage product = RegistryModelAdapter.jsonMapperToEntity(latestPackage);
-            product.setSlug(packageMapper.getSlug());
-            product.setRemoteSource(remoteSource);
-            remotePackagePartition.add(product);
+          readPackages++;
+          if (readPackages % PACKAGE_BATCH_SIZE == 0 && contentLength > 0) {
+            long consumedBytes = parser.getCurrentLocation().getByteOffset();
+            updateSourceProgress(sourceIndex, Math.min(1, (double) consumedBytes / contentLength));
           }
         }
-        remotePackageDAO.saveAll(remotePackagePartition);
       }
 
+    } catch (StoreParsingException e) {
+      throw e;
     } catch (Exception e) {
       throw new StoreParsingException(e);
     }
   }
 
-  private class StoreParsingException extends Exception {
+  private RemotePackage createRegistryPackage(PackageJsonMapper packageMapper) {
+    if (packageMapper.getVersions() == null
+        || !packageMapper.getVersions().containsKey(packageMapper.getLatestVersion())) {
+      return null;
+    }
+    PackageVersionJsonMapper latestPackage = packageMapper.getVersions().get(packageMapper.getLatestVersion());
+
+    RemotePackage remotePackage = RegistryModelAdapter.jsonMapperToEntity(latestPackage);
+    remotePackage.setSlug(packageMapper.getSlug());
+    return remotePackage;
+  }
+
+  private class StoreParsingException extends IOException {
     StoreParsingException(Exception e) {
       super(e);
     }
+
+    StoreParsingException(String message) {
+      super(message);
+    }
   }
 }
@@ -24,7 +24,7 @@ import com.owlplug.core.utils.PlatformUtils;
 import com.owlplug.explore.controllers.ExploreController;
 import com.owlplug.explore.model.PackageBundle;
 import com.owlplug.explore.model.RemotePackage;
-import java.util.Random;
+import java.util.Objects;
 import javafx.geometry.Dimension2D;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -53,22 +53,37 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Polygon;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
+import javafx.stage.Screen;
 
 public class PackageBlocView extends AnchorPane {
 
+  /*
+   * Size of a grid cell and spacing between cells covered by a package bloc.
+   */
+  public static final int CELL_SIZE = 130;
+  public static final int CELL_SPACING = 5;
+
+  private ApplicationDefaults applicationDefaults;
   private ExploreController parentController;
 
+  private RemotePackage remotePackage;
+
+  private HBox header = new HBox();
+  private Node headerContent;
+  private ImageView typeImageView = new ImageView();
+  private Label nameLabel = new Label();
+  private Node stageFlag;
+
   /**
-   * Creates a new store product bloc view instance.
-   * 
+   * Creates a new empty store product bloc view instance. The view can be bound
+   * to successive packages using {@link #setPackage(RemotePackage, Image)}.
+   *
    * @param applicationDefaults - OwlPlug application defaults
-   * @param remotePackage        - related store product
-   * @param image               - product image
    * @param parentController    - parent store controller
    */
-  public PackageBlocView(ApplicationDefaults applicationDefaults, RemotePackage remotePackage, Image image,
-                         ExploreController parentController) {
+  public PackageBlocView(ApplicationDefaults applicationDefaults, ExploreController parentController) {
     super();
+    this.applicationDefaults = applicationDefaults;
     this.parentController = parentController;
 
     BorderPane content = new BorderPane();
@@ -79,47 +94,97 @@ public class PackageBlocView extends AnchorPane {
     AnchorPane.setRightAnchor(content, 0.0);
 
     // Header section
-    HBox header = new HBox();
     Pane growingPane = new Pane();
     HBox.setHgrow(growingPane, Priority.ALWAYS);
     header.getChildren().add(growingPane);
-    Node headerContent = new PackageSourceBadgeView(remotePackage.getRemoteSource(), applicationDefaults);
-    header.getChildren().add(headerContent);
-
     content.setTop(header);
 
     // Footer section
     HBox footer = new HBox();
     footer.setSpacing(5);
     footer.getStyleClass().add("package-bloc-title");
-    if (remotePackage.getType() != null) {
-      Image typeIcon = applicationDefaults.getPackageTypeIcon(remotePackage);
-      if (typeIcon != null) {
-        ImageView typeImageView = new ImageView(typeIcon);
-        typeImageView.setFitHeight(16);
-        typeImageView.setFitWidth(16);
-        footer.getChildren().add(typeImageView);
-      }
-    }
-    footer.getChildren().add(new Label(remotePackage.getName()));
+    typeImageView.setFitHeight(16);
+    typeImageView.setFitWidth(16);
+    typeImageView.managedProperty().bind(typeImageView.visibleProperty());
+    footer.getChildren().add(typeImageView);
+    footer.getChildren().add(nameLabel);
     footer.setPrefSize(USE_COMPUTED_SIZE, USE_COMPUTED_SIZE);
     footer.setAlignment(Pos.BOTTOM_LEFT);
     content.setBottom(footer);
 
+    this.setEffect(new InnerShadow(11, Color.BLACK));
+
+    // Context menu is created on request for the currently bound package
+    this.setOnContextMenuRequested(e -> {
+      if (this.remotePackage != null) {
+        createContextMenu(this.remotePackage).show(this, e.getScreenX(), e.getScreenY());
+      }
+    });
+  }
+
+  /**
+   * Binds the view to a package.
+   *
+   * @param remotePackage - related store product, null to clear the view
+   * @param image         - product image
+   */
+  public void setPackage(RemotePackage remotePackage, Image image) {
+    this.remotePackage = remotePackage;
+
+    if (headerContent != null) {
+      header.getChildren().remove(headerContent);
+      headerContent = null;
+    }
+    if (stageFlag != null) {
+      this.getChildren().remove(stageFlag);
+      stageFlag = null;
+    }
+
+    if (remotePackage == null) {
+      nameLabel.setText(null);
+      typeImageView.setImage(null);
+      this.setBackground(null);
+      return;
+    }
+
+    headerContent = new PackageSourceBadgeView(remotePackage.getRemoteSource(), applicationDefaults);
+    header.getChildren().add(headerContent);
+
+    Image typeIcon = remotePackage.getType() != null ? applicationDefaults.getPackageTypeIcon(remotePackage) : null;
+    typeImageView.setImage(typeIcon);
+    typeImageView.setVisible(typeIcon != null);
+    nameLabel.setText(remotePackage.getName());
+
     if (remotePackage.getStage() != null && remotePackage.getStage() != PluginStage.RELEASE) {
-      this.getChildren().add(createPluginStageFlag(remotePackage));
+      stageFlag = createPluginStageFlag(remotePackage);
+      this.getChildren().add(stageFlag);
     }
 
+    setImage(image);
+  }
+
+  /**
+   * Sets the package image displayed in background.
+   *
+   * @param image - product image, may be null
+   */
+  public void setImage(Image image) {
     if (image != null) {
       BackgroundImage bgImg = new BackgroundImage(image, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
           BackgroundPosition.CENTER,
           new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, true, true));
 
       this.setBackground(new Background(bgImg));
+    } else {
+      this.setBackground(null);
     }
+  }
 
-    this.setEffect(new InnerShadow(11, Color.BLACK));
+  public RemotePackage getPackage() {
+    return remotePackage;
+  }
 
+  private ContextMenu createContextMenu(RemotePackage remotePackage) {
     TextFlow textFlow = new TextFlow();
     textFlow.getChildren().add(new Label("Install"));
     Text storeSourceText = new Text(" (Auto)");
@@ -157,30 +222,48 @@ public class PackageBlocView extends AnchorPane {
 
     contextMenu.getItems().add(new SeparatorMenuItem());
     contextMenu.getItems().add(pluginPageMenuItem);
-    this.setOnContextMenuRequested(e -> {
-      contextMenu.show(this, e.getScreenX(), e.getScreenY());
-    });
-
-    Dimension2D size = generateSize();
-    this.setPrefHeight(size.getHeight());
-    this.setPrefWidth(size.getWidth());
+    return contextMenu;
   }
 
-  private Dimension2D generateSize() {
+  /**
+   * Returns the number of grid columns and rows covered by a package bloc.
+   * The span is derived from the package id so a package keeps the same size
+   * each time it is displayed.
+   *
+   * @param remotePackage - store product
+   * @return the span of the package bloc, in cells
+   */
+  public static Dimension2D getSpan(RemotePackage remotePackage) {
 
-    Random rand = new Random();
-    float randomPoint = rand.nextFloat();
+    // Fibonacci hashing spreads consecutive ids over [0, 1)
+    long hash = Objects.hashCode(remotePackage.getId()) * 0x9E3779B97F4A7C15L;
+    float randomPoint = (hash >>> 40) / (float) (1 << 24);
 
     if (randomPoint < 0.1) {
-      return new Dimension2D(260, 260);
+      return new Dimension2D(2, 2);
     } else if (randomPoint < 0.30) {
-      return new Dimension2D(260, 130);
+      return new Dimension2D(2, 1);
     } else {
-      return new Dimension2D(130, 130);
+      return new Dimension2D(1, 1);
     }
 
   }
 
+  /**
+   * Returns the size in pixels of the thumbnail displayed by a package bloc,
+   * taking the screen output scale into account.
+   *
+   * @param remotePackage - store product
+   * @return the thumbnail size
+   */
+  public static Dimension2D getThumbnailSize(RemotePackage remotePackage) {
+    Dimension2D span = getSpan(remotePackage);
+    double outputScale = Screen.getPrimary().getOutputScaleX();
+    return new Dimension2D(
+        Math.ceil(outputScale * (span.getWidth() * CELL_SIZE + (span.getWidth() - 1) * CELL_SPACING)),
+        Math.ceil(outputScale * (span.getHeight() * CELL_SIZE + (span.getHeight() - 1) * CELL_SPACING)));
+  }
+
   private Node createPluginStageFlag(RemotePackage remotePackage) {
 
     Polygon polygonFlag = new Polygon();
@@ -20,15 +20,17 @@ package com.owlplug.explore.ui;
 
 import com.owlplug.core.components.ApplicationDefaults;
 import com.owlplug.core.components.ImageCache;
+import com.owlplug.explore.components.ExploreImagePrefetcher;
 import com.owlplug.explore.controllers.ExploreController;
 import com.owlplug.explore.model.RemotePackage;
-import javafx.scene.image.Image;
+import javafx.geometry.Dimension2D;
 
 public class PackageBlocViewBuilder {
 
   private ApplicationDefaults applicationDefaults;
   private ImageCache imageCache;
   private ExploreController exploreController;
+  private ExploreImagePrefetcher imagePrefetcher;
 
   /**
    * Creates a new builder instance.
@@ -36,25 +38,48 @@ public class PackageBlocViewBuilder {
    * @param applicationDefaults - OwlPlug application defaults
    * @param imageCache          - OwlPlug image cache
    * @param exploreController     - parent store controller
+   * @param imagePrefetcher     - explore image prefetcher
    */
   public PackageBlocViewBuilder(ApplicationDefaults applicationDefaults, ImageCache imageCache,
-                                ExploreController exploreController) {
+                                ExploreController exploreController, ExploreImagePrefetcher imagePrefetcher) {
     super();
     this.applicationDefaults = applicationDefaults;
     this.imageCache = imageCache;
     this.exploreController = exploreController;
+    this.imagePrefetcher = imagePrefetcher;
   }
 
   /**
-   * Build a new {@link PackageBlocView} instance.
-   * 
-   * @param remotePackage - Related store product
-   * @return A {@link PackageBlocView} instance.
+   * Build a new {@link PackageGridCell} instance, displaying packages in a
+   * virtualized grid.
+   *
+   * @return A {@link PackageGridCell} instance.
    */
-  public PackageBlocView build(RemotePackage remotePackage) {
+  public PackageGridCell buildCell() {
+    return new PackageGridCell(new PackageBlocView(applicationDefaults, exploreController), this, exploreController);
+  }
 
-    Image image = imageCache.get(remotePackage.getScreenshotUrl());
-    return new PackageBlocView(applicationDefaults, remotePackage, image, exploreController);
+  /**
+   * Binds an existing {@link PackageBlocView} to a package.
+   *
+   * @param view          - view to bind
+   * @param remotePackage - Related store product, may be null
+   */
+  public void bind(PackageBlocView view, RemotePackage remotePackage) {
+    view.setPackage(remotePackage, null);
+    if (remotePackage != null) {
+      // Tiles only load a thumbnail matching their display size
+      Dimension2D size = PackageBlocView.getThumbnailSize(remotePackage);
+      imagePrefetcher.recordTileDisplay(remotePackage.getScreenshotUrl(), (int) size.getWidth(),
+          (int) size.getHeight());
+      imageCache.loadThumbnailAsync(remotePackage.getScreenshotUrl(), (int) size.getWidth(),
+          (int) size.getHeight(), image -> {
+            // The view may have been recycled for another package in the meantime
+            if (image != null && view.getPackage() == remotePackage) {
+              view.setImage(image);
+            }
+          });
+    }
   }
 
 }
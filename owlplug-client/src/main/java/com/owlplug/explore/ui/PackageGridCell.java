@@ -0,0 +1,66 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.explore.ui;
+
+import com.owlplug.controls.GridCell;
+import com.owlplug.controls.Rippler;
+import com.owlplug.explore.controllers.ExploreController;
+import com.owlplug.explore.model.RemotePackage;
+import javafx.scene.Node;
+import javafx.scene.input.MouseButton;
+
+/**
+ * Recyclable grid cell displaying a package bloc.
+ */
+public class PackageGridCell implements GridCell<RemotePackage> {
+
+  private PackageBlocView packageBlocView;
+  private PackageBlocViewBuilder builder;
+  private Rippler rippler;
+
+  /**
+   * Creates a new package grid cell.
+   *
+   * @param packageBlocView   - recycled package bloc view
+   * @param builder           - builder used to bind packages
+   * @param exploreController - parent store controller
+   */
+  public PackageGridCell(PackageBlocView packageBlocView, PackageBlocViewBuilder builder,
+                         ExploreController exploreController) {
+    this.packageBlocView = packageBlocView;
+    this.builder = builder;
+    this.rippler = new Rippler(packageBlocView);
+    rippler.setOnMouseClicked(e -> {
+      if (e.getButton().equals(MouseButton.PRIMARY) && packageBlocView.getPackage() != null) {
+        exploreController.selectPackage(packageBlocView.getPackage());
+      }
+    });
+  }
+
+  @Override
+  public Node getNode() {
+    return rippler;
+  }
+
+  @Override
+  public void updateItem(RemotePackage item) {
+    builder.bind(packageBlocView, item);
+  }
+
+}
@@ -29,10 +29,13 @@ import com.owlplug.project.dao.DawPluginDAO;
 import com.owlplug.project.services.PluginLookupService;
 import com.owlplug.project.tasks.PluginLookupTask;
 import com.owlplug.project.tasks.ProjectSyncTask;
+import com.owlplug.project.tasks.discovery.ProjectExplorerRegistry;
 import java.util.ArrayList;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Component
 public class ProjectTaskFactory extends BaseTaskFactory {
@@ -46,6 +49,8 @@ public class ProjectTaskFactory extends BaseTaskFactory {
   private DawProjectDAO projectDAO;
   @Autowired
   private DawPluginDAO dawPluginDAO;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
 
   private ArrayList<SimpleEventListener> syncProjectsListeners = new ArrayList<>();
 
@@ -53,7 +58,8 @@ public class ProjectTaskFactory extends BaseTaskFactory {
 
     List<String> directories = prefs.getList(ApplicationDefaults.PROJECT_DIRECTORY_KEY);
 
-    ProjectSyncTask task = new ProjectSyncTask(projectDAO, directories);
+    ProjectSyncTask task = new ProjectSyncTask(projectDAO, directories,
+        ProjectExplorerRegistry.createDefault(), new TransactionTemplate(transactionManager));
     task.setOnSucceeded(e -> {
       createLookupTask().scheduleNow();
       notifyListeners(syncProjectsListeners);
@@ -26,6 +26,8 @@ import com.owlplug.project.components.ProjectTaskFactory;
 import com.owlplug.project.model.DawProject;
 import com.owlplug.project.services.ProjectService;
 import com.owlplug.project.ui.ProjectTreeCell;
+import java.util.ArrayList;
+import java.util.List;
 import javafx.beans.binding.Bindings;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -119,11 +121,11 @@ public class ProjectsController extends BaseController {
 
   public void refresh() {
     Iterable<DawProject> projects = projectService.getAllProjects();
-    projectTreeNode.getInternalChildren().clear();
-
+    List<TreeItem<Object>> projectItems = new ArrayList<>();
     for (DawProject p : projects) {
-      projectTreeNode.getInternalChildren().add(new FilterableTreeItem<>(p));
+      projectItems.add(new FilterableTreeItem<>(p));
     }
+    projectTreeNode.getInternalChildren().setAll(projectItems);
 
     projectTreeNode.setExpanded(true);
 
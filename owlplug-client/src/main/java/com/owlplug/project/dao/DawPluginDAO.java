@@ -19,8 +19,18 @@
 package com.owlplug.project.dao;
 
 import com.owlplug.project.model.DawPlugin;
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 public interface DawPluginDAO extends CrudRepository<DawPlugin, Long> {
 
+  /**
+   * Returns project plugins which are not resolved yet.
+   * @return project plugins without lookup
+   */
+  @Query("SELECT p FROM DawPlugin p WHERE NOT EXISTS "
+      + "(SELECT l FROM DawPluginLookup l WHERE l.dawPlugin = p)")
+  public List<DawPlugin> findWithoutLookup();
+
 }
@@ -19,8 +19,77 @@
 package com.owlplug.project.dao;
 
 import com.owlplug.project.model.DawProject;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface DawProjectDAO extends CrudRepository<DawProject, Long> {
 
+  /**
+   * Returns source file fingerprints of all projects.
+   * @return project fingerprints
+   */
+  @Query("SELECT p.id AS id, p.path AS path, p.fileSize AS fileSize, p.fileModifiedTime AS fileModifiedTime, "
+      + "p.fileHash AS fileHash FROM DawProject p")
+  public List<ProjectFingerprint> findAllFingerprints();
+
+  /**
+   * Updates the source file fingerprint of a project whose content didn't change.
+   * @param id - project id
+   * @param fileSize - source file size
+   * @param fileModifiedTime - source file last modification time
+   * @param lastModifiedAt - project last modification date
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE DawProject p SET p.fileSize = ?2, p.fileModifiedTime = ?3, "
+      + "p.lastModifiedAt = ?4 WHERE p.id = ?1")
+  public void updateFingerprint(Long id, Long fileSize, Long fileModifiedTime, Date lastModifiedAt);
+
+  /**
+   * Deletes projects and their plugins in bulk. Associations are not cascaded
+   * by bulk queries, so rows are deleted from child tables first.
+   * @param ids - project ids
+   */
+  default void deleteAllInBulk(Collection<Long> ids) {
+    deleteLookupsByProjectIdIn(ids);
+    deletePluginsByProjectIdIn(ids);
+    deleteProjectsByIdIn(ids);
+  }
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM DawPluginLookup l WHERE l.dawPlugin.id IN "
+      + "(SELECT p.id FROM DawPlugin p WHERE p.project.id IN ?1)")
+  public void deleteLookupsByProjectIdIn(Collection<Long> ids);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM DawPlugin p WHERE p.project.id IN ?1")
+  public void deletePluginsByProjectIdIn(Collection<Long> ids);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM DawProject p WHERE p.id IN ?1")
+  public void deleteProjectsByIdIn(Collection<Long> ids);
+
+  /**
+   * Project source file fingerprint projection.
+   */
+  interface ProjectFingerprint {
+    Long getId();
+
+    String getPath();
+
+    Long getFileSize();
+
+    Long getFileModifiedTime();
+
+    String getFileHash();
+  }
+
 }
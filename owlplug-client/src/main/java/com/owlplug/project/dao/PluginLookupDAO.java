@@ -19,7 +19,16 @@
 package com.owlplug.project.dao;
 
 import com.owlplug.project.model.DawPluginLookup;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface PluginLookupDAO extends CrudRepository<DawPluginLookup, Long> {
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM DawPluginLookup")
+  public void deleteAllInBulk();
+
 }
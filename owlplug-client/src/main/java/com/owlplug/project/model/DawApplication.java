@@ -19,7 +19,8 @@
 package com.owlplug.project.model;
 
 public enum DawApplication {
-  ABLETON("Ableton");
+  ABLETON("Ableton"),
+  REAPER("Reaper");
   private String name;
 
   DawApplication(String name) {
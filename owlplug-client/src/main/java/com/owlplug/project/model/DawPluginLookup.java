@@ -45,6 +45,8 @@ public class DawPluginLookup {
 
   private LookupResult result;
 
+  private LookupStrategy strategy;
+
   public long getId() {
     return id;
   }
@@ -76,4 +78,12 @@ public class DawPluginLookup {
   public void setResult(LookupResult result) {
     this.result = result;
   }
+
+  public LookupStrategy getStrategy() {
+    return strategy;
+  }
+
+  public void setStrategy(LookupStrategy strategy) {
+    this.strategy = strategy;
+  }
 }
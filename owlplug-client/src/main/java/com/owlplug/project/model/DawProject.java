@@ -49,6 +49,11 @@ public class DawProject {
   private Date lastModifiedAt;
   private Date createdAt;
 
+  // Source file fingerprint, unchanged files are not analyzed again during syncs
+  private Long fileSize;
+  private Long fileModifiedTime;
+  private String fileHash;
+
   public Long getId() {
     return id;
   }
@@ -117,6 +122,30 @@ public class DawProject {
     this.createdAt = createdAt;
   }
 
+  public Long getFileSize() {
+    return fileSize;
+  }
+
+  public void setFileSize(Long fileSize) {
+    this.fileSize = fileSize;
+  }
+
+  public Long getFileModifiedTime() {
+    return fileModifiedTime;
+  }
+
+  public void setFileModifiedTime(Long fileModifiedTime) {
+    this.fileModifiedTime = fileModifiedTime;
+  }
+
+  public String getFileHash() {
+    return fileHash;
+  }
+
+  public void setFileHash(String fileHash) {
+    this.fileHash = fileHash;
+  }
+
   public List<DawPlugin> getPluginByLookupResult(LookupResult result) {
     return plugins.stream()
             .filter(p -> p.getLookup() != null && p.getLookup().getResult().equals(result))
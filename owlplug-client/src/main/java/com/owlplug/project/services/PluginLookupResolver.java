@@ -0,0 +1,193 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.project.services;
+
+import com.owlplug.core.model.Plugin;
+import com.owlplug.core.model.PluginComponent;
+import com.owlplug.core.model.PluginFormat;
+import com.owlplug.core.utils.CryptoUtils;
+import com.owlplug.project.model.DawPlugin;
+import com.owlplug.project.model.DawPluginLookup;
+import com.owlplug.project.model.LookupResult;
+import com.owlplug.project.model.LookupStrategy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Resolves project plugins against an in-memory index of the installed plugin catalog.
+ * The catalog is indexed once by format, unique identifier, name and component name so
+ * that resolving a project plugin doesn't require any database query. Resolutions are
+ * memoized as the same plugin is usually referenced by many projects.
+ *
+ * <p>Project plugins are matched in the following order:
+ * <ol>
+ *   <li>Plugin or component with the same unique identifier</li>
+ *   <li>Plugin with the same name, or a name containing the project plugin name</li>
+ *   <li>Plugin containing a component with the same name</li>
+ * </ol>
+ */
+public class PluginLookupResolver {
+
+  private final Map<PluginFormat, FormatIndex> indexes = new EnumMap<>(PluginFormat.class);
+  private final Map<String, Match> resolutions = new HashMap<>();
+  private final String catalogFingerprint;
+
+  /**
+   * Creates a resolver for the given plugin catalog.
+   *
+   * @param plugins installed plugins, with their components
+   */
+  public PluginLookupResolver(Iterable<Plugin> plugins) {
+    List<String> descriptions = new ArrayList<>();
+    for (Plugin plugin : plugins) {
+      descriptions.add(describe(plugin));
+      if (plugin.getFormat() == null) {
+        continue;
+      }
+      FormatIndex index = indexes.computeIfAbsent(plugin.getFormat(), k -> new FormatIndex());
+      index.plugins.add(plugin);
+      index.names.add(normalize(plugin.getName()));
+      index.byName.putIfAbsent(normalize(plugin.getName()), plugin);
+      putUid(index, plugin.getUid(), plugin);
+      for (PluginComponent component : plugin.getComponents()) {
+        putUid(index, component.getUid(), plugin);
+        index.byComponentName.putIfAbsent(normalize(component.getName()), plugin);
+      }
+    }
+    Collections.sort(descriptions);
+    catalogFingerprint = CryptoUtils.getSha256Digest(String.join("\n", descriptions).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Describes the plugin properties used to resolve lookups.
+   */
+  private static String describe(Plugin plugin) {
+    List<String> components = new ArrayList<>();
+    for (PluginComponent component : plugin.getComponents()) {
+      components.add(component.getName() + ":" + component.getUid());
+    }
+    Collections.sort(components);
+    return plugin.getId() + "|" + plugin.getFormat() + "|" + plugin.getName() + "|" + plugin.getUid()
+               + "|" + String.join(",", components);
+  }
+
+  /**
+   * Returns a fingerprint of the indexed catalog. Lookups resolved against catalogs with
+   * the same fingerprint are identical.
+   *
+   * @return catalog fingerprint
+   */
+  public String getCatalogFingerprint() {
+    return catalogFingerprint;
+  }
+
+  private static void putUid(FormatIndex index, String uid, Plugin plugin) {
+    String normalizedUid = normalizeUid(uid);
+    if (normalizedUid != null) {
+      index.byUid.putIfAbsent(normalizedUid, plugin);
+    }
+  }
+
+  /**
+   * Creates a lookup for the given project plugin.
+   *
+   * @param projectPlugin project plugin
+   * @return lookup bound to the project plugin
+   */
+  public DawPluginLookup resolve(DawPlugin projectPlugin) {
+
+    DawPluginLookup lookup = new DawPluginLookup();
+    lookup.setDawPlugin(projectPlugin);
+
+    String uid = normalizeUid(projectPlugin.getUid());
+    String name = normalize(projectPlugin.getName());
+    String key = projectPlugin.getFormat() + "|" + uid + "|" + name;
+    Match match = resolutions.computeIfAbsent(key, k -> match(projectPlugin.getFormat(), uid, name));
+
+    if (match.plugin() != null) {
+      lookup.setPlugin(match.plugin());
+      lookup.setResult(LookupResult.FOUND);
+      lookup.setStrategy(match.strategy());
+    } else {
+      lookup.setResult(LookupResult.MISSING);
+    }
+    return lookup;
+  }
+
+  private Match match(PluginFormat format, String uid, String name) {
+    FormatIndex index = indexes.get(format);
+    if (index == null) {
+      return new Match(null, null);
+    }
+
+    if (uid != null && index.byUid.containsKey(uid)) {
+      return new Match(index.byUid.get(uid), LookupStrategy.UID);
+    }
+
+    if (name != null && !name.isEmpty()) {
+      Plugin plugin = index.byName.get(name);
+      if (plugin != null) {
+        return new Match(plugin, LookupStrategy.NAME);
+      }
+      // Fallback on plugins containing the project plugin name
+      for (int i = 0; i < index.names.size(); i++) {
+        if (index.names.get(i).contains(name)) {
+          return new Match(index.plugins.get(i), LookupStrategy.NAME);
+        }
+      }
+
+      plugin = index.byComponentName.get(name);
+      if (plugin != null) {
+        return new Match(plugin, LookupStrategy.COMPONENT);
+      }
+    }
+
+    return new Match(null, null);
+
+  }
+
+  private static String normalize(String name) {
+    return Objects.requireNonNullElse(name, "").toLowerCase();
+  }
+
+  private static String normalizeUid(String uid) {
+    if (uid == null || uid.isBlank() || uid.trim().equals("0")) {
+      return null;
+    }
+    return uid.trim().toLowerCase();
+  }
+
+  private static class FormatIndex {
+    private final List<Plugin> plugins = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Plugin> byName = new HashMap<>();
+    private final Map<String, Plugin> byUid = new HashMap<>();
+    private final Map<String, Plugin> byComponentName = new HashMap<>();
+  }
+
+  private record Match(Plugin plugin, LookupStrategy strategy) {
+  }
+
+}
@@ -18,14 +18,12 @@
 
 package com.owlplug.project.services;
 
-import com.owlplug.core.model.Plugin;
+import com.owlplug.core.components.ApplicationDefaults;
+import com.owlplug.core.dao.PluginDAO;
 import com.owlplug.core.services.BaseService;
-import com.owlplug.core.services.PluginService;
 import com.owlplug.project.dao.PluginLookupDAO;
-import com.owlplug.project.dao.DawPluginDAO;
-import com.owlplug.project.model.LookupResult;
 import com.owlplug.project.model.DawPluginLookup;
-import com.owlplug.project.model.DawPlugin;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -33,47 +31,52 @@ import org.springframework.stereotype.Component;
 public class PluginLookupService extends BaseService {
 
   @Autowired
-  private PluginService pluginService;
+  private PluginDAO pluginDAO;
   @Autowired
   private PluginLookupDAO pluginLookupDAO;
-  @Autowired
-  private DawPluginDAO dawPluginDAO;
-
-  public void createLookup(DawPlugin projectPlugin) {
-
-    projectPlugin.setLookup(lookup(projectPlugin));
-    dawPluginDAO.save(projectPlugin);
 
+  /**
+   * Creates a lookup resolver indexing the current plugin catalog.
+   * The catalog is loaded with a single query.
+   *
+   * @return the lookup resolver
+   */
+  public PluginLookupResolver createResolver() {
+    return new PluginLookupResolver(pluginDAO.findAllWithComponents());
   }
 
-  public DawPluginLookup lookup(DawPlugin projectPlugin) {
-
-    DawPluginLookup lookup = new DawPluginLookup();
-    lookup.setDawPlugin(projectPlugin);
-    lookup.setResult(LookupResult.MISSING);
-
-    Iterable<Plugin> plugins = pluginService.find(projectPlugin.getName(), projectPlugin.getFormat());
-
-    if (plugins.iterator().hasNext()) {
-      lookup.setPlugin(plugins.iterator().next());
-      lookup.setResult(LookupResult.FOUND);
-    } else {
-      // Resolve the Plugin file (based on known subcomponents)
-      plugins = pluginService.findByComponentName(projectPlugin.getName(), projectPlugin.getFormat());
-
-      if (plugins.iterator().hasNext()) {
-        lookup.setPlugin(plugins.iterator().next());
-        lookup.setResult(LookupResult.FOUND);
-      }
-
-    }
+  /**
+   * Persists a batch of lookups in a single transaction.
+   *
+   * @param lookups lookups to save
+   */
+  public void saveLookups(List<DawPluginLookup> lookups) {
+    pluginLookupDAO.saveAll(lookups);
+  }
 
-    return lookup;
+  /**
+   * Checks if the plugin catalog indexed by the resolver is the one existing lookups
+   * were resolved against.
+   *
+   * @param resolver lookup resolver
+   * @return true if existing lookups are still valid
+   */
+  public boolean isCatalogUnchanged(PluginLookupResolver resolver) {
+    return resolver.getCatalogFingerprint()
+        .equals(getPreferences().get(ApplicationDefaults.PROJECT_LOOKUP_CATALOG_KEY, ""));
+  }
 
+  /**
+   * Records the catalog existing lookups are resolved against.
+   *
+   * @param resolver lookup resolver
+   */
+  public void saveCatalogFingerprint(PluginLookupResolver resolver) {
+    getPreferences().put(ApplicationDefaults.PROJECT_LOOKUP_CATALOG_KEY, resolver.getCatalogFingerprint());
   }
 
   public void deleteAllLookups() {
-    pluginLookupDAO.deleteAll();
+    pluginLookupDAO.deleteAllInBulk();
   }
 
 }
@@ -20,14 +20,24 @@ package com.owlplug.project.tasks;
 
 import com.google.common.collect.Iterables;
 import com.owlplug.core.tasks.AbstractTask;
+import com.owlplug.core.tasks.TaskResource;
 import com.owlplug.core.tasks.TaskResult;
 import com.owlplug.project.dao.DawPluginDAO;
 import com.owlplug.project.model.DawPlugin;
+import com.owlplug.project.model.DawPluginLookup;
+import com.owlplug.project.services.PluginLookupResolver;
 import com.owlplug.project.services.PluginLookupService;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PluginLookupTask extends AbstractTask {
 
+  /**
+   * Number of lookups saved in a single batch.
+   */
+  private static final int LOOKUP_BATCH_SIZE = 200;
+
   private PluginLookupService pluginLookupService;
   private DawPluginDAO dawPluginDAO;
 
@@ -35,6 +45,8 @@ public class PluginLookupTask extends AbstractTask {
     this.dawPluginDAO = dawPluginDAO;
     this.pluginLookupService = pluginLookupService;
     setName("Lookup DAW Plugins");
+    addResource(TaskResource.PROJECTS);
+    addResource(TaskResource.PLUGINS);
   }
 
 
@@ -44,23 +56,47 @@ public class PluginLookupTask extends AbstractTask {
     this.updateMessage("Starting project plugins lookup task");
     this.updateProgress(0,1);
 
-    pluginLookupService.deleteAllLookups();
-    Iterable<DawPlugin> plugins = dawPluginDAO.findAll();
+    // Installed plugins are loaded and indexed once for all project plugins
+    PluginLookupResolver resolver = pluginLookupService.createResolver();
+
+    // Existing lookups are kept if installed plugins didn't change since they were resolved,
+    // only plugins from new or modified projects are resolved
+    Iterable<DawPlugin> plugins;
+    if (pluginLookupService.isCatalogUnchanged(resolver)) {
+      plugins = dawPluginDAO.findWithoutLookup();
+    } else {
+      pluginLookupService.deleteAllLookups();
+      plugins = dawPluginDAO.findAll();
+    }
 
     this.setMaxProgress(Iterables.size(plugins));
+    List<DawPluginLookup> batch = new ArrayList<>();
     for (DawPlugin plugin : plugins) {
-      pluginLookupService.createLookup(plugin);
-      this.commitProgress(1);
-      this.updateMessage("Resolving plugin references from projects ("
-                             + new DecimalFormat("#").format(getCommittedProgress())
-                             + "/"
-                             + new DecimalFormat("#").format(getMaxProgress())
-                             + ")");
+      batch.add(resolver.resolve(plugin));
+      if (batch.size() >= LOOKUP_BATCH_SIZE) {
+        saveBatch(batch);
+      }
     }
+    saveBatch(batch);
+    pluginLookupService.saveCatalogFingerprint(resolver);
 
     this.updateMessage("All projects and plugins are up-to-date");
     this.updateProgress(1,1);
 
     return success();
   }
+
+  private void saveBatch(List<DawPluginLookup> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    pluginLookupService.saveLookups(batch);
+    this.commitProgress(batch.size());
+    this.updateMessage("Resolving plugin references from projects ("
+                           + new DecimalFormat("#").format(getCommittedProgress())
+                           + "/"
+                           + new DecimalFormat("#").format(getMaxProgress())
+                           + ")");
+    batch.clear();
+  }
 }
@@ -19,29 +19,69 @@
 package com.owlplug.project.tasks;
 
 import com.owlplug.core.tasks.AbstractTask;
+import com.owlplug.core.tasks.TaskException;
+import com.owlplug.core.tasks.TaskResource;
 import com.owlplug.core.tasks.TaskResult;
+import com.owlplug.core.utils.CryptoUtils;
 import com.owlplug.core.utils.FileUtils;
 import com.owlplug.project.dao.DawProjectDAO;
+import com.owlplug.project.dao.DawProjectDAO.ProjectFingerprint;
 import com.owlplug.project.model.DawProject;
-import com.owlplug.project.tasks.discovery.ableton.AbletonProjectExplorer;
+import com.owlplug.project.tasks.discovery.ProjectExplorer;
+import com.owlplug.project.tasks.discovery.ProjectExplorerException;
+import com.owlplug.project.tasks.discovery.ProjectExplorerRegistry;
 import java.io.File;
+import java.io.IOException;
+import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
 
 public class ProjectSyncTask extends AbstractTask {
 
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+  /**
+   * Maximum number of project files analyzed concurrently.
+   */
+  private static final int MAX_CONCURRENT_ANALYSIS = 8;
+
+  /**
+   * Number of analyzed projects saved in a single batch.
+   */
+  private static final int PROJECT_BATCH_SIZE = 50;
+
   private DawProjectDAO projectDAO;
   private List<String> projectDirectories;
+  private ProjectExplorerRegistry explorerRegistry;
+  private TransactionTemplate transactionTemplate;
 
   public ProjectSyncTask(DawProjectDAO projectDAO,
-                         List<String> projectDirectories) {
+                         List<String> projectDirectories,
+                         ProjectExplorerRegistry explorerRegistry,
+                         TransactionTemplate transactionTemplate) {
     this.projectDAO = projectDAO;
     this.projectDirectories = projectDirectories;
+    this.explorerRegistry = explorerRegistry;
+    this.transactionTemplate = transactionTemplate;
     setName("Sync DAW projects");
+    addResource(TaskResource.PROJECTS);
   }
 
 
@@ -51,34 +91,215 @@ public class ProjectSyncTask extends AbstractTask {
     log.debug("Starting project sync task");
     this.updateProgress(0,1);
 
-    projectDAO.deleteAll();
-
+    Map<String, ProjectFingerprint> knownProjects = new HashMap<>();
+    for (ProjectFingerprint fingerprint : projectDAO.findAllFingerprints()) {
+      knownProjects.put(fingerprint.getPath(), fingerprint);
+    }
 
-    List<File> baseFiles = new ArrayList<>();
+    List<ProjectFile> projectFiles = new ArrayList<>();
+    Set<String> visitedPaths = new HashSet<>();
+    int unchangedProjects = 0;
+    // Files of all project formats are dispatched to their explorer in a single listing
     for (String directory : projectDirectories) {
       File dir = new File(directory);
       this.updateMessage("Syncing projects from: " + dir.getAbsolutePath());
       if (dir.isDirectory()) {
-        baseFiles.addAll(FileUtils.listUniqueFilesAndDirs(dir));
+        for (File file : FileUtils.listUniqueFilesAndDirs(dir)) {
+          ProjectExplorer explorer = explorerRegistry.find(file);
+          if (explorer == null) {
+            continue;
+          }
+          String path = FileUtils.convertPath(file.getAbsolutePath());
+          // Files from overlapping project directories are only analyzed once
+          if (visitedPaths.add(path)) {
+            ProjectFingerprint fingerprint = knownProjects.remove(path);
+            if (isUnchanged(fingerprint, file)) {
+              unchangedProjects++;
+            } else {
+              projectFiles.add(new ProjectFile(file, explorer, fingerprint));
+            }
+          }
+        }
       }
     }
 
-    this.setMaxProgress(baseFiles.size());
+    // Remaining known projects don't exist anymore
+    if (!knownProjects.isEmpty()) {
+      this.updateMessage("Removing " + knownProjects.size() + " deleted project(s)");
+      List<Long> deletedProjectIds = knownProjects.values().stream().map(ProjectFingerprint::getId).toList();
+      transactionTemplate.executeWithoutResult(status -> projectDAO.deleteAllInBulk(deletedProjectIds));
+    }
+    log.debug("{} unchanged project(s), {} project(s) to analyze, {} deleted project(s)",
+        unchangedProjects, projectFiles.size(), knownProjects.size());
+
+    this.setMaxProgress(projectFiles.size());
+    analyzeProjects(projectFiles);
 
-    for (File file : baseFiles) {
-      this.commitProgress(1);
-      AbletonProjectExplorer explorer = new AbletonProjectExplorer();
+    this.updateProgress(1,1);
+    if (this.getWarnings().isEmpty()) {
+      this.updateMessage("All projects are synchronized");
+    } else {
+      this.updateMessage("Projects synchronized. " + this.getWarnings().size()
+                             + " project(s) could not be analyzed");
+    }
+
+    return success();
+  }
 
-      if (explorer.canExploreFile(file)) {
-        this.updateMessage("Analyzing file: " + file.getAbsolutePath());
-        DawProject project = explorer.explore(file);
-        projectDAO.save(project);
+  private boolean isUnchanged(ProjectFingerprint fingerprint, File file) {
+    return fingerprint != null
+        && Objects.equals(fingerprint.getFileSize(), file.length())
+        && Objects.equals(fingerprint.getFileModifiedTime(), file.lastModified());
+  }
+
+  /**
+   * Analyzes project files on a bounded pool of workers. The number of files submitted
+   * at once is limited so parsed projects don't pile up in memory, and analyzed projects
+   * are persisted in batches by the task thread only.
+   *
+   * @param projectFiles project files to analyze
+   */
+  private void analyzeProjects(List<ProjectFile> projectFiles) throws TaskException {
+
+    int threads = Math.max(1, Math.min(MAX_CONCURRENT_ANALYSIS, Runtime.getRuntime().availableProcessors()));
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "project-sync-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    CompletionService<ProjectAnalysis> completionService = new ExecutorCompletionService<>(executor);
+    Map<Future<ProjectAnalysis>, File> pendingFiles = new HashMap<>();
+    ProjectBatch batch = new ProjectBatch();
+
+    try {
+      Iterator<ProjectFile> fileIterator = projectFiles.iterator();
+      while (fileIterator.hasNext() || !pendingFiles.isEmpty()) {
+        // Keeps at most two files per worker in flight
+        while (fileIterator.hasNext() && pendingFiles.size() < threads * 2) {
+          ProjectFile projectFile = fileIterator.next();
+          pendingFiles.put(completionService.submit(() -> analyze(projectFile)), projectFile.file());
+        }
+
+        Future<ProjectAnalysis> future = completionService.take();
+        File file = pendingFiles.remove(future);
+        try {
+          ProjectAnalysis analysis = future.get();
+          if (analysis.unchanged()) {
+            batch.addUnchanged(analysis.previous(), file);
+          } else if (analysis.project() != null) {
+            batch.add(analysis);
+          } else {
+            log.warn("Project file {} can't be explored", file.getAbsolutePath());
+            this.getWarnings().add(file.getAbsolutePath());
+          }
+        } catch (ExecutionException e) {
+          log.warn("Project file {} can't be analyzed", file.getAbsolutePath(), e.getCause());
+          this.getWarnings().add(file.getAbsolutePath());
+        }
+
+        if (batch.size() >= PROJECT_BATCH_SIZE) {
+          batch.save();
+        }
+        this.commitProgress(1);
+        this.updateMessage("Analyzing projects ("
+                               + new DecimalFormat("#").format(getCommittedProgress())
+                               + "/"
+                               + new DecimalFormat("#").format(getMaxProgress())
+                               + "): " + file.getName());
       }
+      batch.save();
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TaskException("Project synchronization interrupted", e);
+    } finally {
+      executor.shutdownNow();
     }
+  }
 
-    this.updateMessage("All projects are synchronized");
-    this.updateProgress(1,1);
+  /**
+   * Analyzes a new or modified project file. If the file content hash is the same as the
+   * one of the known project, the file is not parsed.
+   */
+  private ProjectAnalysis analyze(ProjectFile projectFile) throws ProjectExplorerException, IOException {
+    File file = projectFile.file();
+    ProjectFingerprint previous = projectFile.previous();
+    String hash = CryptoUtils.getFileSha256Digest(file);
+    if (previous != null && hash.equals(previous.getFileHash())) {
+      return new ProjectAnalysis(previous, null, true);
+    }
 
-    return success();
+    DawProject project = projectFile.explorer().explore(file);
+    if (project != null) {
+      project.setFileSize(file.length());
+      project.setFileModifiedTime(file.lastModified());
+      project.setFileHash(hash);
+    }
+    return new ProjectAnalysis(previous, project, false);
+  }
+
+  private record ProjectFile(File file, ProjectExplorer explorer, ProjectFingerprint previous) {
+  }
+
+  /**
+   * Result of a project file analysis. The project is null if the file content is unchanged,
+   * or if the explorer couldn't extract a project from the file.
+   */
+  private record ProjectAnalysis(ProjectFingerprint previous, DawProject project, boolean unchanged) {
+  }
+
+  /**
+   * File metadata of a project whose content is unchanged.
+   */
+  private record ProjectFileMetadata(Long projectId, long fileSize, long fileModifiedTime) {
+  }
+
+  /**
+   * Analyzed projects waiting to be persisted. Previous versions of modified projects
+   * are removed, and file metadata of unchanged projects updated, in the same transaction.
+   */
+  private class ProjectBatch {
+
+    private final List<DawProject> projects = new ArrayList<>();
+    private final List<Long> replacedProjectIds = new ArrayList<>();
+    private final List<ProjectFileMetadata> unchangedProjects = new ArrayList<>();
+
+    void add(ProjectAnalysis analysis) {
+      projects.add(analysis.project());
+      if (analysis.previous() != null) {
+        replacedProjectIds.add(analysis.previous().getId());
+      }
+    }
+
+    /**
+     * Content of the project file is unchanged, only the file metadata is updated.
+     */
+    void addUnchanged(ProjectFingerprint previous, File file) {
+      unchangedProjects.add(new ProjectFileMetadata(previous.getId(), file.length(), file.lastModified()));
+    }
+
+    int size() {
+      return projects.size() + unchangedProjects.size();
+    }
+
+    void save() {
+      if (size() == 0) {
+        return;
+      }
+      transactionTemplate.executeWithoutResult(status -> {
+        for (ProjectFileMetadata metadata : unchangedProjects) {
+          projectDAO.updateFingerprint(metadata.projectId(), metadata.fileSize(), metadata.fileModifiedTime(),
+              new Date(metadata.fileModifiedTime()));
+        }
+        if (!replacedProjectIds.isEmpty()) {
+          projectDAO.deleteAllInBulk(replacedProjectIds);
+        }
+        projectDAO.saveAll(projects);
+      });
+      unchangedProjects.clear();
+      replacedProjectIds.clear();
+      projects.clear();
+    }
   }
 }
@@ -0,0 +1,70 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.project.tasks.discovery;
+
+import com.owlplug.project.model.DawApplication;
+import com.owlplug.project.model.DawProject;
+import java.io.File;
+import java.util.Set;
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Explores project files of a DAW application. Explorers are registered in a
+ * {@link ProjectExplorerRegistry} which routes each discovered file to the explorer
+ * able to read it.
+ */
+public interface ProjectExplorer {
+
+  /**
+   * Returns the application of explored projects.
+   * @return DAW application
+   */
+  DawApplication getApplication();
+
+  /**
+   * Returns lower case extensions of project files, without leading dot.
+   * @return project file extensions
+   */
+  Set<String> getFileExtensions();
+
+  /**
+   * Checks the first bytes of a project file. Files with a matching extension are
+   * only explored if their header is accepted.
+   * @param header - first bytes of the file, shorter than {@link ProjectExplorerRegistry#HEADER_SIZE}
+   *               if the file is smaller
+   * @return true if the file can be explored
+   */
+  default boolean acceptsHeader(byte[] header) {
+    return true;
+  }
+
+  default boolean canExploreFile(File file) {
+    return file.isFile()
+        && getFileExtensions().contains(FilenameUtils.getExtension(file.getName()).toLowerCase());
+  }
+
+  /**
+   * Reads a project file.
+   * @param file - project file
+   * @return the explored project, or null if the file can't be explored
+   * @throws ProjectExplorerException if the file can't be read or parsed
+   */
+  DawProject explore(File file) throws ProjectExplorerException;
+
+}
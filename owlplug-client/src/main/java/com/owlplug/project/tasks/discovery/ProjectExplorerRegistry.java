@@ -0,0 +1,100 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.project.tasks.discovery;
+
+import com.owlplug.project.tasks.discovery.ableton.AbletonProjectExplorer;
+import com.owlplug.project.tasks.discovery.reaper.ReaperProjectExplorer;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Routes project files to registered explorers. Files are dispatched by extension, then
+ * their headers are checked so only files in the expected format are explored. A single
+ * directory listing serves all project formats.
+ */
+public class ProjectExplorerRegistry {
+
+  /**
+   * Number of bytes read from files to check their headers.
+   */
+  public static final int HEADER_SIZE = 64;
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+  private final Map<String, List<ProjectExplorer>> explorersByExtension = new HashMap<>();
+
+  /**
+   * Creates a registry with all built-in explorers.
+   * @return the project explorer registry
+   */
+  public static ProjectExplorerRegistry createDefault() {
+    ProjectExplorerRegistry registry = new ProjectExplorerRegistry();
+    registry.register(new AbletonProjectExplorer());
+    registry.register(new ReaperProjectExplorer());
+    return registry;
+  }
+
+  public void register(ProjectExplorer explorer) {
+    for (String extension : explorer.getFileExtensions()) {
+      explorersByExtension.computeIfAbsent(extension, k -> new ArrayList<>()).add(explorer);
+    }
+  }
+
+  /**
+   * Returns the explorer handling the given file.
+   * @param file - file to explore
+   * @return the matching explorer, or null if the file is not a known project file
+   */
+  public ProjectExplorer find(File file) {
+    List<ProjectExplorer> candidates = explorersByExtension.get(
+        FilenameUtils.getExtension(file.getName()).toLowerCase());
+    if (candidates == null || !file.isFile()) {
+      return null;
+    }
+    byte[] header = readHeader(file);
+    if (header == null) {
+      return null;
+    }
+    for (ProjectExplorer explorer : candidates) {
+      if (explorer.acceptsHeader(header)) {
+        return explorer;
+      }
+    }
+    return null;
+  }
+
+  private byte[] readHeader(File file) {
+    try (InputStream inputStream = new FileInputStream(file)) {
+      return inputStream.readNBytes(HEADER_SIZE);
+    } catch (IOException e) {
+      log.warn("Header of file {} can't be read", file.getAbsolutePath(), e);
+      return null;
+    }
+  }
+
+}
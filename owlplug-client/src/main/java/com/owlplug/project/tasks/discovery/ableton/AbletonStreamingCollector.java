@@ -0,0 +1,198 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.project.tasks.discovery.ableton;
+
+import com.owlplug.core.model.PluginFormat;
+import com.owlplug.project.model.DawPlugin;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Collects Ableton project metadata and plugins in a single streaming pass. Only the
+ * current element path is kept in memory, so large Live sets can be read without
+ * building a DOM. The collected plugins are the same as the ones returned by
+ * {@link AbletonSchema5PluginCollector}, in the same order.
+ */
+public class AbletonStreamingCollector {
+
+  private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+  private String creator;
+  private String majorVersion;
+  private final List<DawPlugin> vstPlugins = new ArrayList<>();
+  private final List<DawPlugin> vst3Plugins = new ArrayList<>();
+  private final List<DawPlugin> auPlugins = new ArrayList<>();
+
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
+  /**
+   * Reads an uncompressed Ableton project document.
+   *
+   * @param inputStream project document stream
+   * @throws XMLStreamException if the document is malformed or is not an Ableton project
+   */
+  public void collect(InputStream inputStream) throws XMLStreamException {
+
+    XMLStreamReader reader;
+    synchronized (INPUT_FACTORY) {
+      reader = INPUT_FACTORY.createXMLStreamReader(inputStream);
+    }
+
+    // Names of elements from the document root to the current element
+    Deque<String> path = new ArrayDeque<>();
+    Deque<PluginElement> openPlugins = new ArrayDeque<>();
+
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          String name = reader.getLocalName();
+
+          if (path.isEmpty()) {
+            if (!"Ableton".equals(name)) {
+              throw new XMLStreamException("Unexpected root element " + name, reader.getLocation());
+            }
+            creator = reader.getAttributeValue(null, "Creator");
+            majorVersion = reader.getAttributeValue(null, "MajorVersion");
+          }
+
+          PluginElement current = openPlugins.peek();
+          if (current != null && current.depth == path.size()) {
+            current.readProperty(name, reader.getAttributeValue(null, "Value"));
+          }
+
+          PluginFormat format = getPluginFormat(name, path);
+          path.push(name);
+          if (format != null) {
+            openPlugins.push(new PluginElement(format, path.size()));
+          }
+
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          PluginElement current = openPlugins.peek();
+          if (current != null && current.depth == path.size()) {
+            openPlugins.pop();
+            addPlugin(current.plugin);
+          }
+          path.pop();
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Returns the plugin format described by an element, or null if the element is not a
+   * plugin description. Plugin descriptions are only considered in devices:
+   * PluginDevice/PluginDesc/VstPluginInfo, PluginDevice/PluginDesc/Vst3PluginInfo and
+   * AuPluginDevice/PluginDesc/AuPluginInfo.
+   */
+  private static PluginFormat getPluginFormat(String name, Deque<String> path) {
+    if (path.size() < 2 || !"PluginDesc".equals(path.peek())) {
+      return null;
+    }
+    String device = path.stream().skip(1).findFirst().orElse(null);
+    if ("VstPluginInfo".equals(name) && "PluginDevice".equals(device)) {
+      return PluginFormat.VST2;
+    } else if ("Vst3PluginInfo".equals(name) && "PluginDevice".equals(device)) {
+      return PluginFormat.VST3;
+    } else if ("AuPluginInfo".equals(name) && "AuPluginDevice".equals(device)) {
+      return PluginFormat.AU;
+    }
+    return null;
+  }
+
+  private void addPlugin(DawPlugin plugin) {
+    switch (plugin.getFormat()) {
+      case VST2 -> vstPlugins.add(plugin);
+      case VST3 -> vst3Plugins.add(plugin);
+      default -> auPlugins.add(plugin);
+    }
+  }
+
+  public String getCreator() {
+    return creator;
+  }
+
+  public String getMajorVersion() {
+    return majorVersion;
+  }
+
+  /**
+   * Returns collected plugins. VST2 plugins come first, followed by VST3 and AU plugins.
+   *
+   * @return collected plugins
+   */
+  public List<DawPlugin> getPlugins() {
+    List<DawPlugin> plugins = new ArrayList<>(vstPlugins.size() + vst3Plugins.size() + auPlugins.size());
+    plugins.addAll(vstPlugins);
+    plugins.addAll(vst3Plugins);
+    plugins.addAll(auPlugins);
+    return plugins;
+  }
+
+  /**
+   * Plugin description being read. Only the first occurrence of each direct child
+   * property is read.
+   */
+  private static class PluginElement {
+
+    private final DawPlugin plugin = new DawPlugin();
+    private final int depth;
+    private boolean fileNameRead;
+    private boolean nameRead;
+    private boolean uidRead;
+
+    PluginElement(PluginFormat format, int depth) {
+      this.plugin.setFormat(format);
+      this.depth = depth;
+    }
+
+    void readProperty(String name, String value) {
+      if (plugin.getFormat() == PluginFormat.VST2) {
+        if ("FileName".equals(name) && !fileNameRead) {
+          plugin.setFileName(value);
+          fileNameRead = true;
+        } else if ("PlugName".equals(name) && !nameRead) {
+          plugin.setName(value);
+          nameRead = true;
+        } else if ("UniqueId".equals(name) && !uidRead) {
+          plugin.setUid(value);
+          uidRead = true;
+        }
+      } else if ("Name".equals(name) && !nameRead) {
+        plugin.setName(value);
+        nameRead = true;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,218 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.project.tasks.discovery.reaper;
+
+import com.owlplug.core.model.PluginFormat;
+import com.owlplug.core.utils.FileUtils;
+import com.owlplug.project.model.DawApplication;
+import com.owlplug.project.model.DawPlugin;
+import com.owlplug.project.model.DawProject;
+import com.owlplug.project.tasks.discovery.ProjectExplorer;
+import com.owlplug.project.tasks.discovery.ProjectExplorerException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Explores Reaper projects. Project files are plain text chunks which can be very large
+ * due to embedded plugin states, so they are read line by line and only plugin chunk
+ * headers (&lt;VST, &lt;AU, &lt;LV2) are parsed.
+ */
+public class ReaperProjectExplorer implements ProjectExplorer {
+
+  private static final String PROJECT_HEADER = "<REAPER_PROJECT";
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+  @Override
+  public DawApplication getApplication() {
+    return DawApplication.REAPER;
+  }
+
+  @Override
+  public Set<String> getFileExtensions() {
+    return Set.of("rpp");
+  }
+
+  @Override
+  public boolean acceptsHeader(byte[] header) {
+    return isProjectHeader(new String(header, StandardCharsets.UTF_8));
+  }
+
+  private static boolean isProjectHeader(String line) {
+    // Leading byte order mark is ignored
+    return line.replace("\uFEFF", "").stripLeading().startsWith(PROJECT_HEADER);
+  }
+
+  @Override
+  public DawProject explore(File file) throws ProjectExplorerException {
+
+    if (!canExploreFile(file)) {
+      return null;
+    }
+
+    log.debug("Starting exploring file {}", file.getAbsoluteFile());
+
+    // Malformed characters from plugin or track names are replaced instead of failing the whole file
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+
+      String header = reader.readLine();
+      if (header == null || !isProjectHeader(header)) {
+        throw new ProjectExplorerException("File is not a Reaper project: " + file.getAbsolutePath(), null);
+      }
+
+      DawProject project = new DawProject();
+      project.setApplication(DawApplication.REAPER);
+      project.setPath(FileUtils.convertPath(file.getAbsolutePath()));
+      project.setName(FilenameUtils.removeExtension(file.getName()));
+      // <REAPER_PROJECT 0.1 "6.80/win64" 1681234567
+      List<String> headerTokens = tokenize(header.replace("\uFEFF", "").strip());
+      if (headerTokens.size() > 1) {
+        project.setFormatVersion(headerTokens.get(1));
+      }
+      if (headerTokens.size() > 2) {
+        project.setAppFullName("Reaper " + headerTokens.get(2));
+      }
+
+      project.setLastModifiedAt(new Date(file.lastModified()));
+      BasicFileAttributes attr = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+      project.setCreatedAt(Date.from(attr.creationTime().toInstant()));
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        DawPlugin plugin = readPluginChunk(line);
+        if (plugin != null) {
+          plugin.setProject(project);
+          project.getPlugins().add(plugin);
+        }
+      }
+
+      return project;
+
+    } catch (FileNotFoundException e) {
+      throw new ProjectExplorerException("Project file not found: " + file.getAbsolutePath(), e);
+    } catch (IOException e) {
+      throw new ProjectExplorerException("Error while reading file " + file.getAbsolutePath(), e);
+    }
+  }
+
+  /**
+   * Reads a plugin from a chunk header line, like
+   * &lt;VST "VSTi: Serum (Xfer Records)" Serum_x64.dll 0 "" 1483109208&lt;56535458...&gt; "".
+   *
+   * @param line - project file line
+   * @return the plugin, or null if the line is not a plugin chunk header
+   */
+  public static DawPlugin readPluginChunk(String line) {
+    String chunk = line.stripLeading();
+    if (!(chunk.startsWith("<VST ") || chunk.startsWith("<AU ") || chunk.startsWith("<LV2 "))) {
+      return null;
+    }
+
+    List<String> tokens = tokenize(chunk);
+    if (tokens.size() < 2) {
+      return null;
+    }
+
+    // Display names are prefixed by the format, like "VST3i: " or "AU: "
+    String displayName = tokens.get(1);
+    int prefixEnd = displayName.indexOf(": ");
+    String prefix = prefixEnd > 0 ? displayName.substring(0, prefixEnd) : "";
+    String name = prefixEnd > 0 ? displayName.substring(prefixEnd + 2) : displayName;
+
+    // Vendor name is appended between parenthesis
+    if (name.endsWith(")") && name.lastIndexOf(" (") > 0) {
+      name = name.substring(0, name.lastIndexOf(" ("));
+    }
+
+    DawPlugin plugin = new DawPlugin();
+    plugin.setName(name);
+
+    if (tokens.get(0).equals("<VST")) {
+      if (prefix.startsWith("VST3")) {
+        plugin.setFormat(PluginFormat.VST3);
+      } else {
+        plugin.setFormat(PluginFormat.VST2);
+        // VST2 unique id is followed by the plugin chunk id, like 1483109208<5653545872...>
+        if (tokens.size() > 5) {
+          String uid = tokens.get(5);
+          int separator = uid.indexOf('<');
+          uid = separator >= 0 ? uid.substring(0, separator) : uid;
+          if (!uid.isEmpty() && uid.chars().allMatch(Character::isDigit)) {
+            plugin.setUid(uid);
+          }
+        }
+      }
+      if (tokens.size() > 2) {
+        plugin.setFileName(tokens.get(2));
+      }
+    } else if (tokens.get(0).equals("<AU")) {
+      plugin.setFormat(PluginFormat.AU);
+    } else {
+      plugin.setFormat(PluginFormat.LV2);
+    }
+
+    return plugin;
+  }
+
+  /**
+   * Splits a chunk line in tokens. Tokens containing spaces are quoted with ", ' or `.
+   */
+  static List<String> tokenize(String line) {
+    List<String> tokens = new ArrayList<>();
+    int i = 0;
+    int length = line.length();
+    while (i < length) {
+      char c = line.charAt(i);
+      if (c == ' ' || c == '\t') {
+        i++;
+      } else if (c == '"' || c == '\'' || c == '`') {
+        int end = line.indexOf(c, i + 1);
+        if (end < 0) {
+          end = length;
+        }
+        tokens.add(line.substring(i + 1, end));
+        i = end + 1;
+      } else {
+        int end = i;
+        while (end < length && line.charAt(end) != ' ' && line.charAt(end) != '\t') {
+          end++;
+        }
+        tokens.add(line.substring(i, end));
+        i = end;
+      }
+    }
+    return tokens;
+  }
+
+}
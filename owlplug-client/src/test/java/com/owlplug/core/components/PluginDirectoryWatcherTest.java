@@ -0,0 +1,58 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PluginDirectoryWatcherTest {
+
+  private final Path root = Path.of("/plugins");
+
+  @Test
+  public void testResolveScopeInRegularDirectory() {
+    Path scope = PluginDirectoryWatcher.resolveScope(root, root.resolve("vendor/effects"));
+    assertEquals(root.resolve("vendor/effects"), scope);
+  }
+
+  @Test
+  public void testResolveScopeInPluginBundle() {
+    Path scope = PluginDirectoryWatcher.resolveScope(root,
+        root.resolve("vendor/Plugin.vst3/Contents/x86_64-linux"));
+    assertEquals(root.resolve("vendor"), scope);
+  }
+
+  @Test
+  public void testResolveScopeInDisabledPluginBundle() {
+    Path scope = PluginDirectoryWatcher.resolveScope(root, root.resolve("Plugin.lv2.disabled"));
+    assertEquals(root, scope);
+  }
+
+  @Test
+  public void testCoalesceNestedScopes() {
+    List<Path> scopes = PluginDirectoryWatcher.coalesceScopes(List.of(
+        root.resolve("vendor/effects"), root.resolve("vendor-b"), root.resolve("vendor"),
+        root.resolve("vendor/instruments")));
+    assertEquals(List.of(root.resolve("vendor"), root.resolve("vendor-b")), scopes);
+  }
+
+}
@@ -0,0 +1,97 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import com.owlplug.core.model.FileStat;
+import com.owlplug.core.utils.FileUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileStatCollectorTest {
+
+  @TempDir
+  Path directory;
+
+  private void createFile(Path path, int length) throws IOException {
+    Files.createDirectories(path.getParent());
+    Files.write(path, new byte[length]);
+  }
+
+  private String path(Path file) {
+    return FileUtils.convertPath(file.toAbsolutePath().toString());
+  }
+
+  @Test
+  public void collectAggregatedDirectoryLengths() throws IOException {
+    createFile(directory.resolve("a.so"), 10);
+    createFile(directory.resolve("sub/b.so"), 20);
+    createFile(directory.resolve("sub/nested/c.so"), 30);
+    Files.createDirectories(directory.resolve("empty"));
+
+    Map<String, FileStat> stats = new ConcurrentHashMap<>();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    FileStatCollector collector = new FileStatCollector(pool, stat -> stats.put(stat.getPath(), stat));
+    long length = collector.submit(directory).join();
+    pool.shutdown();
+
+    assertEquals(60, length);
+    assertEquals(7, stats.size());
+
+    FileStat root = stats.get(path(directory));
+    assertEquals(60, root.getLength());
+    assertNull(root.getParentPath());
+
+    FileStat sub = stats.get(path(directory.resolve("sub")));
+    assertEquals(50, sub.getLength());
+    assertEquals(path(directory), sub.getParentPath());
+    assertEquals(30, stats.get(path(directory.resolve("sub/nested"))).getLength());
+    assertEquals(0, stats.get(path(directory.resolve("empty"))).getLength());
+
+    FileStat file = stats.get(path(directory.resolve("sub/nested/c.so")));
+    assertEquals("c.so", file.getName());
+    assertEquals(path(directory.resolve("sub/nested")), file.getParentPath());
+  }
+
+  @Test
+  public void collectSymlinkCycleOnce() throws IOException {
+    createFile(directory.resolve("sub/a.so"), 10);
+    try {
+      Files.createSymbolicLink(directory.resolve("sub/loop"), directory);
+    } catch (UnsupportedOperationException | IOException e) {
+      return;
+    }
+
+    Map<String, FileStat> stats = new ConcurrentHashMap<>();
+    ForkJoinPool pool = new ForkJoinPool(2);
+    FileStatCollector collector = new FileStatCollector(pool, stat -> stats.put(stat.getPath(), stat));
+    long length = collector.submit(directory).join();
+    pool.shutdown();
+
+    assertEquals(10, length);
+  }
+
+}
@@ -0,0 +1,146 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.owlplug.core.dao.NativeScanResultDAO;
+import com.owlplug.core.dao.PluginDAO;
+import com.owlplug.core.dao.PluginFootprintDAO;
+import com.owlplug.core.dao.SymlinkDAO;
+import com.owlplug.core.model.platform.OperatingSystem;
+import com.owlplug.core.model.platform.RuntimePlatform;
+import com.owlplug.core.services.NativeHostService;
+import com.owlplug.core.tasks.plugins.discovery.PluginSyncTaskParameters;
+import com.owlplug.core.utils.FileUtils;
+import com.owlplug.host.NativePlugin;
+import com.owlplug.host.loaders.NativePluginLoader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PluginSyncTaskTest {
+
+  @Autowired
+  private PluginDAO pluginDAO;
+  @Autowired
+  private PluginFootprintDAO pluginFootprintDAO;
+  @Autowired
+  private SymlinkDAO symlinkDAO;
+  @Autowired
+  private NativeScanResultDAO nativeScanResultDAO;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @TempDir
+  Path pluginDirectory;
+
+  private NativePluginLoader loader;
+  private NativeHostService nativeHostService;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    pluginDAO.deleteAll();
+    pluginFootprintDAO.deleteAll();
+    nativeScanResultDAO.deleteAll();
+    Files.createFile(pluginDirectory.resolve("plugin.so"));
+
+    NativePlugin nativePlugin = new NativePlugin();
+    nativePlugin.setName("Plugin");
+    loader = mock(NativePluginLoader.class);
+    when(loader.getId()).thenReturn("test-loader");
+    when(loader.isAvailable()).thenReturn(true);
+    when(loader.loadPlugin(anyString())).thenReturn(List.of(nativePlugin));
+
+    NativeHostService service = new NativeHostService();
+    ReflectionTestUtils.setField(service, "nativeScanResultDAO", nativeScanResultDAO);
+    ReflectionTestUtils.setField(service, "pluginFootprintDAO", pluginFootprintDAO);
+    ReflectionTestUtils.setField(service, "currentPluginLoader", loader);
+    nativeHostService = spy(service);
+    doReturn(true).when(nativeHostService).isNativeHostEnabled();
+  }
+
+  private void sync() throws Exception {
+    PluginSyncTaskParameters parameters = new PluginSyncTaskParameters();
+    parameters.setPlatform(new RuntimePlatform("linux-x64", OperatingSystem.LINUX, "x64"));
+    parameters.setFindVst2(true);
+    parameters.setVst2Directory(pluginDirectory.toString());
+    parameters.setVst2ExtraDirectories(List.of());
+    parameters.setIncremental(true);
+    new TestPluginSyncTask(parameters).call();
+  }
+
+  @Test
+  public void invalidatedPluginIsScannedAgain() throws Exception {
+    sync();
+    sync();
+    verify(loader, times(1)).loadPlugin(anyString());
+
+    String path = FileUtils.convertPath(pluginDirectory.resolve("plugin.so").toFile().getAbsolutePath());
+    nativeHostService.invalidateCachedScan(path);
+    sync();
+    verify(loader, times(2)).loadPlugin(anyString());
+    assertEquals(1, pluginDAO.findAll().spliterator().getExactSizeIfKnown());
+
+    nativeHostService.clearScanCache();
+    sync();
+    verify(loader, times(3)).loadPlugin(anyString());
+  }
+
+  /**
+   * Sync task running outside of the JavaFX toolkit, progress and messages are ignored.
+   */
+  private class TestPluginSyncTask extends PluginSyncTask {
+
+    TestPluginSyncTask(PluginSyncTaskParameters parameters) {
+      super(parameters, pluginDAO, pluginFootprintDAO, symlinkDAO, nativeHostService,
+          new TransactionTemplate(transactionManager));
+    }
+
+    @Override
+    protected void updateMessage(String message) {
+    }
+
+    @Override
+    protected void updateProgress(double workDone, double max) {
+    }
+
+  }
+
+}
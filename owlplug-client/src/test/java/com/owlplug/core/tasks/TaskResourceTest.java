@@ -0,0 +1,50 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskResourceTest {
+
+  @Test
+  public void testNamedResourcesConflict() {
+    assertTrue(TaskResource.PLUGINS.conflictsWith(TaskResource.PLUGINS));
+    assertFalse(TaskResource.PLUGINS.conflictsWith(TaskResource.REGISTRY));
+  }
+
+  @Test
+  public void testNestedDirectoriesConflict() {
+    TaskResource parent = TaskResource.directory("/plugins/vst");
+    TaskResource child = TaskResource.directory("/plugins/vst/vendor");
+    assertTrue(parent.conflictsWith(child));
+    assertTrue(child.conflictsWith(parent));
+  }
+
+  @Test
+  public void testSiblingDirectoriesDontConflict() {
+    TaskResource vst = TaskResource.directory("/plugins/vst");
+    TaskResource vst3 = TaskResource.directory("/plugins/vst3");
+    assertFalse(vst.conflictsWith(vst3));
+    assertFalse(vst.conflictsWith(TaskResource.PLUGINS));
+  }
+
+}
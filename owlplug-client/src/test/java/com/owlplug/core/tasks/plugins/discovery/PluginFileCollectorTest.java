@@ -0,0 +1,113 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.tasks.plugins.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import com.owlplug.core.model.PluginFormat;
+import com.owlplug.core.model.platform.OperatingSystem;
+import com.owlplug.core.model.platform.RuntimePlatform;
+import com.owlplug.core.tasks.plugins.discovery.fileformats.PluginFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PluginFileCollectorTest {
+
+  private RuntimePlatform linuxPlatform = new RuntimePlatform("linux-x64", OperatingSystem.LINUX, "x64");
+
+  @TempDir
+  Path pluginDirectory;
+
+  @TempDir
+  Path externalDirectory;
+
+  private void createFile(Path path) throws IOException {
+    Files.createDirectories(path.getParent());
+    Files.createFile(path);
+  }
+
+  private List<String> relativePaths(List<PluginFile> pluginFiles) {
+    return pluginFiles.stream()
+        .map(f -> pluginDirectory.relativize(f.getPluginFile().toPath()).toString().replace("\\", "/"))
+        .toList();
+  }
+
+  @Test
+  public void collectOverlappingDirectoriesWithoutNestedPlugins() throws IOException {
+    createFile(pluginDirectory.resolve("b.so"));
+    createFile(pluginDirectory.resolve("sub/a.so"));
+    createFile(pluginDirectory.resolve("vst3/c.vst3/Contents/x86_64-linux/c.so"));
+    createFile(pluginDirectory.resolve("vst3/d.vst3/Contents/x86_64-linux/d.so"));
+
+    PluginFileCollector collector = new PluginFileCollector(linuxPlatform);
+    collector.addDirectory(pluginDirectory.toString(), PluginFormat.VST2);
+    collector.addDirectory(pluginDirectory.resolve("vst3").toString(), PluginFormat.VST3);
+
+    List<PluginFile> pluginFiles = collector.collect();
+    assertThat(relativePaths(pluginFiles), contains("b.so", "sub/a.so", "vst3/c.vst3", "vst3/d.vst3"));
+  }
+
+  @Test
+  public void collectDirectoryRegisteredInsideBundle() throws IOException {
+    createFile(pluginDirectory.resolve("c.vst3/Contents/x86_64-linux/c.so"));
+
+    PluginFileCollector collector = new PluginFileCollector(linuxPlatform);
+    collector.addDirectory(pluginDirectory.toString(), PluginFormat.VST3);
+    collector.addDirectory(pluginDirectory.resolve("c.vst3/Contents").toString(), PluginFormat.VST2);
+
+    List<PluginFile> pluginFiles = collector.collect();
+    assertThat(relativePaths(pluginFiles), contains("c.vst3"));
+  }
+
+  @Test
+  public void collectPluginsSharingBundleNamePrefix() throws IOException {
+    createFile(pluginDirectory.resolve("c.vst3/Contents/x86_64-linux/c.so"));
+    createFile(pluginDirectory.resolve("c.vst3-extras/e.so"));
+
+    PluginFileCollector collector = new PluginFileCollector(linuxPlatform);
+    collector.addDirectory(pluginDirectory.toString(), PluginFormat.VST3);
+    collector.addDirectory(pluginDirectory.resolve("c.vst3/Contents").toString(), PluginFormat.VST2);
+    collector.addDirectory(pluginDirectory.resolve("c.vst3-extras").toString(), PluginFormat.VST2);
+
+    List<PluginFile> pluginFiles = collector.collect();
+    assertThat(relativePaths(pluginFiles), contains("c.vst3", "c.vst3-extras/e.so"));
+  }
+
+  @Test
+  public void collectPluginsAndSymlinksInSinglePass() throws IOException {
+    createFile(pluginDirectory.resolve("a.so"));
+    createFile(externalDirectory.resolve("e.so"));
+    Files.createSymbolicLink(pluginDirectory.resolve("link"), externalDirectory);
+
+    SymlinkCollector symlinkCollector = new SymlinkCollector(true);
+    PluginFileCollector collector = new PluginFileCollector(linuxPlatform, symlinkCollector);
+    collector.addDirectory(pluginDirectory.toString(), PluginFormat.VST2);
+
+    List<PluginFile> pluginFiles = collector.collect();
+    assertThat(relativePaths(pluginFiles), contains("a.so", "link/e.so"));
+    assertEquals(1, symlinkCollector.getSymlinks().size());
+    assertEquals("link", symlinkCollector.getSymlinks().get(0).getName());
+  }
+
+}
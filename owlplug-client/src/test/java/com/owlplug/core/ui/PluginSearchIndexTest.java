@@ -0,0 +1,117 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.owlplug.core.model.Plugin;
+import com.owlplug.core.model.PluginFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javafx.scene.control.TreeItem;
+import org.junit.jupiter.api.Test;
+
+public class PluginSearchIndexTest {
+
+  private PluginSearchIndex buildIndex(Plugin... plugins) {
+    PluginSearchIndex index = new PluginSearchIndex();
+    List<TreeItem<Object>> items = new ArrayList<>();
+    for (Plugin plugin : plugins) {
+      items.add(new FilterableTreeItem<>(plugin));
+    }
+    index.addAll(items);
+    return index;
+  }
+
+  @Test
+  public void testTokenPrefixSearch() {
+    Plugin reverb = new Plugin("ValhallaVintageVerb", "/vst/reverb.dll", PluginFormat.VST2);
+    reverb.setCategory("Fx|Reverb");
+    reverb.setManufacturerName("Valhalla DSP");
+    Plugin synth = new Plugin("Vital", "/vst/vital.dll", PluginFormat.VST2);
+    PluginSearchIndex index = buildIndex(reverb, synth);
+
+    assertEquals(Set.of(reverb), index.search("vintage"));
+    assertEquals(Set.of(reverb), index.search("Rev"));
+    assertEquals(Set.of(reverb), index.search("valhalla dsp"));
+    assertEquals(2, index.search("v").size());
+    assertTrue(index.search("vital reverb").isEmpty());
+  }
+
+  @Test
+  public void testBlankQueryReturnsNull() {
+    PluginSearchIndex index = buildIndex(new Plugin("Vital", "/vst/vital.dll", PluginFormat.VST2));
+    assertNull(index.search(""));
+    assertNull(index.search("  - "));
+  }
+
+  @Test
+  public void testVisibleItemsAreAppliedToBranches() {
+    Plugin reverb = new Plugin("ValhallaVintageVerb", "/vst/reverb.dll", PluginFormat.VST2);
+    Plugin synth = new Plugin("Vital", "/vst/vital.dll", PluginFormat.VST2);
+    FilterableTreeItem<Object> reverbItem = new FilterableTreeItem<>(reverb);
+    FilterableTreeItem<Object> synthItem = new FilterableTreeItem<>(synth);
+    FilterableTreeItem<Object> directory = new FilterableTreeItem<>("vst");
+    directory.getInternalChildren().setAll(List.of(reverbItem, synthItem));
+    FilterableTreeItem<Object> root = new FilterableTreeItem<>("(all)");
+    root.getInternalChildren().add(directory);
+    PluginSearchIndex index = new PluginSearchIndex();
+    index.addAll(List.of(directory));
+
+    Set<TreeItem<Object>> visibleItems = index.findVisibleItems("vital");
+    assertEquals(2, visibleItems.size());
+    assertTrue(visibleItems.contains(directory));
+    assertTrue(visibleItems.contains(synthItem));
+
+    root.applyFilter(visibleItems);
+    assertEquals(List.of(directory), root.getChildren());
+    assertEquals(List.of(synthItem), directory.getChildren());
+
+    root.applyFilter(index.findVisibleItems(" "));
+    assertEquals(List.of(reverbItem, synthItem), directory.getChildren());
+  }
+
+  @Test
+  public void testPredicateFiltersNewChildren() {
+    FilterableTreeItem<Object> root = new FilterableTreeItem<>("(all)");
+    root.predicateProperty().set(item -> item.toString().contains("vital"));
+    FilterableTreeItem<Object> synthItem = new FilterableTreeItem<>("vital");
+    FilterableTreeItem<Object> reverbItem = new FilterableTreeItem<>("reverb");
+
+    root.getInternalChildren().setAll(List.of(synthItem, reverbItem));
+    assertEquals(List.of(synthItem), root.getChildren());
+
+    FilterableTreeItem<Object> otherSynthItem = new FilterableTreeItem<>("vital 2");
+    root.getInternalChildren().add(otherSynthItem);
+    assertEquals(List.of(synthItem, otherSynthItem), root.getChildren());
+
+    root.predicateProperty().set(null);
+    assertEquals(List.of(synthItem, reverbItem, otherSynthItem), root.getChildren());
+  }
+
+  @Test
+  public void testTokenizeNormalizesText() {
+    assertEquals(List.of("eqalizer", "pro", "q3", "q", "3", "eqalizerproq3"),
+        PluginSearchIndex.tokenize("Éqalizer Pro-Q3"));
+  }
+
+}
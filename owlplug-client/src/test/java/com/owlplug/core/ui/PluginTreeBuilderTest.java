@@ -0,0 +1,84 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.core.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.owlplug.core.model.Plugin;
+import com.owlplug.core.model.PluginDirectory;
+import com.owlplug.core.model.PluginFormat;
+import com.owlplug.core.model.Symlink;
+import com.owlplug.core.ui.PluginTreeBuilder.FileTree;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PluginTreeBuilderTest {
+
+  @Test
+  public void testDirectoriesAggregatePluginsBelowThem() {
+    Plugin first = new Plugin("first", "/vst/a/first.dll", PluginFormat.VST2);
+    Plugin second = new Plugin("second", "/vst/a/b/second.dll", PluginFormat.VST2);
+    Plugin third = new Plugin("third", "/vst/c/third.dll", PluginFormat.VST2);
+
+    PluginTreeBuilder builder = new PluginTreeBuilder(new ArrayList<>());
+    FileTree tree = builder.buildFileTree(List.of(first, second, third));
+
+    FileTree vst = tree.get("").get("vst");
+    PluginDirectory vstDirectory = (PluginDirectory) vst.getNodeValue();
+    assertEquals("/vst/", vstDirectory.getPath());
+    assertEquals(new HashSet<>(List.of(first, second, third)), new HashSet<>(vstDirectory.getPluginList()));
+
+    PluginDirectory aDirectory = (PluginDirectory) vst.get("a").getNodeValue();
+    assertEquals(new HashSet<>(List.of(first, second)), new HashSet<>(aDirectory.getPluginList()));
+    assertEquals(List.of(second), ((PluginDirectory) vst.get("a").get("b").getNodeValue()).getPluginList());
+    assertSame(third, vst.get("c").get("third.dll").getNodeValue());
+  }
+
+  @Test
+  public void testSymlinkDirectoriesAreResolvedByPath() {
+    Plugin plugin = new Plugin("plugin", "/vst/link/plugin.dll", PluginFormat.VST2);
+    Symlink symlink = new Symlink("/vst/link", "link", true);
+
+    PluginTreeBuilder builder = new PluginTreeBuilder(List.of(symlink));
+    FileTree tree = builder.buildFileTree(List.of(plugin));
+
+    assertSame(symlink, tree.get("").get("vst").get("link").getNodeValue());
+    assertEquals(List.of(plugin), symlink.getPluginList());
+  }
+
+  @Test
+  public void testLargePluginSet() {
+    List<Plugin> plugins = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      String path = "/home/user/plugins/vendor" + (i % 50) + "/collection" + (i % 7)
+          + "/deep/nested/dir/plugin" + i + ".vst3";
+      plugins.add(new Plugin("plugin" + i, path, PluginFormat.VST3));
+    }
+
+    PluginTreeBuilder builder = new PluginTreeBuilder(new ArrayList<>());
+    FileTree tree = builder.buildFileTree(plugins);
+
+    PluginDirectory root = (PluginDirectory) tree.get("").get("home").getNodeValue();
+    assertEquals(5000, root.getPluginList().size());
+  }
+
+}
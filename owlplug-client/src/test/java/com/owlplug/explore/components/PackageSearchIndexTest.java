@@ -0,0 +1,130 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.explore.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.owlplug.explore.dao.RemotePackageDAO;
+import com.owlplug.explore.dao.RemoteSourceDAO;
+import com.owlplug.explore.model.PackageTag;
+import com.owlplug.explore.model.RemotePackage;
+import com.owlplug.explore.model.RemoteSource;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PackageSearchIndexTest {
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private RemoteSourceDAO remoteSourceDAO;
+  @Autowired
+  private RemotePackageDAO remotePackageDAO;
+
+  private PackageSearchIndex searchIndex;
+  private List<Long> ids = new ArrayList<>();
+
+  private void addPackage(String name, String creator, String description, String... tags) {
+    RemotePackage remotePackage = new RemotePackage();
+    remotePackage.setName(name);
+    remotePackage.setCreator(creator);
+    remotePackage.setDescription(description);
+    for (String tag : tags) {
+      remotePackage.getTags().add(new PackageTag(tag, remotePackage));
+    }
+    ids.add(remotePackageDAO.save(remotePackage).getId());
+  }
+
+  @BeforeEach
+  public void setUp() {
+    remotePackageDAO.deleteAll();
+    remoteSourceDAO.deleteAll();
+
+    // Packages written before the index creation are indexed on creation
+    addPackage("Vital", "Matt Tytel", "Spectral warping wavetable synth", "Synth");
+    addPackage("Surge XT", "Surge Synth Team", "Hybrid synthesizer");
+
+    searchIndex = new PackageSearchIndex();
+    ReflectionTestUtils.setField(searchIndex, "jdbcTemplate", jdbcTemplate);
+    searchIndex.initialize();
+
+    // Packages written after the index creation are indexed by triggers
+    addPackage("Dexed", "Digital Suburban", "FM plugin synth modeled on the DX7");
+    addPackage("Valhalla Supermassive", "Valhalla DSP", "Massive delays and reverbs", "Reverb");
+  }
+
+  private List<Long> search(String query) {
+    return new ArrayList<>(searchIndex.search(query).keySet());
+  }
+
+  @Test
+  public void fieldWeightsRankResults() {
+    assertEquals(List.of(ids.get(0), ids.get(1), ids.get(2)), search("synth").subList(0, 3));
+  }
+
+  @Test
+  public void prefixAndAccentsMatch() {
+    assertEquals(List.of(ids.get(3)), search("valh"));
+    assertEquals(List.of(ids.get(2)), search("Dëx"));
+  }
+
+  @Test
+  public void typosAreTolerated() {
+    assertEquals(List.of(ids.get(3)), search("supermasive"));
+    assertTrue(search("vit").contains(ids.get(0)));
+    assertTrue(search("xyz").isEmpty());
+  }
+
+  @Test
+  public void allQueryTokensMustMatch() {
+    assertEquals(List.of(ids.get(1)), search("surge hybrid"));
+    // Tokens can match different fields and tags
+    assertEquals(List.of(ids.get(3)), search("valhalla reverb"));
+  }
+
+  @Test
+  public void updatedPackagesAreReindexed() {
+    RemotePackage remotePackage = remotePackageDAO.findById(ids.get(1)).get();
+    remotePackage.setName("Surge Classic");
+    remotePackageDAO.save(remotePackage);
+
+    assertEquals(List.of(ids.get(1)), search("classic"));
+    remotePackageDAO.deleteById(ids.get(1));
+    assertTrue(search("classic").isEmpty());
+  }
+
+  @Test
+  public void distanceStopsAboveMaximum() {
+    assertEquals(1, PackageSearchIndex.distance("reverb", "reverv", 2));
+    assertEquals(3, PackageSearchIndex.distance("kitten", "sitting", 3));
+    assertTrue(PackageSearchIndex.distance("abcdef", "uvwxyz", 1) > 1);
+  }
+
+}
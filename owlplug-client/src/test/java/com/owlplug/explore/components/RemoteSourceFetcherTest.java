@@ -0,0 +1,131 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.explore.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.owlplug.explore.components.RemoteSourceFetcher.FetchStatus;
+import com.owlplug.explore.model.RemoteSource;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RemoteSourceFetcherTest {
+
+  private static final String ETAG = "\"registry-v1\"";
+  private static final String CONTENT = "{\"packages\":{}}";
+
+  private HttpServer server;
+  private RemoteSourceFetcher fetcher;
+  private AtomicInteger contentResponses = new AtomicInteger();
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/registry.json", exchange -> {
+      if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        byte[] body = CONTENT.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+          os.write(body);
+        }
+        contentResponses.incrementAndGet();
+      }
+      exchange.close();
+    });
+    server.createContext("/missing.json", exchange -> {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+    });
+    server.start();
+    fetcher = new RemoteSourceFetcher();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    fetcher.close();
+    server.stop(0);
+  }
+
+  private RemoteSource createSource(String path) {
+    RemoteSource remoteSource = new RemoteSource();
+    remoteSource.setName("Test source");
+    remoteSource.setUrl("http://localhost:" + server.getAddress().getPort() + path);
+    return remoteSource;
+  }
+
+  @Test
+  public void testFetchStoresValidators() throws IOException {
+    RemoteSource remoteSource = createSource("/registry.json");
+    StringBuilder content = new StringBuilder();
+
+    FetchStatus status = fetcher.fetch(remoteSource, true,
+        entity -> content.append(new String(entity.getContent().readAllBytes(), StandardCharsets.UTF_8)));
+
+    assertEquals(FetchStatus.FETCHED, status);
+    assertEquals(CONTENT, content.toString());
+    assertEquals(ETAG, remoteSource.getEtag());
+  }
+
+  @Test
+  public void testConditionalFetchSkipsUnmodifiedContent() throws IOException {
+    RemoteSource remoteSource = createSource("/registry.json");
+    AtomicInteger handledContents = new AtomicInteger();
+
+    fetcher.fetch(remoteSource, true, entity -> handledContents.incrementAndGet());
+    FetchStatus status = fetcher.fetch(remoteSource, true, entity -> handledContents.incrementAndGet());
+
+    assertEquals(FetchStatus.NOT_MODIFIED, status);
+    assertEquals(1, handledContents.get());
+    assertEquals(1, contentResponses.get());
+  }
+
+  @Test
+  public void testUnconditionalFetchDownloadsContent() throws IOException {
+    RemoteSource remoteSource = createSource("/registry.json");
+    remoteSource.setEtag(ETAG);
+
+    FetchStatus status = fetcher.fetch(remoteSource, false, entity -> { });
+
+    assertEquals(FetchStatus.FETCHED, status);
+    assertEquals(1, contentResponses.get());
+  }
+
+  @Test
+  public void testFailedFetchKeepsValidators() {
+    RemoteSource remoteSource = createSource("/missing.json");
+    remoteSource.setEtag(ETAG);
+
+    assertThrows(IOException.class, () -> fetcher.fetch(remoteSource, false, entity -> { }));
+    assertEquals(ETAG, remoteSource.getEtag());
+    assertNull(remoteSource.getLastModified());
+  }
+
+}
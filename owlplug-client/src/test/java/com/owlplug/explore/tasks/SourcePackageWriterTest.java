@@ -0,0 +1,152 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.explore.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.owlplug.explore.dao.RemotePackageDAO;
+import com.owlplug.explore.dao.RemotePackageDAO.PackageChecksum;
+import com.owlplug.explore.model.PackageBundle;
+import com.owlplug.explore.model.PackageTag;
+import com.owlplug.explore.model.RemotePackage;
+import com.owlplug.explore.model.RemoteSource;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class SourcePackageWriterTest {
+
+  private static PackageChecksum storedPackage(long id, String slug, String checksum) {
+    return new PackageChecksum() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getSlug() {
+        return slug;
+      }
+
+      @Override
+      public String getChecksum() {
+        return checksum;
+      }
+    };
+  }
+
+  private static RemotePackage remotePackage(String slug) {
+    RemotePackage remotePackage = new RemotePackage();
+    remotePackage.setSlug(slug);
+    return remotePackage;
+  }
+
+  private static PackageBundle bundle(String name, String version) {
+    PackageBundle bundle = new PackageBundle();
+    bundle.setName(name);
+    bundle.setVersion(version);
+    bundle.setTargets(List.of("win64"));
+    return bundle;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testWriteOnlyChangedPackages() {
+    RemoteSource remoteSource = new RemoteSource();
+    RemotePackageDAO remotePackageDAO = mock(RemotePackageDAO.class);
+    when(remotePackageDAO.findChecksumsByRemoteSource(remoteSource)).thenReturn(List.of(
+        storedPackage(1, "unchanged", "a"),
+        storedPackage(2, "updated", "b"),
+        storedPackage(3, "removed", "c")));
+
+    RemotePackage storedUpdatedPackage = remotePackage("updated");
+    storedUpdatedPackage.setId(2L);
+    when(remotePackageDAO.findAllWithBundlesByIdIn(any())).thenReturn(List.of(storedUpdatedPackage));
+
+    List<Iterable<RemotePackage>> savedBatches = new ArrayList<>();
+    List<Long> deletedIds = new ArrayList<>();
+    when(remotePackageDAO.saveAll(any())).thenAnswer(invocation -> {
+      savedBatches.add(new ArrayList<>((List<RemotePackage>) invocation.getArgument(0)));
+      return null;
+    });
+    doAnswer(invocation -> deletedIds.addAll((List<Long>) invocation.getArgument(0)))
+        .when(remotePackageDAO).deleteAllInBulk(any());
+
+    TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    SourcePackageWriter writer = new SourcePackageWriter(remotePackageDAO, transactionTemplate, remoteSource, 100);
+    writer.write(remotePackage("unchanged"), "a");
+    RemotePackage updatedPackage = remotePackage("updated");
+    updatedPackage.setName("Updated");
+    writer.write(updatedPackage, "b2");
+    writer.write(remotePackage("added"), "d");
+    writer.complete();
+
+    assertEquals(1, writer.getAdded());
+    assertEquals(1, writer.getUpdated());
+    assertEquals(1, writer.getRemoved());
+    assertEquals(1, writer.getUnchanged());
+
+    // Updated packages keep their identity, only removed packages are deleted
+    assertEquals(List.of(3L), deletedIds);
+    assertEquals("Updated", storedUpdatedPackage.getName());
+    assertEquals("b2", storedUpdatedPackage.getChecksum());
+
+    List<String> savedSlugs = new ArrayList<>();
+    savedBatches.forEach(batch -> batch.forEach(p -> savedSlugs.add(p.getSlug())));
+    assertEquals(List.of("added"), savedSlugs);
+  }
+
+  @Test
+  public void testUpdateOnlyChangedBundlesAndTags() {
+    RemotePackage storedPackage = remotePackage("plugin");
+    PackageBundle keptBundle = bundle("Plugin", "1.0");
+    keptBundle.setRemotePackage(storedPackage);
+    storedPackage.getBundles().add(keptBundle);
+    storedPackage.getBundles().add(bundle("Plugin Legacy", "0.9"));
+    PackageTag keptTag = new PackageTag("Synth", storedPackage);
+    storedPackage.getTags().add(keptTag);
+    storedPackage.getTags().add(new PackageTag("Legacy", storedPackage));
+
+    RemotePackage remotePackage = remotePackage("plugin");
+    remotePackage.getBundles().add(bundle("Plugin", "1.0"));
+    remotePackage.getBundles().add(bundle("Plugin", "2.0"));
+    remotePackage.getTags().add(new PackageTag("Synth"));
+    remotePackage.getTags().add(new PackageTag("Bass"));
+
+    SourcePackageWriter.update(storedPackage, remotePackage);
+
+    assertEquals(2, storedPackage.getBundles().size());
+    assertTrue(storedPackage.getBundles().contains(keptBundle));
+    assertTrue(storedPackage.getBundles().stream().anyMatch(b -> b.getVersion().equals("2.0")
+        && b.getRemotePackage() == storedPackage));
+
+    assertEquals(2, storedPackage.getTags().size());
+    assertTrue(storedPackage.getTags().contains(keptTag));
+    assertTrue(storedPackage.getTags().stream().anyMatch(t -> t.getName().equals("Bass")
+        && t.getRemotePackage() == storedPackage));
+  }
+
+}
@@ -0,0 +1,104 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.project.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.owlplug.core.model.Plugin;
+import com.owlplug.core.model.PluginComponent;
+import com.owlplug.core.model.PluginFormat;
+import com.owlplug.project.model.DawPlugin;
+import com.owlplug.project.model.DawPluginLookup;
+import com.owlplug.project.model.LookupResult;
+import com.owlplug.project.model.LookupStrategy;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PluginLookupResolverTest {
+
+  private DawPlugin dawPlugin(String name, String uid, PluginFormat format) {
+    DawPlugin plugin = new DawPlugin();
+    plugin.setName(name);
+    plugin.setUid(uid);
+    plugin.setFormat(format);
+    return plugin;
+  }
+
+  @Test
+  public void testMatchStrategies() {
+    Plugin serumFx = new Plugin("Serum FX", "/vst/SerumFX.dll", PluginFormat.VST2);
+    Plugin serum = new Plugin("Serum", "/vst/Serum.dll", PluginFormat.VST2);
+    serum.setUid("1483109208");
+    Plugin shell = new Plugin("WaveShell", "/vst/WaveShell.dll", PluginFormat.VST2);
+    PluginComponent component = new PluginComponent();
+    component.setName("H-Delay Stereo");
+    component.setPlugin(shell);
+    shell.getComponents().add(component);
+
+    PluginLookupResolver resolver = new PluginLookupResolver(List.of(serumFx, serum, shell));
+
+    DawPluginLookup byUid = resolver.resolve(dawPlugin("Renamed", "1483109208", PluginFormat.VST2));
+    assertSame(serum, byUid.getPlugin());
+    assertEquals(LookupStrategy.UID, byUid.getStrategy());
+
+    DawPluginLookup byName = resolver.resolve(dawPlugin("serum", "0", PluginFormat.VST2));
+    assertSame(serum, byName.getPlugin());
+    assertEquals(LookupStrategy.NAME, byName.getStrategy());
+
+    DawPluginLookup byContainedName = resolver.resolve(dawPlugin("Shell", null, PluginFormat.VST2));
+    assertSame(shell, byContainedName.getPlugin());
+    assertEquals(LookupStrategy.NAME, byContainedName.getStrategy());
+
+    DawPluginLookup byComponent = resolver.resolve(dawPlugin("h-delay stereo", null, PluginFormat.VST2));
+    assertSame(shell, byComponent.getPlugin());
+    assertEquals(LookupStrategy.COMPONENT, byComponent.getStrategy());
+    assertEquals(LookupResult.FOUND, byComponent.getResult());
+  }
+
+  @Test
+  public void testMissingPlugins() {
+    Plugin serum = new Plugin("Serum", "/vst/Serum.dll", PluginFormat.VST2);
+    PluginLookupResolver resolver = new PluginLookupResolver(List.of(serum));
+
+    DawPluginLookup otherFormat = resolver.resolve(dawPlugin("Serum", null, PluginFormat.VST3));
+    assertEquals(LookupResult.MISSING, otherFormat.getResult());
+    assertNull(otherFormat.getPlugin());
+    assertNull(otherFormat.getStrategy());
+
+    DawPluginLookup blankName = resolver.resolve(dawPlugin(null, null, PluginFormat.VST2));
+    assertEquals(LookupResult.MISSING, blankName.getResult());
+  }
+
+  @Test
+  public void testCatalogFingerprint() {
+    Plugin serum = new Plugin("Serum", "/vst/Serum.dll", PluginFormat.VST2);
+    Plugin vital = new Plugin("Vital", "/vst/Vital.dll", PluginFormat.VST2);
+
+    String fingerprint = new PluginLookupResolver(List.of(serum, vital)).getCatalogFingerprint();
+    assertEquals(fingerprint, new PluginLookupResolver(List.of(vital, serum)).getCatalogFingerprint());
+
+    vital.setUid("1449751649");
+    assertNotEquals(fingerprint, new PluginLookupResolver(List.of(serum, vital)).getCatalogFingerprint());
+    assertNotEquals(fingerprint, new PluginLookupResolver(List.of(serum)).getCatalogFingerprint());
+  }
+
+}
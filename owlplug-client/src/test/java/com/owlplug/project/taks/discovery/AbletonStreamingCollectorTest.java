@@ -0,0 +1,170 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.project.taks.discovery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.owlplug.core.model.PluginFormat;
+import com.owlplug.project.model.DawPlugin;
+import com.owlplug.project.tasks.discovery.ableton.AbletonSchema5PluginCollector;
+import com.owlplug.project.tasks.discovery.ableton.AbletonStreamingCollector;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.w3c.dom.Document;
+
+public class AbletonStreamingCollectorTest {
+
+  private static final String[] CORPUS = {
+      "projects/ableton/ableton11Schema5.als",
+      "projects/ableton/ableton11NestedDevices.als",
+      "projects/ableton/ableton10NoPlugins.als"
+  };
+
+  private static final int BENCHMARK_WARMUP_RUNS = 3;
+  private static final int BENCHMARK_RUNS = 10;
+
+  private byte[] readProject(String resource) throws Exception {
+    File file = new File(this.getClass().getClassLoader().getResource(resource).getFile());
+    try (InputStream inputStream = new GZIPInputStream(new FileInputStream(file))) {
+      return inputStream.readAllBytes();
+    }
+  }
+
+  private List<DawPlugin> collectWithDom(byte[] content) throws Exception {
+    Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+        .parse(new ByteArrayInputStream(content));
+    return new AbletonSchema5PluginCollector(document).collectPlugins();
+  }
+
+  private AbletonStreamingCollector collectWithStream(byte[] content) throws Exception {
+    AbletonStreamingCollector collector = new AbletonStreamingCollector();
+    collector.collect(new ByteArrayInputStream(content));
+    return collector;
+  }
+
+  private List<String> describe(List<DawPlugin> plugins) {
+    List<String> descriptions = new ArrayList<>();
+    for (DawPlugin plugin : plugins) {
+      descriptions.add(plugin.getFormat() + "|" + plugin.getName() + "|" + plugin.getUid()
+                           + "|" + plugin.getFileName());
+    }
+    return descriptions;
+  }
+
+  @Test
+  public void streamingCollectorMatchesDomCollectorOnCorpus() throws Exception {
+    for (String resource : CORPUS) {
+      byte[] content = readProject(resource);
+      assertEquals(describe(collectWithDom(content)), describe(collectWithStream(content).getPlugins()),
+          "Collected plugins differ for " + resource);
+    }
+  }
+
+  @Test
+  public void streamingCollectorReadsNestedDevices() throws Exception {
+    AbletonStreamingCollector collector = collectWithStream(readProject("projects/ableton/ableton11NestedDevices.als"));
+    assertEquals("Ableton Live 11.2", collector.getCreator());
+    assertEquals("5", collector.getMajorVersion());
+    assertEquals(List.of(
+        PluginFormat.VST2 + "|Serum|1483109208|Serum.vst",
+        PluginFormat.VST2 + "|ValhallaRoom|null|null",
+        PluginFormat.VST3 + "|Pro-Q 3|null|null",
+        PluginFormat.AU + "|Diva|null|null"), describe(collector.getPlugins()));
+  }
+
+  @Test
+  public void streamingCollectorRejectsOtherDocuments() {
+    byte[] content = "<Bitwig><PluginDevice/></Bitwig>".getBytes(StandardCharsets.UTF_8);
+    assertThrows(XMLStreamException.class, () -> collectWithStream(content));
+  }
+
+  private byte[] buildLargeProject() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+        .append("<Ableton MajorVersion=\"5\" Creator=\"Ableton Live 11.1\"><LiveSet><Tracks>");
+    for (int i = 0; i < 5000; i++) {
+      builder.append("<MidiTrack Id=\"").append(i).append("\"><DeviceChain><Devices>")
+          .append("<PluginDevice Id=\"0\"><PluginDesc><VstPluginInfo Id=\"0\">")
+          .append("<PlugName Value=\"Plugin ").append(i).append("\" /><UniqueId Value=\"").append(i).append("\" />")
+          .append("<Preset><VstPreset Id=\"0\">");
+      for (int j = 0; j < 20; j++) {
+        builder.append("<ParameterValue Id=\"").append(j).append("\" Value=\"0.5\" />");
+      }
+      builder.append("</VstPreset></Preset></VstPluginInfo></PluginDesc></PluginDevice>")
+          .append("</Devices></DeviceChain></MidiTrack>");
+    }
+    builder.append("</Tracks></LiveSet></Ableton>");
+    return builder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void streamingCollectorMatchesDomOnLargeProject() throws Exception {
+    byte[] content = buildLargeProject();
+
+    List<DawPlugin> domPlugins = collectWithDom(content);
+    List<DawPlugin> streamPlugins = collectWithStream(content).getPlugins();
+
+    assertEquals(5000, streamPlugins.size());
+    assertEquals(describe(domPlugins), describe(streamPlugins));
+  }
+
+  /**
+   * Compares DOM and streaming collection times on a large project. The benchmark is not run
+   * by default, enable it with -Dowlplug.benchmark=true.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "owlplug.benchmark", matches = "true")
+  public void streamingCollectorBenchmark() throws Exception {
+    byte[] content = buildLargeProject();
+    // Warm up both parsers before measuring
+    for (int i = 0; i < BENCHMARK_WARMUP_RUNS; i++) {
+      collectWithDom(content);
+      collectWithStream(content);
+    }
+
+    long domElapsed = 0;
+    long streamElapsed = 0;
+    for (int i = 0; i < BENCHMARK_RUNS; i++) {
+      long start = System.nanoTime();
+      collectWithDom(content);
+      domElapsed += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      collectWithStream(content);
+      streamElapsed += System.nanoTime() - start;
+    }
+
+    System.out.println("Ableton project of " + content.length / 1024 + " KB collected in "
+                           + domElapsed / BENCHMARK_RUNS / 1_000_000 + " ms with DOM and "
+                           + streamElapsed / BENCHMARK_RUNS / 1_000_000 + " ms with streaming"
+                           + " (average of " + BENCHMARK_RUNS + " runs)");
+  }
+
+}
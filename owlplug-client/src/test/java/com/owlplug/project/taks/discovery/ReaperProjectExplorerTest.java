@@ -0,0 +1,105 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.project.taks.discovery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.owlplug.project.model.DawApplication;
+import com.owlplug.project.model.DawPlugin;
+import com.owlplug.project.model.DawProject;
+import com.owlplug.project.tasks.discovery.ProjectExplorerException;
+import com.owlplug.project.tasks.discovery.ProjectExplorerRegistry;
+import com.owlplug.project.tasks.discovery.ableton.AbletonProjectExplorer;
+import com.owlplug.project.tasks.discovery.reaper.ReaperProjectExplorer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReaperProjectExplorerTest {
+
+  private File getResourceFile(String resource) {
+    return new File(this.getClass().getClassLoader().getResource(resource).getFile());
+  }
+
+  @Test
+  public void reaper6ProjectContainingAllPluginFormats() throws ProjectExplorerException {
+    ReaperProjectExplorer explorer = new ReaperProjectExplorer();
+
+    DawProject project = explorer.explore(getResourceFile("projects/reaper/reaper6.rpp"));
+    assertEquals("reaper6", project.getName());
+    assertEquals(DawApplication.REAPER, project.getApplication());
+    assertEquals("Reaper 6.80/win64", project.getAppFullName());
+    assertEquals("0.1", project.getFormatVersion());
+
+    List<String> plugins = project.getPlugins().stream()
+        .map(p -> p.getFormat() + "|" + p.getName() + "|" + p.getUid())
+        .sorted()
+        .collect(Collectors.toList());
+    assertEquals(List.of(
+        "AU|Diva|null",
+        "LV2|Calf Reverb|null",
+        "VST2|My \"Quoted\" Delay|1684368505",
+        "VST2|Serum|1483109208",
+        "VST3|Pro-Q 3|null"), plugins);
+  }
+
+  @Test
+  public void readPluginChunkIgnoresOtherLines() {
+    DawPlugin plugin = ReaperProjectExplorer.readPluginChunk(
+        "      <VST \"VSTi: Serum (Xfer Records)\" Serum_x64.dll 0 \"\" 1483109208<5653> \"\"");
+    assertEquals("Serum", plugin.getName());
+    assertEquals("Serum_x64.dll", plugin.getFileName());
+
+    assertNull(ReaperProjectExplorer.readPluginChunk("    NAME \"<VST fake\""));
+    assertNull(ReaperProjectExplorer.readPluginChunk("      <JS \"utility/volume\" \"\""));
+    assertNull(ReaperProjectExplorer.readPluginChunk("        dm9kc1hyZXMAAAAA"));
+  }
+
+  @Test
+  public void registryDispatchesFilesByFormat() {
+    ProjectExplorerRegistry registry = ProjectExplorerRegistry.createDefault();
+
+    assertInstanceOf(ReaperProjectExplorer.class, registry.find(getResourceFile("projects/reaper/reaper6.rpp")));
+    assertInstanceOf(AbletonProjectExplorer.class,
+        registry.find(getResourceFile("projects/ableton/ableton11Schema5.als")));
+    assertNull(registry.find(getResourceFile("test-data/test.dll")));
+  }
+
+  @Test
+  public void registryRejectsFilesWithUnexpectedHeader(@TempDir Path directory) throws IOException {
+    ProjectExplorerRegistry registry = ProjectExplorerRegistry.createDefault();
+
+    // Ableton projects are gzip compressed
+    Path plainAbletonProject = Files.writeString(directory.resolve("plain.als"), "<?xml version=\"1.0\"?>");
+    assertNull(registry.find(plainAbletonProject.toFile()));
+
+    Path reaperProject = Files.writeString(directory.resolve("project.rpp"), "\uFEFF<REAPER_PROJECT 0.1");
+    assertInstanceOf(ReaperProjectExplorer.class, registry.find(reaperProject.toFile()));
+    Path textFile = Files.writeString(directory.resolve("notes.rpp"), "Some notes");
+    assertNull(registry.find(textFile.toFile()));
+  }
+
+}
@@ -0,0 +1,45 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.controls;
+
+import javafx.scene.Node;
+
+/**
+ * A recyclable cell displayed by a {@link VirtualGrid}. The same cell instance is
+ * rebound to different items while the grid is scrolled.
+ *
+ * @param <T> type of the displayed items
+ */
+public interface GridCell<T> {
+
+  /**
+   * Returns the node displaying the cell content.
+   *
+   * @return the cell node
+   */
+  Node getNode();
+
+  /**
+   * Binds the cell to a new item.
+   *
+   * @param item the item to display, or null when the cell is released
+   */
+  void updateItem(T item);
+
+}
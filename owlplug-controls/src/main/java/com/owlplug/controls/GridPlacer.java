@@ -0,0 +1,199 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.controls;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Places blocks spanning several cells on a grid with a fixed number of columns.
+ * The placer keeps the grid occupancy and column heights between calls, so
+ * appending a block does not depend on the number of blocks already placed.
+ *
+ * <p>This class has no JavaFX dependency, it is used by {@link VirtualGrid} to place
+ * cells and supports the same layout modes as {@link MasonryPane}.</p>
+ */
+public class GridPlacer {
+
+  public enum Mode {
+    /**
+     * Blocks are placed on top of the columns, gaps below blocks are never filled.
+     */
+    MASONRY,
+    /**
+     * Blocks are placed on the first free area of the grid (first fit).
+     */
+    BIN_PACKING
+  }
+
+  private final Mode mode;
+  private final int columns;
+  private final int maxRows;
+
+  // row below the last block of each column
+  private final int[] columnHeights;
+  // occupied cells, only maintained for bin packing
+  private final List<boolean[]> occupancy = new ArrayList<>();
+  // first free cell row of each column, only maintained for bin packing
+  private final int[] firstFreeRows;
+  private int rowCount = 0;
+  // number of rows checked while looking for free areas
+  private long scannedRows = 0;
+
+  /**
+   * Creates an empty grid.
+   *
+   * @param mode placement mode
+   * @param columns number of grid columns
+   * @param maxRows maximum number of grid rows, blocks exceeding this limit are not placed
+   */
+  public GridPlacer(Mode mode, int columns, int maxRows) {
+    this.mode = mode;
+    this.columns = Math.max(1, columns);
+    this.maxRows = maxRows;
+    this.columnHeights = new int[this.columns];
+    this.firstFreeRows = new int[this.columns];
+  }
+
+  /**
+   * Places a new block on the grid.
+   *
+   * @param rowSpan number of rows covered by the block
+   * @param colSpan number of columns covered by the block, reduced to the number of grid columns
+   * @return the block placement as {row, col, rowSpan, colSpan}, or null if the block
+   *         can't fit in the grid rows limit
+   */
+  public int[] place(int rowSpan, int colSpan) {
+    rowSpan = Math.max(1, rowSpan);
+    colSpan = Math.max(1, Math.min(columns, colSpan));
+
+    int[] placement = mode == Mode.MASONRY ? findMasonryArea(rowSpan, colSpan) : findFreeArea(rowSpan, colSpan);
+    if (placement == null) {
+      return null;
+    }
+
+    for (int col = placement[1]; col < placement[1] + colSpan; col++) {
+      columnHeights[col] = Math.max(columnHeights[col], placement[0] + rowSpan);
+    }
+    rowCount = Math.max(rowCount, placement[0] + rowSpan);
+
+    if (mode == Mode.BIN_PACKING) {
+      for (int row = placement[0]; row < placement[0] + rowSpan; row++) {
+        while (occupancy.size() <= row) {
+          occupancy.add(new boolean[columns]);
+        }
+        Arrays.fill(occupancy.get(row), placement[1], placement[1] + colSpan, true);
+      }
+      for (int col = placement[1]; col < placement[1] + colSpan; col++) {
+        while (firstFreeRows[col] < occupancy.size() && occupancy.get(firstFreeRows[col])[col]) {
+          firstFreeRows[col]++;
+        }
+      }
+    }
+    return placement;
+  }
+
+  private int[] findMasonryArea(int rowSpan, int colSpan) {
+    int bestRow = Integer.MAX_VALUE;
+    int bestCol = -1;
+    for (int col = 0; col + colSpan <= columns; col++) {
+      int row = 0;
+      for (int c = col; c < col + colSpan; c++) {
+        row = Math.max(row, columnHeights[c]);
+      }
+      if (row < bestRow) {
+        bestRow = row;
+        bestCol = col;
+      }
+    }
+    if (bestRow + rowSpan > maxRows) {
+      return null;
+    }
+    return new int[] {bestRow, bestCol, rowSpan, colSpan};
+  }
+
+  /**
+   * Finds the first free area in row-major order. Rows of a column below its first free cell
+   * are filled, so each column range is only scanned from the lowest row where all its
+   * columns have a free cell, and only until a better area was found on a previous range.
+   */
+  private int[] findFreeArea(int rowSpan, int colSpan) {
+    int bestRow = Integer.MAX_VALUE;
+    int bestCol = -1;
+    for (int col = 0; col + colSpan <= columns; col++) {
+      int row = 0;
+      for (int c = col; c < col + colSpan; c++) {
+        row = Math.max(row, firstFreeRows[c]);
+      }
+      // Rows from the row count are empty, so the scan always ends there
+      for (; row < bestRow && row + rowSpan <= maxRows; row++) {
+        scannedRows++;
+        if (fits(row, col, rowSpan, colSpan)) {
+          bestRow = row;
+          bestCol = col;
+          break;
+        }
+      }
+    }
+    if (bestCol < 0) {
+      return null;
+    }
+    return new int[] {bestRow, bestCol, rowSpan, colSpan};
+  }
+
+  private boolean fits(int row, int col, int rowSpan, int colSpan) {
+    for (int r = row; r < row + rowSpan && r < occupancy.size(); r++) {
+      boolean[] cells = occupancy.get(r);
+      for (int c = col; c < col + colSpan; c++) {
+        if (cells[c]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Returns the number of rows covered by placed blocks.
+   *
+   * @return the grid row count
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Returns the number of rows checked while looking for free areas since the grid creation.
+   *
+   * @return the scanned row count
+   */
+  long getScannedRows() {
+    return scannedRows;
+  }
+
+}
@@ -0,0 +1,404 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.controls;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Bounds;
+import javafx.geometry.Dimension2D;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.Region;
+import javafx.util.Callback;
+
+/**
+ * A virtualized grid placing items on cells of a fixed size. Items may span several
+ * columns and rows.
+ *
+ * <p>Only the cells intersecting the viewport of the enclosing {@link ScrollPane}, plus a
+ * few buffer rows, are materialized. Cells leaving the viewport are recycled and rebound to
+ * the items entering it, so the number of nodes does not depend on the number of items.</p>
+ *
+ * @param <T> type of the displayed items
+ */
+public class VirtualGrid<T> extends Region {
+
+  private final ObservableList<T> items = FXCollections.observableArrayList();
+
+  // placement of each item as {row, col, rowSpan, colSpan}, computed for the grid width
+  private List<int[]> placements = new ArrayList<>();
+  // item indexes grouped by their first row
+  private List<List<Integer>> rowIndex = new ArrayList<>();
+  private GridPlacer placer;
+  private int maxRowSpan = 1;
+
+  private final Map<Integer, GridCell<T>> activeCells = new HashMap<>();
+  private final Deque<GridCell<T>> freeCells = new ArrayDeque<>();
+
+  private ScrollPane scrollPane;
+  private final InvalidationListener viewportListener = observable -> requestLayout();
+
+  public VirtualGrid() {
+    getStyleClass().add("virtual-grid");
+    items.addListener((ListChangeListener<T>) change -> {
+      boolean appendOnly = true;
+      while (change.next()) {
+        if (change.wasRemoved() || change.wasReplaced() || change.wasPermutated() || change.wasUpdated()) {
+          appendOnly = false;
+        }
+      }
+      // appended items are placed incrementally on the next layout pass
+      if (!appendOnly) {
+        releaseCells();
+        placer = null;
+      }
+      requestLayout();
+    });
+  }
+
+  public final ObservableList<T> getItems() {
+    return items;
+  }
+
+  /**
+   * The number of rows depends on the number of columns fitting in the grid width.
+   */
+  @Override
+  public Orientation getContentBias() {
+    return Orientation.HORIZONTAL;
+  }
+
+  @Override
+  protected double computePrefWidth(double height) {
+    return snappedLeftInset() + getCellWidth() + snappedRightInset();
+  }
+
+  @Override
+  protected double computePrefHeight(double width) {
+    updatePlacements(getColumnCount(width < 0 ? getWidth() : width));
+    return snappedTopInset() + getRowCount() * (getCellHeight() + getVSpacing()) + snappedBottomInset();
+  }
+
+  @Override
+  protected void layoutChildren() {
+    bindScrollPane();
+
+    int rowCount = getRowCount();
+    updatePlacements(getColumnCount(getWidth()));
+    // The parent must query the new preferred height
+    if (rowCount != getRowCount()) {
+      requestLayout();
+    }
+
+    // Rows intersecting the viewport, extended by buffer rows
+    double rowHeight = getCellHeight() + getVSpacing();
+    double minY = 0;
+    double maxY = getHeight();
+    if (scrollPane != null && getScene() != null) {
+      Bounds viewport = sceneToLocal(scrollPane.localToScene(scrollPane.getLayoutBounds()));
+      minY = viewport.getMinY();
+      maxY = viewport.getMaxY();
+    }
+    int firstRow = Math.max(0, (int) Math.floor((minY - snappedTopInset()) / rowHeight) - getBufferRows());
+    int lastRow = Math.min(rowIndex.size() - 1,
+        (int) Math.floor((maxY - snappedTopInset()) / rowHeight) + getBufferRows());
+
+    List<Integer> visibleIndexes = new ArrayList<>();
+    for (int row = Math.max(0, firstRow - maxRowSpan + 1); row <= lastRow; row++) {
+      for (Integer index : rowIndex.get(row)) {
+        int[] placement = placements.get(index);
+        if (placement[0] + placement[2] > firstRow) {
+          visibleIndexes.add(index);
+        }
+      }
+    }
+
+    // Recycle cells leaving the viewport
+    Iterator<Map.Entry<Integer, GridCell<T>>> it = activeCells.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Integer, GridCell<T>> entry = it.next();
+      int[] placement = entry.getKey() < placements.size() ? placements.get(entry.getKey()) : null;
+      if (placement == null || placement[0] > lastRow || placement[0] + placement[2] <= firstRow) {
+        freeCells.push(entry.getValue());
+        it.remove();
+      }
+    }
+
+    for (Integer index : visibleIndexes) {
+      GridCell<T> cell = activeCells.get(index);
+      if (cell == null) {
+        cell = obtainCell();
+        cell.updateItem(items.get(index));
+        cell.getNode().setVisible(true);
+        activeCells.put(index, cell);
+      }
+      int[] placement = placements.get(index);
+      double x = snappedLeftInset() + placement[1] * (getCellWidth() + getHSpacing());
+      double y = snappedTopInset() + placement[0] * rowHeight;
+      double width = placement[3] * getCellWidth() + (placement[3] - 1) * getHSpacing();
+      double height = placement[2] * getCellHeight() + (placement[2] - 1) * getVSpacing();
+      cell.getNode().resizeRelocate(x, y, width, height);
+    }
+
+    for (GridCell<T> cell : freeCells) {
+      if (cell.getNode().isVisible()) {
+        cell.getNode().setVisible(false);
+        cell.updateItem(null);
+      }
+    }
+  }
+
+  private GridCell<T> obtainCell() {
+    if (!freeCells.isEmpty()) {
+      return freeCells.pop();
+    }
+    GridCell<T> cell = getCellFactory().call(this);
+    cell.getNode().setManaged(false);
+    getChildren().add(cell.getNode());
+    return cell;
+  }
+
+  /**
+   * Releases all materialized cells so they are rebound on the next layout pass.
+   */
+  private void releaseCells() {
+    freeCells.addAll(activeCells.values());
+    activeCells.clear();
+  }
+
+  private int getColumnCount(double width) {
+    return Math.max(1, (int) Math.floor((width + getHSpacing() - snappedLeftInset()
+        - snappedRightInset()) / (getCellWidth() + getHSpacing())));
+  }
+
+  /**
+   * Places items not placed yet. All items are placed again if the number of columns changed.
+   */
+  private void updatePlacements(int columns) {
+    if (placer != null && columns == placer.getColumns() && placements.size() == items.size()) {
+      return;
+    }
+    if (placer == null || columns != placer.getColumns()) {
+      placer = new GridPlacer(GridPlacer.Mode.BIN_PACKING, columns, Integer.MAX_VALUE);
+      placements = new ArrayList<>(items.size());
+      rowIndex = new ArrayList<>();
+      maxRowSpan = 1;
+    }
+
+    for (int i = placements.size(); i < items.size(); i++) {
+      Dimension2D span = getSpanFactory() != null ? getSpanFactory().call(items.get(i)) : null;
+      int[] placement = span == null ? placer.place(1, 1)
+          : placer.place((int) span.getHeight(), (int) span.getWidth());
+      maxRowSpan = Math.max(maxRowSpan, placement[2]);
+      while (rowIndex.size() < placer.getRowCount()) {
+        rowIndex.add(new ArrayList<>());
+      }
+      rowIndex.get(placement[0]).add(i);
+      placements.add(placement);
+    }
+  }
+
+  private int getRowCount() {
+    return rowIndex.size();
+  }
+
+  /**
+   * Listens to the viewport of the nearest enclosing scroll pane.
+   */
+  private void bindScrollPane() {
+    Parent parent = getParent();
+    while (parent != null && !(parent instanceof ScrollPane)) {
+      parent = parent.getParent();
+    }
+    if (parent == scrollPane) {
+      return;
+    }
+    if (scrollPane != null) {
+      scrollPane.vvalueProperty().removeListener(viewportListener);
+      scrollPane.viewportBoundsProperty().removeListener(viewportListener);
+    }
+    scrollPane = (ScrollPane) parent;
+    if (scrollPane != null) {
+      scrollPane.vvalueProperty().addListener(viewportListener);
+      scrollPane.viewportBoundsProperty().addListener(viewportListener);
+    }
+  }
+
+  /**
+   * the factory creating new cells.
+   */
+  private ObjectProperty<Callback<VirtualGrid<T>, GridCell<T>>> cellFactory = new SimpleObjectProperty<>();
+
+  public final ObjectProperty<Callback<VirtualGrid<T>, GridCell<T>>> cellFactoryProperty() {
+    return this.cellFactory;
+  }
+
+  public final Callback<VirtualGrid<T>, GridCell<T>> getCellFactory() {
+    return this.cellFactoryProperty().get();
+  }
+
+  public final void setCellFactory(final Callback<VirtualGrid<T>, GridCell<T>> cellFactory) {
+    this.cellFactoryProperty().set(cellFactory);
+  }
+
+  /**
+   * the number of columns and rows spanned by an item. Items span a single cell by default.
+   */
+  private ObjectProperty<Callback<T, Dimension2D>> spanFactory = new SimpleObjectProperty<>() {
+    @Override
+    protected void invalidated() {
+      placer = null;
+      requestLayout();
+    }
+  };
+
+  public final ObjectProperty<Callback<T, Dimension2D>> spanFactoryProperty() {
+    return this.spanFactory;
+  }
+
+  public final Callback<T, Dimension2D> getSpanFactory() {
+    return this.spanFactoryProperty().get();
+  }
+
+  public final void setSpanFactory(final Callback<T, Dimension2D> spanFactory) {
+    this.spanFactoryProperty().set(spanFactory);
+  }
+
+  /**
+   * the cell width of the grid.
+   */
+  private DoubleProperty cellWidth = new SimpleDoubleProperty(70) {
+    @Override
+    protected void invalidated() {
+      requestLayout();
+    }
+  };
+
+  public final DoubleProperty cellWidthProperty() {
+    return this.cellWidth;
+  }
+
+  public final double getCellWidth() {
+    return this.cellWidthProperty().get();
+  }
+
+  public final void setCellWidth(final double cellWidth) {
+    this.cellWidthProperty().set(cellWidth);
+  }
+
+  /**
+   * the cell height of the grid.
+   */
+  private DoubleProperty cellHeight = new SimpleDoubleProperty(70) {
+    @Override
+    protected void invalidated() {
+      requestLayout();
+    }
+  };
+
+  public final DoubleProperty cellHeightProperty() {
+    return this.cellHeight;
+  }
+
+  public final double getCellHeight() {
+    return this.cellHeightProperty().get();
+  }
+
+  public final void setCellHeight(final double cellHeight) {
+    this.cellHeightProperty().set(cellHeight);
+  }
+
+  private DoubleProperty hSpacing = new SimpleDoubleProperty(5) {
+    @Override
+    protected void invalidated() {
+      requestLayout();
+    }
+  };
+
+  public final DoubleProperty hSpacingProperty() {
+    return this.hSpacing;
+  }
+
+  public final double getHSpacing() {
+    return this.hSpacingProperty().get();
+  }
+
+  public final void setHSpacing(final double spacing) {
+    this.hSpacingProperty().set(spacing);
+  }
+
+  private DoubleProperty vSpacing = new SimpleDoubleProperty(5) {
+    @Override
+    protected void invalidated() {
+      requestLayout();
+    }
+  };
+
+  public final DoubleProperty vSpacingProperty() {
+    return this.vSpacing;
+  }
+
+  public final double getVSpacing() {
+    return this.vSpacingProperty().get();
+  }
+
+  public final void setVSpacing(final double spacing) {
+    this.vSpacingProperty().set(spacing);
+  }
+
+  /**
+   * the number of rows materialized above and below the viewport.
+   */
+  private IntegerProperty bufferRows = new SimpleIntegerProperty(2) {
+    @Override
+    protected void invalidated() {
+      requestLayout();
+    }
+  };
+
+  public final IntegerProperty bufferRowsProperty() {
+    return this.bufferRows;
+  }
+
+  public final int getBufferRows() {
+    return this.bufferRowsProperty().get();
+  }
+
+  public final void setBufferRows(final int bufferRows) {
+    this.bufferRowsProperty().set(bufferRows);
+  }
+
+}
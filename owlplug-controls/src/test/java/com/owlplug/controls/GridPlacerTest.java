@@ -0,0 +1,118 @@
+/* OwlPlug
+ * Copyright (C) 2021 Arthur <dropsnorz@gmail.com>
+ *
+ * This file is part of OwlPlug.
+ *
+ * OwlPlug is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 3
+ * as published by the Free Software Foundation.
+ *
+ * OwlPlug is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OwlPlug.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.owlplug.controls;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class GridPlacerTest {
+
+  @Test
+  public void masonryPlacesBlocksOnLowestColumns() {
+    GridPlacer placer = new GridPlacer(GridPlacer.Mode.MASONRY, 3, 100);
+
+    assertArrayEquals(new int[] {0, 0, 2, 2}, placer.place(2, 2));
+    assertArrayEquals(new int[] {0, 2, 1, 1}, placer.place(1, 1));
+    assertArrayEquals(new int[] {1, 2, 1, 1}, placer.place(1, 1));
+    assertArrayEquals(new int[] {2, 0, 1, 3}, placer.place(1, 5));
+    assertEquals(3, placer.getRowCount());
+  }
+
+  @Test
+  public void binPackingFillsGaps() {
+    GridPlacer placer = new GridPlacer(GridPlacer.Mode.BIN_PACKING, 3, 100);
+
+    assertArrayEquals(new int[] {0, 0, 1, 1}, placer.place(1, 1));
+    assertArrayEquals(new int[] {1, 0, 1, 3}, placer.place(1, 3));
+    assertArrayEquals(new int[] {0, 1, 1, 2}, placer.place(1, 2));
+    assertArrayEquals(new int[] {2, 0, 1, 1}, placer.place(1, 1));
+  }
+
+  @Test
+  public void blocksExceedingRowLimitAreNotPlaced() {
+    GridPlacer masonry = new GridPlacer(GridPlacer.Mode.MASONRY, 1, 2);
+    GridPlacer binPacking = new GridPlacer(GridPlacer.Mode.BIN_PACKING, 1, 2);
+
+    masonry.place(2, 1);
+    binPacking.place(2, 1);
+
+    assertNull(masonry.place(1, 1));
+    assertNull(binPacking.place(1, 1));
+  }
+
+  /**
+   * The number of rows scanned to append a block must not depend on the number of
+   * blocks already placed.
+   */
+  @Test
+  public void appendCostIsIndependentOfPlacedBlocks() {
+    long smallGrid = scannedRowsPerAppends(8, 1_000, 10_000);
+    long largeGrid = scannedRowsPerAppends(8, 200_000, 10_000);
+
+    assertTrue(largeGrid <= smallGrid * 2,
+        "Appends scan more rows on large grids: " + smallGrid + " / " + largeGrid);
+  }
+
+  @Test
+  public void unfillableGapsDontSlowDownAppends() {
+    // Two columns wide blocks never fill the last column of an odd grid
+    GridPlacer placer = new GridPlacer(GridPlacer.Mode.BIN_PACKING, 5, Integer.MAX_VALUE);
+    for (int i = 0; i < 10_000; i++) {
+      placer.place(1, 2);
+    }
+    long scannedRows = placer.getScannedRows();
+    for (int i = 0; i < 1_000; i++) {
+      placer.place(1, 2);
+    }
+
+    assertEquals(5_500, placer.getRowCount());
+    assertTrue(placer.getScannedRows() - scannedRows <= 1_000 * 4,
+        "Appends scan " + (placer.getScannedRows() - scannedRows) + " rows");
+  }
+
+  private static long scannedRowsPerAppends(int columns, int placedBlocks, int appendedBlocks) {
+    Random random = new Random(42);
+    GridPlacer placer = new GridPlacer(GridPlacer.Mode.BIN_PACKING, columns, Integer.MAX_VALUE);
+    for (int i = 0; i < placedBlocks; i++) {
+      placeRandomBlock(placer, random);
+    }
+    long scannedRows = placer.getScannedRows();
+    for (int i = 0; i < appendedBlocks; i++) {
+      placeRandomBlock(placer, random);
+    }
+    return placer.getScannedRows() - scannedRows;
+  }
+
+  private static void placeRandomBlock(GridPlacer placer, Random random) {
+    float point = random.nextFloat();
+    if (point < 0.1) {
+      placer.place(2, 2);
+    } else if (point < 0.3) {
+      placer.place(1, 2);
+    } else {
+      placer.place(1, 1);
+    }
+  }
+
+}
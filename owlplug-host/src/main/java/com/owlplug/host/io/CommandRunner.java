@@ -21,8 +21,6 @@ package com.owlplug.host.io;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,7 +39,8 @@ public class CommandRunner {
   }
 
   /**
-   * Run a system command.
+   * Run a system command. If a timeout is activated, the process is destroyed
+   * when it does not exit before the timeout, even if it stops writing output.
    *
    * @param command the command to run
    * @return the {@link CommandResult}
@@ -50,48 +49,42 @@ public class CommandRunner {
   public CommandResult run(String... command) throws IOException {
     ProcessBuilder pb = new ProcessBuilder(command).redirectErrorStream(true);
     Process process = pb.start();
-    Instant processStartedAt = Instant.now();
-    StringBuilder result = new StringBuilder(80);
-    try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-      boolean keepReading = true;
-      while (keepReading) {
-        // Read process stream output
-        String line = in.readLine();
-        if (line == null) {
-          keepReading = false;
-        } else {
-          result.append(line).append(NEWLINE);
-        }
+    StringBuffer result = new StringBuffer(80);
 
-        // Verify timeout status
-        Instant currentInstant = Instant.now();
-        if(keepReading && timeoutActivated && ChronoUnit.MILLIS.between(processStartedAt, currentInstant) > timeout) {
-          log.error("Command line process not terminated after {} ms timeout", timeout);
-          log.error("Destroying command line process");
-          process.destroy();
-          throw new IOException("Timeout exceeded for subprocess output retrieval");
+    // Process output is consumed in a dedicated thread so a silent process can't block the timeout
+    Thread outputReader = new Thread(() -> {
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+        String line;
+        while ((line = in.readLine()) != null) {
+          result.append(line).append(NEWLINE);
         }
+      } catch (IOException e) {
+        log.debug("Command line process output stream closed", e);
       }
-
-    }
+    }, "command-output-reader");
+    outputReader.setDaemon(true);
+    outputReader.start();
 
     // Wait for the subprocess to exit
     try {
       if (timeoutActivated) {
-        Instant currentInstant = Instant.now();
-        boolean exited = process.waitFor(ChronoUnit.MILLIS.between(processStartedAt, currentInstant), TimeUnit.MILLISECONDS);
+        boolean exited = process.waitFor(timeout, TimeUnit.MILLISECONDS);
         if (!exited) {
           log.error("Command line process not terminated after {} ms timeout", timeout);
           log.error("Destroying command line process");
-          process.destroy();
+          process.destroyForcibly();
           throw new IOException("Timeout exceeded for subprocess to exit");
         }
+        outputReader.join(timeout);
       } else {
-        process.wait();
+        process.waitFor();
+        outputReader.join();
       }
       return new CommandResult(process.exitValue(), result.toString());
 
     } catch (InterruptedException e) {
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
       throw new IOException("Current thread has been interrupted while waiting subprocess", e);
     }
 
@@ -61,6 +61,11 @@ public class DummyPluginLoader implements NativePluginLoader {
     return true;
   }
 
+  @Override
+  public boolean isConcurrentLoadingSupported() {
+    return true;
+  }
+
   @Override
   public String getName() {
     return "No loader";
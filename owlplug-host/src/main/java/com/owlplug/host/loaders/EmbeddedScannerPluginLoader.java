@@ -226,6 +226,12 @@ public class EmbeddedScannerPluginLoader implements NativePluginLoader {
     return available;
   }
 
+  @Override
+  public boolean isConcurrentLoadingSupported() {
+    // Each plugin is loaded in a dedicated scanner process
+    return true;
+  }
+
   @Override
   public String getName() {
     return "OwlPlug Scanner";
@@ -33,6 +33,14 @@ public interface NativePluginLoader {
 
   public boolean isAvailable();
 
+  /**
+   * Returns true if plugins can be loaded concurrently from multiple threads.
+   * Loaders running plugins in the host process must return false.
+   *
+   * @return true if concurrent loading is supported
+   */
+  public boolean isConcurrentLoadingSupported();
+
   public String getName();
 
   public String getId();
@@ -64,6 +64,11 @@ public class JNINativePluginLoader implements NativePluginLoader {
     return nativePluginMapper.isNativeLibraryLoaded();
   }
 
+  @Override
+  public boolean isConcurrentLoadingSupported() {
+    return false;
+  }
+
   @Override
   public String getName() {
     return "OwlPlug JNI (legacy)";